@@ -47,6 +47,7 @@ import javax.net.ssl.X509TrustManager;
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
 import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.apache.xmlrpc.client.XmlRpcTransportFactory;
 
 
 //
@@ -56,21 +57,94 @@ import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
 public class BugzillaContext {
 	private XmlRpcClientConfigImpl config;
 	private XmlRpcClient client;
+	private BugzillaTransportFactory transportFactory;
+	private volatile RateLimiter rateLimiter = null;
 	
 	public BugzillaContext (String bugzilla) throws MalformedURLException {
 		assert (bugzilla != null);
 
 		// Endpoint:
 		URL url = new URL (bugzilla);
-		String host = url.getProtocol () + "://" + url.getHost () + "/xmlrpc.cgi";
+		URL host = new URL (url.getProtocol (), url.getHost (), url.getPort (), "/xmlrpc.cgi");
 
 
 		// RPC Setup:
 		this.config = new XmlRpcClientConfigImpl ();
-		config.setServerURL (new URL (host));
+		config.setServerURL (host);
+		config.setGzipRequesting (true);
 
 		this.client = new XmlRpcClient ();
 		this.client.setConfig (this.config);
+
+		this.transportFactory = new BugzillaTransportFactory (client);
+		this.client.setTransportFactory (transportFactory);
+	}
+
+	/**
+	 * Replaces the default keep-alive transport.
+	 */
+	public void setTransportFactory (XmlRpcTransportFactory factory) {
+		assert (factory != null);
+
+		this.transportFactory = (factory instanceof BugzillaTransportFactory)? (BugzillaTransportFactory) factory : null;
+		this.client.setTransportFactory (factory);
+
+		if (transportFactory != null) {
+			transportFactory.setRateLimiter (rateLimiter);
+		}
+	}
+
+	/**
+	 * Timeouts in ms, 0 waits forever. Only supported
+	 * by the default transport.
+	 */
+	public void setTimeouts (int connectTimeout, int readTimeout) {
+		if (transportFactory != null) {
+			transportFactory.setConnectTimeout (connectTimeout);
+			transportFactory.setReadTimeout (readTimeout);
+		}
+	}
+
+	/**
+	 * Responses are always requested gzip compressed, request
+	 * compression has to be supported by the server.
+	 */
+	public void setGzipRequests (boolean enabled) {
+		config.setGzipCompressing (enabled);
+	}
+
+	/**
+	 * Records or replays responses, null disables the cache.
+	 * Only supported by the default transport.
+	 */
+	public void setResponseCache (ResponseCache cache) {
+		assert (transportFactory != null);
+
+		transportFactory.setResponseCache (cache);
+	}
+
+	/**
+	 * Per-method statistics, null for custom transports.
+	 */
+	public TransportStats getTransportStats () {
+		return (transportFactory != null)? transportFactory.getStats () : null;
+	}
+
+	/**
+	 * All requests issued through this context wait for the
+	 * given limiter, null disables the limit. The default
+	 * transport does not limit cached responses.
+	 */
+	public void setRateLimiter (RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+
+		if (transportFactory != null) {
+			transportFactory.setRateLimiter (rateLimiter);
+		}
+	}
+
+	public RateLimiter getRateLimiter () {
+		return rateLimiter;
 	}
 
 	public void enableUntrustedCertificates () {
@@ -357,11 +431,26 @@ public class BugzillaContext {
 		assert (method != null);
 		assert (params != null);
 
+		// The default transport limits network requests only:
+		RateLimiter limiter = (transportFactory == null)? rateLimiter : null;
+		if (limiter != null) {
+			try {
+				limiter.acquire ();
+			} catch (InterruptedException e) {
+				Thread.currentThread ().interrupt ();
+				throw new BugzillaException (e);
+			}
+		}
+
 		try {
 			Object resObj = client.execute (method, params);
 			return resObj;
 		} catch (XmlRpcException e) {
 			throw new BugzillaException (e);
+		} finally {
+			if (limiter != null) {
+				limiter.release ();
+			}
 		}
 	}
 
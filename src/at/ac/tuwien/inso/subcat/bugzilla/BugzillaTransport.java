@@ -0,0 +1,277 @@
+/* BugzillaTransport.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.bugzilla;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.apache.xmlrpc.client.XmlRpcStreamRequestConfig;
+import org.apache.xmlrpc.client.XmlRpcSunHttpTransport;
+import org.xml.sax.SAXException;
+
+
+/**
+ * One request, see BugzillaTransportFactory.
+ */
+class BugzillaTransport extends XmlRpcSunHttpTransport {
+	private final BugzillaTransportFactory factory;
+
+	private CountingInputStream input = null;
+	private long bytesSent = 0;
+
+	// Set if the response has to be stored in the cache:
+	private ResponseCache cache = null;
+	private String cacheKey = null;
+
+	private static class CountingInputStream extends FilterInputStream {
+		public long count = 0;
+
+		public CountingInputStream (InputStream in) {
+			super (in);
+		}
+
+		@Override
+		public int read () throws IOException {
+			int b = super.read ();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read (byte[] b, int off, int len) throws IOException {
+			int read = super.read (b, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip (long n) throws IOException {
+			long skipped = super.skip (n);
+			count += skipped;
+			return skipped;
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+		public long count = 0;
+
+		public CountingOutputStream (OutputStream out) {
+			super (out);
+		}
+
+		@Override
+		public void write (int b) throws IOException {
+			out.write (b);
+			count++;
+		}
+
+		@Override
+		public void write (byte[] b, int off, int len) throws IOException {
+			out.write (b, off, len);
+			count += len;
+		}
+	}
+
+
+	public BugzillaTransport (XmlRpcClient client, BugzillaTransportFactory factory) {
+		super (client);
+
+		assert (factory != null);
+		this.factory = factory;
+	}
+
+	@Override
+	public Object sendRequest (XmlRpcRequest request) throws XmlRpcException {
+		ResponseCache cache = factory.getResponseCache ();
+		if (cache != null && cache.isCacheable (request.getMethodName ()) == false) {
+			if (cache.isOffline ()) {
+				throw new XmlRpcClientException (request.getMethodName () + " is not available in replay mode", null);
+			}
+		} else if (cache != null) {
+			Object[] params = new Object[request.getParameterCount ()];
+			for (int i = 0; i < params.length; i++) {
+				params[i] = request.getParameter (i);
+			}
+
+			String key = cache.getKey (request.getMethodName (), params);
+			byte[] response;
+			try {
+				response = cache.lookup (request.getMethodName (), key);
+			} catch (IOException e) {
+				throw new XmlRpcClientException ("Failed to read cached response: " + e.getMessage (), e);
+			}
+
+			if (response != null) {
+				factory.getStats ().recordCacheHit (request.getMethodName ());
+				return readResponse ((XmlRpcStreamRequestConfig) request.getConfig (), new ByteArrayInputStream (response));
+			}
+
+			if (cache.isOffline ()) {
+				throw new XmlRpcClientException ("No recorded response for " + request.getMethodName (), null);
+			}
+
+			this.cache = cache;
+			this.cacheKey = key;
+		}
+
+		RateLimiter limiter = factory.getRateLimiter ();
+		if (limiter != null) {
+			try {
+				limiter.acquire ();
+			} catch (InterruptedException e) {
+				Thread.currentThread ().interrupt ();
+				throw new XmlRpcClientException ("Interrupted while waiting for the rate limiter", e);
+			}
+		}
+
+		long start = System.nanoTime ();
+		boolean failed = true;
+
+		try {
+			Object result = super.sendRequest (request);
+			failed = false;
+			return result;
+		} finally {
+			long received = (input != null)? input.count : 0;
+			factory.getStats ().record (request.getMethodName (), System.nanoTime () - start, bytesSent, received, failed);
+
+			if (limiter != null) {
+				limiter.release ();
+			}
+		}
+	}
+
+	@Override
+	protected Object readResponse (XmlRpcStreamRequestConfig config, InputStream stream) throws XmlRpcException {
+		if (cacheKey == null) {
+			return super.readResponse (config, stream);
+		}
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream ();
+		try {
+			byte[] chunk = new byte[8192];
+			int read;
+			while ((read = stream.read (chunk)) >= 0) {
+				buffer.write (chunk, 0, read);
+			}
+		} catch (IOException e) {
+			throw new XmlRpcClientException ("Failed to read response: " + e.getMessage (), e);
+		}
+
+		byte[] response = buffer.toByteArray ();
+		Object result;
+		try {
+			result = super.readResponse (config, new ByteArrayInputStream (response));
+		} catch (XmlRpcClientException e) {
+			// Unparsable responses are never stored:
+			throw e;
+		} catch (XmlRpcException e) {
+			// Faults may be transient (overload, rate limits), only
+			// recordings keep them so replays fail the same way:
+			if (cache.getMode () == ResponseCache.Mode.RECORD) {
+				storeResponse (response);
+			}
+			throw e;
+		}
+
+		storeResponse (response);
+		return result;
+	}
+
+	private void storeResponse (byte[] response) {
+		try {
+			cache.store (cacheKey, response);
+		} catch (IOException e) {
+			e.printStackTrace ();
+		}
+	}
+
+	@Override
+	protected URLConnection newURLConnection (URL url) throws IOException {
+		URLConnection conn = super.newURLConnection (url);
+		conn.setConnectTimeout (factory.getConnectTimeout ());
+		conn.setReadTimeout (factory.getReadTimeout ());
+		return conn;
+	}
+
+	@Override
+	protected void writeRequest (ReqWriter writer) throws IOException, XmlRpcException, SAXException {
+		CountingOutputStream out = new CountingOutputStream (getURLConnection ().getOutputStream ());
+		try {
+			writer.write (out);
+		} finally {
+			bytesSent = out.count;
+		}
+	}
+
+	@Override
+	protected InputStream getInputStream () throws XmlRpcException {
+		// Raw stream, gzip is decoded on top of it:
+		input = new CountingInputStream (super.getInputStream ());
+		return input;
+	}
+
+	@Override
+	protected void close () throws XmlRpcClientException {
+		// Closing the stream instead of disconnecting keeps the
+		// socket in the keep-alive cache if the response was read
+		// completely. Without a response there is nothing to reuse.
+		URLConnection conn = getURLConnection ();
+		if (input != null) {
+			try {
+				input.close ();
+				return ;
+			} catch (IOException e) {
+			}
+		}
+
+		if (conn instanceof HttpURLConnection) {
+			((HttpURLConnection) conn).disconnect ();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/* BugzillaTransportFactory.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.bugzilla;
+
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcTransport;
+import org.apache.xmlrpc.client.XmlRpcTransportFactory;
+
+
+/**
+ * Default transport of BugzillaContext.
+ *
+ * Based on HttpURLConnection, connections are returned to the
+ * JDK keep-alive cache after each request (see http.maxConnections)
+ * instead of being closed. Records per-method statistics.
+ */
+public class BugzillaTransportFactory implements XmlRpcTransportFactory {
+	public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
+	public static final int DEFAULT_READ_TIMEOUT = 300000;
+
+	private final XmlRpcClient client;
+	private final TransportStats stats = new TransportStats ();
+
+	private volatile int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+	private volatile int readTimeout = DEFAULT_READ_TIMEOUT;
+	private volatile ResponseCache responseCache = null;
+	private volatile RateLimiter rateLimiter = null;
+
+
+	public BugzillaTransportFactory (XmlRpcClient client) {
+		assert (client != null);
+
+		this.client = client;
+	}
+
+	@Override
+	public XmlRpcTransport getTransport () {
+		return new BugzillaTransport (client, this);
+	}
+
+	/**
+	 * Timeout in ms, 0 waits forever.
+	 */
+	public void setConnectTimeout (int connectTimeout) {
+		assert (connectTimeout >= 0);
+
+		this.connectTimeout = connectTimeout;
+	}
+
+	public int getConnectTimeout () {
+		return connectTimeout;
+	}
+
+	/**
+	 * Maximal time in ms between two reads, 0 waits forever.
+	 */
+	public void setReadTimeout (int readTimeout) {
+		assert (readTimeout >= 0);
+
+		this.readTimeout = readTimeout;
+	}
+
+	public int getReadTimeout () {
+		return readTimeout;
+	}
+
+	/**
+	 * Records or replays responses, null disables the cache.
+	 */
+	public void setResponseCache (ResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	public ResponseCache getResponseCache () {
+		return responseCache;
+	}
+
+	/**
+	 * Requests sent to the server wait for the given
+	 * limiter, cache hits do not. null disables the limit.
+	 */
+	public void setRateLimiter (RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	public RateLimiter getRateLimiter () {
+		return rateLimiter;
+	}
+
+	public TransportStats getStats () {
+		return stats;
+	}
+}
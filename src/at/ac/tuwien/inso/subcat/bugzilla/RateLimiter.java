@@ -0,0 +1,143 @@
+/* RateLimiter.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.bugzilla;
+
+import java.util.concurrent.Semaphore;
+
+
+/**
+ * Token bucket shared by all threads talking to one tracker.
+ *
+ * Limits the request rate (requests per second, with bursts of up to
+ * one second worth of tokens) and the number of requests in flight.
+ * Every acquire () has to be paired with a release ().
+ */
+public class RateLimiter {
+	private final double requestsPerSecond;
+	private final double burst;
+	private final Semaphore inFlight;
+
+	private double tokens;
+	private long lastRefill;
+
+	private long requests = 0;
+	private long totalWaitTime = 0;
+
+
+	/**
+	 * requestsPerSecond: 0 disables the rate limit,
+	 * maxConcurrent: 0 disables the concurrency limit.
+	 */
+	public RateLimiter (double requestsPerSecond, int maxConcurrent) {
+		assert (requestsPerSecond >= 0);
+		assert (maxConcurrent >= 0);
+
+		this.requestsPerSecond = requestsPerSecond;
+		this.burst = Math.max (1.0, requestsPerSecond);
+		this.inFlight = (maxConcurrent > 0)? new Semaphore (maxConcurrent, true) : null;
+		this.tokens = burst;
+		this.lastRefill = System.nanoTime ();
+	}
+
+	public void acquire () throws InterruptedException {
+		long start = System.nanoTime ();
+
+		if (inFlight != null) {
+			inFlight.acquire ();
+		}
+
+		try {
+			takeToken ();
+		} catch (InterruptedException e) {
+			if (inFlight != null) {
+				inFlight.release ();
+			}
+			throw e;
+		}
+
+		synchronized (this) {
+			requests++;
+			totalWaitTime += System.nanoTime () - start;
+		}
+	}
+
+	public void release () {
+		if (inFlight != null) {
+			inFlight.release ();
+		}
+	}
+
+	public double getRequestsPerSecond () {
+		return requestsPerSecond;
+	}
+
+	public synchronized long getRequestCount () {
+		return requests;
+	}
+
+	/**
+	 * Accumulated time spent waiting for tokens and permits in ms.
+	 */
+	public synchronized long getTotalWaitTime () {
+		return totalWaitTime / 1000000;
+	}
+
+
+	//
+	// Helper:
+	//
+
+	private void takeToken () throws InterruptedException {
+		if (requestsPerSecond <= 0) {
+			return ;
+		}
+
+		while (true) {
+			long wait;
+
+			synchronized (this) {
+				long now = System.nanoTime ();
+				tokens = Math.min (burst, tokens + (now - lastRefill) * requestsPerSecond / 1e9);
+				lastRefill = now;
+
+				if (tokens >= 1) {
+					tokens -= 1;
+					return ;
+				}
+
+				wait = (long) Math.ceil ((1 - tokens) * 1000 / requestsPerSecond);
+			}
+
+			Thread.sleep (Math.max (1, wait));
+		}
+	}
+}
@@ -0,0 +1,328 @@
+/* ResponseCache.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.bugzilla;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * On-disk cache of raw XML-RPC responses, keyed by a hash
+ * of the method name and its parameters.
+ *
+ * RECORD: all requests go to the server, responses are stored.
+ * REPLAY: requests are answered from the cache only, misses fail.
+ * READ_THROUGH: responses younger than the TTL are taken from the
+ *   cache, everything else is requested and stored.
+ *
+ * Login and logout are never stored. Credentials and tokens are
+ * not part of the key, entries are shared between sessions. Faults
+ * are only stored in RECORD mode.
+ */
+public class ResponseCache {
+	public enum Mode {
+		RECORD,
+		REPLAY,
+		READ_THROUGH
+	}
+
+	// Answers depend on the time of the request, READ_THROUGH
+	// always asks the server. They are replayed, though.
+	private static final String[] LIVE_METHODS = {
+		"Bugzilla.time"
+	};
+
+	// Responses contain session tokens:
+	private static final String[] PRIVATE_METHODS = {
+		"User.login",
+		"User.logout"
+	};
+
+	// Parameters left out of the key:
+	private static final String[] CREDENTIAL_PARAMS = {
+		"login",
+		"password",
+		"token",
+		"api_key",
+		"Bugzilla_login",
+		"Bugzilla_password",
+		"Bugzilla_token",
+		"Bugzilla_api_key"
+	};
+
+	private final File directory;
+	private final Mode mode;
+	private final long ttl;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long stored = 0;
+
+
+	/**
+	 * ttl: maximal age of READ_THROUGH entries in ms, 0 for no limit.
+	 */
+	public ResponseCache (File directory, Mode mode, long ttl) throws IOException {
+		assert (directory != null);
+		assert (mode != null);
+		assert (ttl >= 0);
+
+		if (mode != Mode.REPLAY && directory.isDirectory () == false && directory.mkdirs () == false) {
+			throw new IOException ("Could not create cache directory `" + directory + "'");
+		}
+
+		this.directory = directory;
+		this.mode = mode;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Accepts record, replay and read-through, returns
+	 * null for unknown modes.
+	 */
+	public static Mode parseMode (String name) {
+		assert (name != null);
+
+		for (Mode mode : Mode.values ()) {
+			if (mode.name ().replace ('_', '-').equalsIgnoreCase (name)) {
+				return mode;
+			}
+		}
+
+		return null;
+	}
+
+	public Mode getMode () {
+		return mode;
+	}
+
+	/**
+	 * True if misses must not be requested from the server.
+	 */
+	public boolean isOffline () {
+		return mode == Mode.REPLAY;
+	}
+
+	/**
+	 * False if responses of the given method must not be written to disk.
+	 */
+	public boolean isCacheable (String method) {
+		assert (method != null);
+
+		return Arrays.asList (PRIVATE_METHODS).contains (method) == false;
+	}
+
+	public String getKey (String method, Object[] params) {
+		assert (method != null);
+		assert (params != null);
+
+		StringBuilder builder = new StringBuilder (method);
+		appendCanonical (builder, params);
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance ("SHA-256");
+			byte[] hash = digest.digest (builder.toString ().getBytes ("UTF-8"));
+
+			StringBuilder hex = new StringBuilder ();
+			for (byte b : hash) {
+				hex.append (String.format ("%02x", b));
+			}
+			return hex.toString ();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException (e);
+		} catch (IOException e) {
+			throw new RuntimeException (e);
+		}
+	}
+
+	/**
+	 * Returns the stored response or null if it has to be requested.
+	 */
+	public byte[] lookup (String method, String key) throws IOException {
+		assert (method != null);
+		assert (key != null);
+
+		if (mode == Mode.RECORD || isCacheable (method) == false || (mode == Mode.READ_THROUGH && isLiveMethod (method))) {
+			return null;
+		}
+
+		File file = getFile (key);
+		if (file.isFile () == false || (mode == Mode.READ_THROUGH && ttl > 0 && System.currentTimeMillis () - file.lastModified () > ttl)) {
+			synchronized (this) {
+				misses++;
+			}
+			return null;
+		}
+
+		InputStream in = new GZIPInputStream (new FileInputStream (file));
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream ();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read (buffer)) >= 0) {
+				out.write (buffer, 0, read);
+			}
+
+			synchronized (this) {
+				hits++;
+			}
+			return out.toByteArray ();
+		} finally {
+			in.close ();
+		}
+	}
+
+	public void store (String key, byte[] response) throws IOException {
+		assert (key != null);
+		assert (response != null);
+
+		if (mode == Mode.REPLAY) {
+			return ;
+		}
+
+		File file = getFile (key);
+		File dir = file.getParentFile ();
+		if (dir.isDirectory () == false && dir.mkdirs () == false) {
+			throw new IOException ("Could not create cache directory `" + dir + "'");
+		}
+
+		// Readers never see partial files:
+		File tmp = File.createTempFile (key, ".tmp", dir);
+		try {
+			OutputStream out = new GZIPOutputStream (new FileOutputStream (tmp));
+			try {
+				out.write (response);
+			} finally {
+				out.close ();
+			}
+
+			if (file.exists () && file.delete () == false) {
+				throw new IOException ("Could not replace `" + file + "'");
+			}
+			if (tmp.renameTo (file) == false) {
+				throw new IOException ("Could not rename `" + tmp + "' to `" + file + "'");
+			}
+		} finally {
+			tmp.delete ();
+		}
+
+		synchronized (this) {
+			stored++;
+		}
+	}
+
+	public synchronized long getHits () {
+		return hits;
+	}
+
+	public synchronized long getMisses () {
+		return misses;
+	}
+
+	public synchronized long getStored () {
+		return stored;
+	}
+
+	@Override
+	public synchronized String toString () {
+		return String.format ("response cache (%s): %d hits, %d misses, %d stored",
+			mode.name ().toLowerCase ().replace ('_', '-'), hits, misses, stored);
+	}
+
+
+	//
+	// Helper:
+	//
+
+	private File getFile (String key) {
+		return new File (new File (directory, key.substring (0, 2)), key + ".xml.gz");
+	}
+
+	private static boolean isLiveMethod (String method) {
+		return Arrays.asList (LIVE_METHODS).contains (method);
+	}
+
+	// Map order does not affect the key:
+	private static void appendCanonical (StringBuilder builder, Object obj) {
+		if (obj == null) {
+			builder.append ("n;");
+		} else if (obj instanceof Map) {
+			TreeMap<String, Object> sorted = new TreeMap<String, Object> ();
+			for (Map.Entry<?,?> entry : ((Map<?,?>) obj).entrySet ()) {
+				String key = String.valueOf (entry.getKey ());
+				if (Arrays.asList (CREDENTIAL_PARAMS).contains (key) == false) {
+					sorted.put (key, entry.getValue ());
+				}
+			}
+
+			builder.append ('{');
+			for (Map.Entry<String, Object> entry : sorted.entrySet ()) {
+				appendCanonical (builder, entry.getKey ());
+				appendCanonical (builder, entry.getValue ());
+			}
+			builder.append ('}');
+		} else if (obj instanceof Object[]) {
+			builder.append ('[');
+			for (Object item : (Object[]) obj) {
+				appendCanonical (builder, item);
+			}
+			builder.append (']');
+		} else if (obj instanceof Collection) {
+			builder.append ('[');
+			for (Object item : (Collection<?>) obj) {
+				appendCanonical (builder, item);
+			}
+			builder.append (']');
+		} else if (obj instanceof byte[]) {
+			builder.append ("b").append (Arrays.toString ((byte[]) obj)).append (';');
+		} else if (obj instanceof Date) {
+			builder.append ("d").append (((Date) obj).getTime ()).append (';');
+		} else {
+			String str = obj.toString ();
+			builder.append (obj.getClass ().getSimpleName ()).append (':').append (str.length ()).append (':').append (str).append (';');
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/* TransportStats.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.bugzilla;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+
+/**
+ * Per-method request statistics of a BugzillaTransportFactory.
+ */
+public class TransportStats {
+
+	public static class MethodStats {
+		public final String method;
+		private long requests = 0;
+		private long failures = 0;
+		private long cacheHits = 0;
+		private long totalTime = 0;
+		private long maxTime = 0;
+		private long bytesSent = 0;
+		private long bytesReceived = 0;
+
+		private MethodStats (String method) {
+			this.method = method;
+		}
+
+		public synchronized long getRequests () {
+			return requests;
+		}
+
+		public synchronized long getFailures () {
+			return failures;
+		}
+
+		/**
+		 * Answered by the response cache, not part of requests.
+		 */
+		public synchronized long getCacheHits () {
+			return cacheHits;
+		}
+
+		/**
+		 * Total time in ms.
+		 */
+		public synchronized double getTotalTime () {
+			return totalTime / 1e6;
+		}
+
+		public synchronized double getMaxTime () {
+			return maxTime / 1e6;
+		}
+
+		public synchronized double getAverageTime () {
+			return (requests > 0)? totalTime / 1e6 / requests : 0;
+		}
+
+		/**
+		 * Bytes on the wire, i.e. compressed if gzip is in use.
+		 */
+		public synchronized long getBytesSent () {
+			return bytesSent;
+		}
+
+		public synchronized long getBytesReceived () {
+			return bytesReceived;
+		}
+
+		@Override
+		public synchronized String toString () {
+			return String.format ("%s: %d requests, %d failed, %d cached, %.1fms avg, %.1fms max, %d KiB sent, %d KiB received",
+				method, requests, failures, cacheHits, getAverageTime (), getMaxTime (), bytesSent / 1024, bytesReceived / 1024);
+		}
+
+		private synchronized void add (long time, long sent, long received, boolean failed) {
+			this.requests++;
+			this.totalTime += time;
+			this.maxTime = Math.max (maxTime, time);
+			this.bytesSent += sent;
+			this.bytesReceived += received;
+			if (failed) {
+				this.failures++;
+			}
+		}
+	}
+
+	private HashMap<String, MethodStats> methods = new HashMap<String, MethodStats> ();
+
+
+	void record (String method, long time, long sent, long received, boolean failed) {
+		assert (method != null);
+
+		getMethodStats (method).add (time, sent, received, failed);
+	}
+
+	void recordCacheHit (String method) {
+		assert (method != null);
+
+		MethodStats stats = getMethodStats (method);
+		synchronized (stats) {
+			stats.cacheHits++;
+		}
+	}
+
+	private synchronized MethodStats getMethodStats (String method) {
+		MethodStats stats = methods.get (method);
+		if (stats == null) {
+			stats = new MethodStats (method);
+			methods.put (method, stats);
+		}
+
+		return stats;
+	}
+
+	/**
+	 * Sorted by total time, descending.
+	 */
+	public synchronized List<MethodStats> getMethodStats () {
+		ArrayList<MethodStats> list = new ArrayList<MethodStats> (methods.values ());
+		Collections.sort (list, new Comparator<MethodStats> () {
+			@Override
+			public int compare (MethodStats a, MethodStats b) {
+				return Double.compare (b.getTotalTime (), a.getTotalTime ());
+			}
+		});
+
+		return list;
+	}
+}
@@ -78,7 +78,7 @@ public class ConfigVisitor {
 	public void visitDistributionChartConfig (DistributionChartConfig distributionChartConfig) {
 	}
 
-	public void visitDistributionChartOptionConfig (ConfigVisitor visitor) {
+	public void visitDistributionChartOptionConfig (DistributionChartOptionConfig distributionChartOptionConfig) {
 	}
 
 	public void visitDistributionAttributeConfig (DistributionAttributeConfig distributionAttributeConfig) {
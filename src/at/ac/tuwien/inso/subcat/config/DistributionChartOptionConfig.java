@@ -76,7 +76,7 @@ public class DistributionChartOptionConfig extends OptionalConfigNode {
 	public void accept(ConfigVisitor visitor) {
 		assert (visitor != null);
 
-		visitor.visitDistributionChartOptionConfig (visitor);
+		visitor.visitDistributionChartOptionConfig (this);
 	}
 
 	public void acceptChildren (ConfigVisitor visitor) {
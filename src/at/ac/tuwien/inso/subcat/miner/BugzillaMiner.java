@@ -30,14 +30,29 @@
 
 package at.ac.tuwien.inso.subcat.miner;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,7 +65,11 @@ import at.ac.tuwien.inso.subcat.bugzilla.BugzillaException;
 import at.ac.tuwien.inso.subcat.bugzilla.BugzillaFlag;
 import at.ac.tuwien.inso.subcat.bugzilla.BugzillaHistory;
 import at.ac.tuwien.inso.subcat.bugzilla.BugzillaProduct;
+import at.ac.tuwien.inso.subcat.bugzilla.BugzillaTransportFactory;
 import at.ac.tuwien.inso.subcat.bugzilla.BugzillaUser;
+import at.ac.tuwien.inso.subcat.bugzilla.RateLimiter;
+import at.ac.tuwien.inso.subcat.bugzilla.ResponseCache;
+import at.ac.tuwien.inso.subcat.bugzilla.TransportStats;
 import at.ac.tuwien.inso.subcat.model.Attachment;
 import at.ac.tuwien.inso.subcat.model.AttachmentDetails;
 import at.ac.tuwien.inso.subcat.model.AttachmentStatus;
@@ -100,30 +119,88 @@ public class BugzillaMiner extends Miner {
 	}
 	
 	private LinkedBlockingQueue<QueueEntry> queue = new LinkedBlockingQueue<QueueEntry> ();
-	private boolean run = true;
+	private volatile boolean run = true;
+
+	// Fetched data of one pass, handed from the workers to the writer.
+	// A pass without bugs stops the writer.
+	private class Pass {
+		public List<BugzillaBug> bugs;
+		public Map<Integer, BugzillaHistory[]> histories;
+		public Map<Integer, BugzillaComment[]> comments;
+		public Map<Integer, BugzillaAttachment> attachments;
+	}
+
+	// Queue depth and write latency of the writer:
+	private static class WriteStats {
+		private long passes = 0;
+		private long bugs = 0;
+		private long totalWriteTime = 0;
+		private long maxWriteTime = 0;
+
+		private long enqueued = 0;
+		private long totalDepth = 0;
+		private int maxDepth = 0;
+		private long totalBlockedTime = 0;
+
+		public synchronized void enqueued (int depth, long blockedTime) {
+			enqueued++;
+			totalDepth += depth;
+			maxDepth = Math.max (maxDepth, depth);
+			totalBlockedTime += blockedTime;
+		}
+
+		public synchronized void written (int bugs, long writeTime) {
+			this.passes++;
+			this.bugs += bugs;
+			this.totalWriteTime += writeTime;
+			this.maxWriteTime = Math.max (maxWriteTime, writeTime);
+		}
+
+		@Override
+		public synchronized String toString () {
+			return String.format ("writer: %d bugs in %d passes, write time %.1fms avg, %.1fms max, queue depth %.1f avg, %d max, workers blocked %.1fs",
+				bugs, passes,
+				(passes > 0)? totalWriteTime / 1e6 / passes : 0.0,
+				maxWriteTime / 1e6,
+				(enqueued > 0)? (double) totalDepth / enqueued : 0.0,
+				maxDepth,
+				totalBlockedTime / 1e9);
+		}
+	}
+
+	private ArrayBlockingQueue<Pass> writeQueue;
+	private WriteStats writeStats = new WriteStats ();
+	private Writer writer;
 
 	private Reporter reporter;
 	private BugzillaContext context;
+	private ResponseCache responseCache;
+	private ExecutorService fetchExecutor;
 	private Settings settings;
 	private ModelPool pool;
 	private Model model;
 	
-	private Map<String, AttachmentStatus> attachmentStatus = new HashMap<String, AttachmentStatus> ();
-	private Map<String, OperatingSystem> operatingSystems = new HashMap<String, OperatingSystem> ();
-	private Map<String, BugFlagStatus> flagStates = new HashMap<String, BugFlagStatus> ();
-	private Map<String, Resolution> resolutions = new HashMap<String, Resolution> ();
-	private Map<String, Component> components = new HashMap<String, Component> ();
-	private Map<String, Milestone> milestones = new HashMap<String, Milestone> ();
-	private Map<String, Priority> priorities = new HashMap<String, Priority> ();
-	private Map<String, Severity> severities = new HashMap<String, Severity> ();
-	private Map<String, Identity> identities = new HashMap<String, Identity> ();
-	private Map<String, Platform> platforms = new HashMap<String, Platform> ();
-	private Map<String, BugClass> classes = new HashMap<String, BugClass> ();
-	private Map<String, Version> versions = new HashMap<String, Version> ();
-	private Map<String, Keyword> keywords = new HashMap<String, Keyword> ();
-	private Map<String, BugGroup> groups = new HashMap<String, BugGroup> ();
-	private Map<Integer,BugFlag> flags = new HashMap<Integer, BugFlag> ();
-	private Map<String, Status> status = new HashMap<String, Status> ();
+	private Map<String, AttachmentStatus> attachmentStatus = new ConcurrentHashMap<String, AttachmentStatus> ();
+	private Map<String, OperatingSystem> operatingSystems = new ConcurrentHashMap<String, OperatingSystem> ();
+	private Map<String, BugFlagStatus> flagStates = new ConcurrentHashMap<String, BugFlagStatus> ();
+	private Map<String, Resolution> resolutions = new ConcurrentHashMap<String, Resolution> ();
+	private Map<String, Component> components = new ConcurrentHashMap<String, Component> ();
+	private Map<String, Milestone> milestones = new ConcurrentHashMap<String, Milestone> ();
+	private Map<String, Priority> priorities = new ConcurrentHashMap<String, Priority> ();
+	private Map<String, Severity> severities = new ConcurrentHashMap<String, Severity> ();
+	private Map<String, Identity> identities = new ConcurrentHashMap<String, Identity> ();
+	private Map<String, BugzillaUser> users = new ConcurrentHashMap<String, BugzillaUser> ();
+	private Set<String> unknownIdentities = Collections.newSetFromMap (new ConcurrentHashMap<String, Boolean> ());
+	private Map<String, Platform> platforms = new ConcurrentHashMap<String, Platform> ();
+	private Map<String, BugClass> classes = new ConcurrentHashMap<String, BugClass> ();
+	private Map<String, Version> versions = new ConcurrentHashMap<String, Version> ();
+	private Map<String, Keyword> keywords = new ConcurrentHashMap<String, Keyword> ();
+	private Map<String, BugGroup> groups = new ConcurrentHashMap<String, BugGroup> ();
+	private Map<Integer, BugFlag> flags = new ConcurrentHashMap<Integer, BugFlag> ();
+	private Map<String, Status> status = new ConcurrentHashMap<String, Status> ();
+	private ConcurrentHashMap<Object, Object> insertLocks = new ConcurrentHashMap<Object, Object> ();
+	// Cache entries added by the current pass, only touched by the writer:
+	private List<Map.Entry<Map<?, ?>, Object>> passInserts;
 	private Project project;
 
 	private List<Worker> workers = new LinkedList<Worker> ();
@@ -169,10 +246,9 @@ public class BugzillaMiner extends Miner {
 						bbugs.add (bbug);
 					}
 
-					process (bbugs, bzBugIds);
-					emitTasksProcessed (bbugs.size ());
-
-					Thread.sleep (settings.bugCooldownTime);
+					if (bbugs.size () > 0) {
+						process (bbugs, bzBugIds);
+					}
 				} catch (InterruptedException e) {
 					Thread.currentThread ().interrupt ();
 				} catch (BugzillaException e) {
@@ -198,9 +274,9 @@ public class BugzillaMiner extends Miner {
 			return false;
 		}
 		
-		private void process (List<BugzillaBug> bzBugs, List<Integer> bzBugIds) throws BugzillaException, SQLException {
+		private void process (List<BugzillaBug> bzBugs, List<Integer> bzBugIds) throws BugzillaException, SQLException, InterruptedException {
 			try {
-				_process (bzBugs, bzBugIds);
+				enqueue (fetch (bzBugs, bzBugIds));
 				return ;
 			} catch (BugzillaException e) {
 				if (isSaxError (e) == false) {
@@ -219,10 +295,11 @@ public class BugzillaMiner extends Miner {
 					LinkedList<Integer> _bzBugIds = new LinkedList<Integer> ();
 					_bzBugIds.add (bzBug.getId ());
 
-					_process (_bzBugs, _bzBugIds);
+					enqueue (fetch (_bzBugs, _bzBugIds));
 				} catch (BugzillaException e) {
 					if (isSaxError (e)) {
 						reporter.warning (BugzillaMiner.this.getName ().toLowerCase (), "Could not process and store bug #" + bzBug.getId () + ": " + e.getMessage ());
+						emitTasksProcessed (1);
 					} else {
 						throw e;
 					}
@@ -230,28 +307,228 @@ public class BugzillaMiner extends Miner {
 			}
 		}
 
-		private void _process (List<BugzillaBug> bzBugs, List<Integer> bzBugIds) throws BugzillaException, SQLException {
+		private Pass fetch (List<BugzillaBug> bzBugs, List<Integer> bzBugIds) throws BugzillaException, InterruptedException {
 			assert (bzBugs != null);
 			assert (bzBugIds != null);
 			assert (bzBugs.size () == bzBugIds.size ());
 
-			// Get data:
+			// Get data, the requests are independent and run concurrently.
+			// Tasks may outlive a failed pass, they get their own id list.
+			final List<Integer> ids = new ArrayList<Integer> (bzBugIds);
+			Future<Map<Integer, BugzillaHistory[]>> historyTask = null;
+			Future<Map<Integer, BugzillaAttachment>> attachmentTask = null;
+
 			Map<Integer, BugzillaHistory[]> _histories = null;
 			Map<Integer, BugzillaComment[]> _comments = null;
 			Map<Integer, BugzillaAttachment> _attachments = null;
 
-			if (processComments) {
-				_histories = context.getHistory (bzBugIds);
+			try {
+				if (processHistory) {
+					historyTask = fetchExecutor.submit (new Callable<Map<Integer, BugzillaHistory[]>> () {
+						@Override
+						public Map<Integer, BugzillaHistory[]> call () throws BugzillaException {
+							return context.getHistory (ids);
+						}
+					});
+				}
+
+				if (processAttachmentDetails) {
+					attachmentTask = fetchExecutor.submit (new Callable<Map<Integer, BugzillaAttachment>> () {
+						@Override
+						public Map<Integer, BugzillaAttachment> call () throws BugzillaException {
+							return context.getAttachments (ids);
+						}
+					});
+				}
+
+				if (processComments) {
+					_comments = context.getComments (ids);
+				}
+
+				_histories = await (historyTask);
+				_attachments = await (attachmentTask);
+			} finally {
+				if (historyTask != null) {
+					historyTask.cancel (true);
+				}
+				if (attachmentTask != null) {
+					attachmentTask.cancel (true);
+				}
+			}
+
+
+			// The worker reuses its lists for the next pass:
+			Pass pass = new Pass ();
+			pass.bugs = new ArrayList<BugzillaBug> (bzBugs);
+			pass.histories = _histories;
+			pass.comments = _comments;
+			pass.attachments = _attachments;
+			return pass;
+		}
+
+		private <T> T await (Future<T> task) throws BugzillaException, InterruptedException {
+			if (task == null) {
+				return null;
+			}
+
+			try {
+				return task.get ();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause ();
+				if (cause instanceof BugzillaException) {
+					throw (BugzillaException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+
+				throw new BugzillaException (e);
 			}
+		}
+
+		private void enqueue (Pass pass) throws BugzillaException, InterruptedException {
+			// User lookups are requests, keep them away from the writer:
+			lookupPassUsers (pass);
 
-			if (processComments) {
-				_comments = context.getComments (bzBugIds);
+			long start = System.nanoTime ();
+			int depth = writeQueue.size ();
+			// Do not block forever on a writer that is gone:
+			while (writeQueue.offer (pass, 100, TimeUnit.MILLISECONDS) == false) {
+				if (run == false || writer.isAlive () == false) {
+					throw new InterruptedException ();
+				}
 			}
+			writeStats.enqueued (depth, System.nanoTime () - start);
+		}
 
-			if (processAttachmentDetails) {
-				_attachments = context.getAttachments (bzBugIds);
+		private void lookupPassUsers (Pass pass) throws BugzillaException {
+			for (BugzillaBug bzBug : pass.bugs) {
+				for (String cc : bzBug.getCcs ()) {
+					lookupUnknownUser (cc);
+				}
+				lookupUnknownUser (bzBug.getQaContact ());
+				lookupFlagUsers (bzBug.getProcessFlags ());
 			}
-			
+
+			if (pass.comments != null) {
+				for (BugzillaComment[] comments : pass.comments.values ()) {
+					for (BugzillaComment comment : comments) {
+						lookupUnknownUser (comment.getCreator ());
+					}
+				}
+			}
+
+			if (pass.histories != null) {
+				for (BugzillaHistory[] history : pass.histories.values ()) {
+					for (BugzillaHistory entry : history) {
+						lookupUnknownUser (entry.getWho ());
+						for (BugzillaChange change : entry.getChanges ()) {
+							String field = change.getFieldName ();
+							if ("cc".equals (field) || "assigned_to".equals (field) || "qa_contact".equals (field)) {
+								lookupUnknownUser (change.getAdded ());
+								lookupUnknownUser (change.getRemoved ());
+							}
+						}
+					}
+				}
+			}
+
+			if (pass.attachments != null) {
+				for (BugzillaAttachment bzAtt : pass.attachments.values ()) {
+					lookupUnknownUser (bzAtt.getCreator ());
+					lookupFlagUsers (bzAtt.getFlags ());
+				}
+			}
+		}
+
+		private void lookupFlagUsers (BugzillaFlag[] bzFlags) throws BugzillaException {
+			if (bzFlags == null) {
+				return ;
+			}
+
+			for (BugzillaFlag bzFlag : bzFlags) {
+				lookupUnknownUser (bzFlag.getSetter ());
+				lookupUnknownUser (bzFlag.getRequestee ());
+			}
+		}
+
+		// Unknown names are reported by the writer, if at all:
+		private void lookupUnknownUser (String name) throws BugzillaException {
+			if (name != null && isGroupIdentifier (name) == false) {
+				lookupUser (name, true);
+			}
+		}
+	}
+
+	private class Writer extends Thread {
+
+		@Override
+		public void run () {
+			try {
+				while (!Thread.currentThread().isInterrupted ()) {
+					Pass pass = writeQueue.take ();
+					if (pass.bugs == null) {
+						break;
+					}
+
+					long start = System.nanoTime ();
+					store (pass);
+					writeStats.written (pass.bugs.size (), System.nanoTime () - start);
+
+					emitTasksProcessed (pass.bugs.size ());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread ().interrupt ();
+			} catch (BugzillaException e) {
+				abortRun (new MinerException ("Bugzilla-Exception: " + e.getMessage (), e));
+			} catch (SQLException e) {
+				abortRun (new MinerException ("SQL-Exception: " + e.getMessage (), e));
+			} catch (Throwable e) {
+				// Workers wait for the writer, never leave them behind:
+				MinerException ex = new MinerException ("Writer-Exception: " + e);
+				ex.initCause (e);
+				abortRun (ex);
+			}
+		}
+
+		private void store (Pass pass) throws SQLException, BugzillaException {
+			boolean committed = false;
+
+			passInserts = new ArrayList<Map.Entry<Map<?, ?>, Object>> ();
+			model.begin ();
+			try {
+				storeBugs (pass);
+
+				// Do not keep half-written bugs of an aborted run:
+				if (Thread.currentThread ().isInterrupted () == false) {
+					model.commit ();
+					committed = true;
+				}
+			} finally {
+				if (committed == false) {
+					try {
+						model.rollback ();
+					} catch (SQLException e) {
+						e.printStackTrace ();
+					}
+
+					// Rows of this pass are gone, so are their ids:
+					for (Map.Entry<Map<?, ?>, Object> entry : passInserts) {
+						entry.getKey ().remove (entry.getValue ());
+					}
+				}
+
+				passInserts = null;
+			}
+		}
+
+		private void storeBugs (Pass pass) throws SQLException, BugzillaException {
+			List<BugzillaBug> bzBugs = pass.bugs;
+			Map<Integer, BugzillaHistory[]> _histories = pass.histories;
+			Map<Integer, BugzillaComment[]> _comments = pass.comments;
+			Map<Integer, BugzillaAttachment> _attachments = pass.attachments;
+
 			for (BugzillaBug bzBug : bzBugs) {
 				BugzillaComment[] comments = (_comments != null)? _comments.get (bzBug.getId ()) : null;
 				Identity creator = null;
@@ -838,6 +1115,8 @@ public class BugzillaMiner extends Miner {
 
 			passSize = settings.bugGetParameter (this, "pass-size", 10);
 			pageSize = settings.bugGetParameter (this, "page-size", 50);
+			int writeQueueSize = settings.bugGetParameter (this, "write-queue-size", Math.max (2, settings.bugThreads * 2));
+			writeQueue = new ArrayBlockingQueue<Pass> (writeQueueSize);
 
 			if (settings.bugUpdate) {
 				List<String> flags = model.getFlags (project);
@@ -862,6 +1141,13 @@ public class BugzillaMiner extends Miner {
 				}
 			}
 
+			// History and attachment requests of all workers:
+			fetchExecutor = Executors.newFixedThreadPool (Math.max (1, settings.bugThreads * 2));
+
+			// All bug data is stored by a single thread:
+			writer = new Writer ();
+			writer.start ();
+
 			for (int i = 0; i < settings.bugThreads; i++) {
 				Worker worker = new Worker ();
 				workers.add (worker);
@@ -870,17 +1156,47 @@ public class BugzillaMiner extends Miner {
 	
 			emitStart ();
 	
+			// Idle connections kept for reuse, read by the JDK on the first request.
+			// Workers, their fetch tasks and the pager may all talk to the server:
+			if (System.getProperty ("http.maxConnections") == null) {
+				System.setProperty ("http.maxConnections", Integer.toString (Math.max (5, settings.bugThreads * 3 + 1)));
+			}
+
 			try {
 				context = new BugzillaContext (settings.bugRepository);
 			} catch (MalformedURLException e) {
 				throw new MinerException ("Malformed tracker URL: " + e.getMessage (), e);
 			}
 
+			context.setTimeouts (settings.bugGetParameter (this, "connect-timeout", BugzillaTransportFactory.DEFAULT_CONNECT_TIMEOUT),
+				settings.bugGetParameter (this, "read-timeout", BugzillaTransportFactory.DEFAULT_READ_TIMEOUT));
+			context.setGzipRequests (settings.bugGetParameter (this, "gzip-requests", false));
+
 			if (settings.bugEnableUntrustedCertificates) {
 				context.enableUntrustedCertificates ();
 			}
 
-			if (settings.bugLoginUser != null && settings.bugLoginPw != null) {
+			String cacheDir = settings.bugGetParameter (this, "cache-dir", (String) null);
+			if (cacheDir != null) {
+				ResponseCache.Mode mode = ResponseCache.parseMode (settings.bugGetParameter (this, "cache-mode", "read-through"));
+				long ttl = settings.bugGetParameter (this, "cache-ttl", 0) * 1000L;
+				try {
+					responseCache = new ResponseCache (new File (cacheDir), mode, ttl);
+				} catch (IOException e) {
+					throw new MinerException ("Response cache: " + e.getMessage (), e);
+				}
+
+				context.setResponseCache (responseCache);
+			}
+
+			// Replayed sessions do not talk to the server,
+			// logins are not recorded:
+			boolean offline = (responseCache != null && responseCache.isOffline ());
+			if (offline == false) {
+				context.setRateLimiter (createRateLimiter ());
+			}
+
+			if (settings.bugLoginUser != null && settings.bugLoginPw != null && offline == false) {
 				context.login (settings.bugLoginUser, settings.bugLoginPw);
 			}
 
@@ -905,6 +1221,35 @@ public class BugzillaMiner extends Miner {
 			}
 		}
 
+		if (fetchExecutor != null) {
+			fetchExecutor.shutdownNow ();
+		}
+
+		if (writer != null) {
+			try {
+				// The writer may be gone after a failure:
+				Pass poison = new Pass ();
+				while (writer.isAlive () && writeQueue.offer (poison, 100, TimeUnit.MILLISECONDS) == false) {
+				}
+				writer.join ();
+			} catch (InterruptedException e) {
+				writer.interrupt ();
+			}
+
+			reporter.note (getName ().toLowerCase (), writeStats.toString ());
+		}
+
+		if (responseCache != null) {
+			reporter.note (getName ().toLowerCase (), responseCache.toString ());
+		}
+
+		TransportStats transportStats = (context != null)? context.getTransportStats () : null;
+		if (transportStats != null) {
+			for (TransportStats.MethodStats stats : transportStats.getMethodStats ()) {
+				reporter.note (getName ().toLowerCase (), stats.toString ());
+			}
+		}
+
 		try {
 			model.resolveDuplicationCommentyBugs (project);
 			model.resolveBugBlocksHistoryBugs (project);
@@ -934,7 +1279,7 @@ public class BugzillaMiner extends Miner {
 		emitEnd ();
 	}
 	
-	private void abortRun (MinerException e) {
+	private synchronized void abortRun (MinerException e) {
 		if (storedException == null) {
 			storedException = e;
 		}
@@ -945,6 +1290,11 @@ public class BugzillaMiner extends Miner {
 		for (Worker worker : workers) {
 			worker.interrupt ();
 		}
+
+		if (writer != null) {
+			writer.interrupt ();
+			writeQueue.clear ();
+		}
 	}
 	
 	public void processBugs () throws MinerException, SQLException, BugzillaException, InterruptedException {
@@ -953,22 +1303,23 @@ public class BugzillaMiner extends Miner {
 			throw new MinerException ("Unknown product `" + settings.bugProductName + "'");
 		}
 
-		// Initialise caches based on previously mined data:
-		operatingSystems = model.getOperatingSystemsByName (project);
-		resolutions = model.getResolutionsByName (project);
-		milestones = model.getMilestonesByName (project);
-		priorities = model.getPrioritiesByName (project);
-		severities = model.getSeveritiesByName (project);
-		status = model.getStatusesByName (project);
-		components = model.getComponentsByName (project);
-		versions = model.getVersionsByName (project);
-		attachmentStatus = model.getAttachmentStatusByName (project);
-		keywords = model.getKeywordsByName (project);
-		groups = model.getBugGroupsByName (project);
-		platforms = model.getPlatformsByName (project);
-		flagStates = model.getBugFlagStatesByName (project);
-		flags = model.getBugFlagsByIdentifier (project);
-		classes = model.getBugClassesByName (project);
+		// Initialise caches based on previously mined data.
+		// Workers are idle until the first page is queued:
+		operatingSystems.putAll (model.getOperatingSystemsByName (project));
+		resolutions.putAll (model.getResolutionsByName (project));
+		milestones.putAll (model.getMilestonesByName (project));
+		priorities.putAll (model.getPrioritiesByName (project));
+		severities.putAll (model.getSeveritiesByName (project));
+		status.putAll (model.getStatusesByName (project));
+		components.putAll (model.getComponentsByName (project));
+		versions.putAll (model.getVersionsByName (project));
+		attachmentStatus.putAll (model.getAttachmentStatusByName (project));
+		keywords.putAll (model.getKeywordsByName (project));
+		groups.putAll (model.getBugGroupsByName (project));
+		platforms.putAll (model.getPlatformsByName (project));
+		flagStates.putAll (model.getBugFlagStatesByName (project));
+		flags.putAll (model.getBugFlagsByIdentifier (project));
+		classes.putAll (model.getBugClassesByName (project));
 
 		model.setDefaultStatus (resolveStatus ("UNCO"));
 
@@ -986,8 +1337,6 @@ public class BugzillaMiner extends Miner {
 			for (BugzillaBug bzBug : bugs) {
 				queue.add (new QueueEntry (bzBug));
 			}
-
-			Thread.sleep (settings.bugCooldownTime);
 		}
 
 
@@ -1036,10 +1385,42 @@ public class BugzillaMiner extends Miner {
 		return null;
 	}
 	
+	private RateLimiter createRateLimiter () {
+		double requestsPerSecond = settings.bugRequestsPerSecond;
+		if (requestsPerSecond <= 0 && settings.bugCooldownTime > 0) {
+			// Legacy setting, one request per cooldown period:
+			requestsPerSecond = 1000.0 / settings.bugCooldownTime;
+		}
+
+		if (requestsPerSecond <= 0 && settings.bugMaxConcurrentRequests <= 0) {
+			return null;
+		}
+
+		return new RateLimiter (Math.max (0, requestsPerSecond), Math.max (0, settings.bugMaxConcurrentRequests));
+	}
+
 	private static boolean isGroupIdentifier (String identifier) {
 		return identifier.matches (".*@[a-zA-Z0-9_-]+\\.bugs\\z");
 	}
 	
+	// Tracker lookups of the same user by several workers
+	// are serialised by these locks. The resolve* methods
+	// run on the writer thread only and do not need them:
+	private Object getInsertLock (String cache, Object key) {
+		List<Object> lockKey = Arrays.asList (cache, key);
+
+		Object lock = insertLocks.get (lockKey);
+		if (lock == null) {
+			Object newLock = new Object ();
+			lock = insertLocks.putIfAbsent (lockKey, newLock);
+			if (lock == null) {
+				lock = newLock;
+			}
+		}
+
+		return lock;
+	}
+
 	private synchronized BugzillaProduct getBugzillaProduct (String productName) throws BugzillaException, MinerException {
 		assert (productName != null);
 
@@ -1052,19 +1433,19 @@ public class BugzillaMiner extends Miner {
 		return product;
 	}
 
-	private synchronized Status resolveStatus (String name) throws SQLException {
+	private Status resolveStatus (String name) throws SQLException {
 		assert (name != null);
 
 		Status stat = status.get (name);
 		if (stat == null) {
 			stat = model.addStatus (project, name);
-			status.put (name, stat);
+			cacheInsert (status, name, stat);
 		}
 		
 		return stat;
 	}
 
-	private synchronized BugClass resolveClass (String name) throws SQLException {
+	private BugClass resolveClass (String name) throws SQLException {
 		if (name == null) {
 			return null;
 		}
@@ -1072,7 +1453,7 @@ public class BugzillaMiner extends Miner {
 		BugClass cl = classes.get (name);
 		if (cl == null) {
 			cl = model.addBugClass (project, name);
-			classes.put (name, cl);
+			cacheInsert (classes, name, cl);
 		}
 		
 		return cl;		
@@ -1088,25 +1469,25 @@ public class BugzillaMiner extends Miner {
 		return groups;
 	}
 
-	private synchronized BugGroup resolveGroup (String name) throws SQLException {
+	private BugGroup resolveGroup (String name) throws SQLException {
 		assert (name != null);
 
 		BugGroup grp = groups.get (name);
 		if (grp == null) {
 			grp = model.addBugGroup (project, name);
-			groups.put (name, grp);
+			cacheInsert (groups, name, grp);
 		}
 		
 		return grp;
 	}
 
-	private synchronized OperatingSystem resolveOperatingSystem (String name) throws SQLException {
+	private OperatingSystem resolveOperatingSystem (String name) throws SQLException {
 		assert (name != null);
 
 		OperatingSystem os = operatingSystems.get (name);
 		if (os == null) {
 			os = model.addOperatingSystem (project, name);
-			operatingSystems.put (name, os);
+			cacheInsert (operatingSystems, name, os);
 		}
 		
 		return os;		
@@ -1123,49 +1504,49 @@ public class BugzillaMiner extends Miner {
 		return keywords;
 	}
 	
-	private synchronized Keyword resolveKeyword (String name) throws SQLException {
+	private Keyword resolveKeyword (String name) throws SQLException {
 		assert (name != null);
 
 		Keyword kw = keywords.get (name);
 		if (kw == null) {
 			kw = model.addKeyword (project, name);
-			keywords.put (name, kw);
+			cacheInsert (keywords, name, kw);
 		}
 		
 		return kw;		
 	}
 
-	private synchronized Version resolveVersion (String name) throws SQLException {
+	private Version resolveVersion (String name) throws SQLException {
 		assert (name != null);
 
 		Version version = versions.get (name);
 		if (version == null) {
 			version = model.addVersion (project, name);
-			versions.put (name, version);
+			cacheInsert (versions, name, version);
 		}
 		
 		return version;
 	}
 
-	private synchronized Component resolveComponent (String name) throws SQLException {
+	private Component resolveComponent (String name) throws SQLException {
 		assert (name != null);
 
 		Component component = components.get (name);
 		if (component == null) {
 			component = model.addComponent (project, name);
-			components.put (name, component);
+			cacheInsert (components, name, component);
 		}
 		
 		return component;
 	}
 
-	private synchronized Severity resolveSeverity (String name) throws SQLException {
+	private Severity resolveSeverity (String name) throws SQLException {
 		assert (name != null);
 
 		Severity severity = severities.get (name);
 		if (severity == null) {
 			severity = model.addSeverity (project, name);
-			severities.put (name, severity);
+			cacheInsert (severities, name, severity);
 		}
 		
 		return severity;
@@ -1183,16 +1564,78 @@ public class BugzillaMiner extends Miner {
 		return resolveIdentity (name, false);
 	}
 
-	private synchronized Identity resolveIdentity (String name, boolean acceptUnknown) throws SQLException, BugzillaException {
+	// Called by the writer only, all identities are added
+	// in the transaction of the pass that refers to them:
+	private Identity resolveIdentity (String name, boolean acceptUnknown) throws SQLException, BugzillaException {
 		assert (name != null);
 
 		Identity identity = identities.get (name);
+		if (identity != null) {
+			return identity;
+		}
+
+		BugzillaUser bugUser = lookupUser (name, acceptUnknown);
+		if (bugUser == null) {
+			return null;
+		}
+
+		String _mail = bugUser.getEmail ();
+		if (_mail == null && bugUser.getName () != null) {
+			Matcher mm = patternMailValidator.matcher (bugUser.getName ());
+			if (mm.matches ()) {
+				_mail = bugUser.getName ();
+			}
+		}
+		
+		StringBuilder builder = new StringBuilder ();
+		if (bugUser.getName () != null) {
+			builder.append (bugUser.getName ());
+		}
+		if (bugUser.getRealName () != null) {
+			if (builder.length () > 0) {
+				builder.append (' ');
+			}
+
+			builder.append (bugUser.getRealName ());
+		}
+
+		// Different names may refer to the same account:
+		identity = model.getIdentityByIdentifier (project, bugUser.getId (), Model.CONTEXT_BUG);
 		if (identity == null) {
+			User user = model.addUser (project, builder.toString ());
+			identity = model.addIdentity (bugUser.getId (), Model.CONTEXT_BUG, _mail, builder.toString (), user);
+		}
+
+		// Interned, shared with the model read paths:
+		cacheInsert (identities, name, identity);
+		return identity;
+	}
+
+	// Tracker lookup, does not touch the model:
+	private BugzillaUser lookupUser (String name, boolean acceptUnknown) throws BugzillaException {
+		assert (name != null);
+
+		BugzillaUser bugUser = users.get (name);
+		if (bugUser != null) {
+			return bugUser;
+		}
+
+		synchronized (getInsertLock ("users", name)) {
+			bugUser = users.get (name);
+			if (bugUser != null) {
+				return bugUser;
+			}
+
+			if (acceptUnknown && unknownIdentities.contains (name)) {
+				return null;
+			}
+
 			BugzillaUser[] bugUserList = null;
 			try {
 				bugUserList = context.getUsers (name);
 			} catch (BugzillaException e) {
 				if (acceptUnknown && e.getErrorCode () == BugzillaException.BAD_LOGIN_NAME) {
+					unknownIdentities.add (name);
 					return null;
 				}
 
@@ -1200,77 +1643,58 @@ public class BugzillaMiner extends Miner {
 			}
 
 			assert (bugUserList.length == 1);
-			BugzillaUser bugUser = bugUserList[0];
+			bugUser = bugUserList[0];
+			users.put (name, bugUser);
+		}
 
-			
-			String _mail = bugUser.getEmail ();
-			if (_mail == null && bugUser.getName () != null) {
-				Matcher mm = patternMailValidator.matcher (bugUser.getName ());
-				if (mm.matches ()) {
-					_mail = bugUser.getName ();
-				}
-			}
-			
-			StringBuilder builder = new StringBuilder ();
-			if (bugUser.getName () != null) {
-				builder.append (bugUser.getName ());
-			}
-			if (bugUser.getRealName () != null) {
-				if (builder.length () > 0) {
-					builder.append (' ');
-				}
+		return bugUser;
+	}
 
-				builder.append (bugUser.getRealName ());
-			}
+	private <K, V> void cacheInsert (Map<K, V> cache, K key, V value) {
+		cache.put (key, value);
 
-			identity = model.getIdentityByIdentifier (project, bugUser.getId (), Model.CONTEXT_BUG);
-			if (identity == null) {
-				User user = model.addUser (project, builder.toString ());
-				identity = model.addIdentity (bugUser.getId (), Model.CONTEXT_BUG, _mail, builder.toString (), user);
-				identities.put (name, identity);
-			}
+		if (passInserts != null) {
+			passInserts.add (new AbstractMap.SimpleEntry<Map<?, ?>, Object> (cache, key));
 		}
-
-		return identity;
 	}
 	
-	private synchronized Priority resolvePriority (String name) throws SQLException {
+	private Priority resolvePriority (String name) throws SQLException {
 		assert (name != null);
 
 		Priority priority = priorities.get (name);
 		if (priority == null) {
 			priority = model.addPriority (project, name);
-			priorities.put (name, priority);
+			cacheInsert (priorities, name, priority);
 		}
 		
 		return priority;
 	}
 
-	private synchronized Resolution resolveResolution (String name) throws SQLException {
+	private Resolution resolveResolution (String name) throws SQLException {
 		assert (name != null);
 
 		Resolution resolution = resolutions.get (name);
 		if (resolution == null) {
 			resolution = model.addResolution (project, name);
-			resolutions.put (name, resolution);
+			cacheInsert (resolutions, name, resolution);
 		}
 		
 		return resolution;		
 	}
 
-	private synchronized Milestone resolveMilestone (String name) throws SQLException {
+	private Milestone resolveMilestone (String name) throws SQLException {
 		assert (name != null);
 
 		Milestone ms = milestones.get (name);
 		if (ms == null) {
 			ms = model.addMilestone (project, name);
-			milestones.put (name, ms);
+			cacheInsert (milestones, name, ms);
 		}
 		
 		return ms;		
 	}
 
-	private synchronized AttachmentStatus resolveAttachmentStatus (String name) throws SQLException {
+	private AttachmentStatus resolveAttachmentStatus (String name) throws SQLException {
 		if (name == null) {
 			name = "";
 		}
@@ -1278,37 +1702,37 @@ public class BugzillaMiner extends Miner {
 		AttachmentStatus status = attachmentStatus.get (name);
 		if (status == null) {
 			status = model.addAttachmentStatus (project, name);
-			attachmentStatus.put (name, status);
+			cacheInsert (attachmentStatus, name, status);
 		}
 		
 		return status;		
 	}
 
-	private synchronized Platform resolvePlatform (String name) throws SQLException {
+	private Platform resolvePlatform (String name) throws SQLException {
 		assert (name != null);
 
 		Platform ms = platforms.get (name);
 		if (ms == null) {
 			ms = model.addPlatform (project, name);
-			platforms.put (name, ms);
+			cacheInsert (platforms, name, ms);
 		}
 		
 		return ms;
 	}
 
-	private synchronized BugFlagStatus resolveFlagStatus (String name) throws SQLException {
+	private BugFlagStatus resolveFlagStatus (String name) throws SQLException {
 		assert (name != null);
 
 		BugFlagStatus state = flagStates.get (name);
 		if (state == null) {
 			state = model.addBugFlagStatus (project, name);
-			flagStates.put (name, state);
+			cacheInsert (flagStates, name, state);
 		}
 
 		return state;
 	}
 
-	private synchronized BugFlag resolveBugFlag (Integer identifier, String name, Integer typeId) throws SQLException {
+	private BugFlag resolveBugFlag (Integer identifier, String name, Integer typeId) throws SQLException {
 		assert (identifier != null);
 		assert (name != null);
 		assert (typeId != null);
@@ -1316,7 +1740,7 @@ public class BugzillaMiner extends Miner {
 		BugFlag flag = flags.get (identifier);
 		if (flag == null) {
 			flag = model.addBugFlag (project, identifier, name, typeId);
-			flags.put (flag.getIdentifier (), flag);
+			cacheInsert (flags, flag.getIdentifier (), flag);
 		}
 
 		return flag;
@@ -33,6 +33,7 @@ package at.ac.tuwien.inso.subcat.miner;
 import java.util.HashMap;
 import java.util.Map;
 
+import at.ac.tuwien.inso.subcat.bugzilla.ResponseCache;
 import at.ac.tuwien.inso.subcat.miner.Miner.MinerType;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
 import at.ac.tuwien.inso.subcat.model.Project;
@@ -96,6 +97,28 @@ public class BugzillaMinerMetaData extends MetaData {
 				assertInteger (name, val, 1, Integer.MAX_VALUE, errors);
 			} else if (name.equals ("page-size")) {
 				assertInteger (name, val, 1, Integer.MAX_VALUE, errors);
+			} else if (name.equals ("write-queue-size")) {
+				assertInteger (name, val, 1, Integer.MAX_VALUE, errors);
+			} else if (name.equals ("connect-timeout")) {
+				assertInteger (name, val, 0, Integer.MAX_VALUE, errors);
+			} else if (name.equals ("read-timeout")) {
+				assertInteger (name, val, 0, Integer.MAX_VALUE, errors);
+			} else if (name.equals ("gzip-requests")) {
+				assertBoolean (name, val, errors);
+			} else if (name.equals ("cache-dir")) {
+				assertString (name, val, errors);
+			} else if (name.equals ("cache-mode")) {
+				if (assertString (name, val, errors) && ResponseCache.parseMode ((String) val) == null) {
+					errors.put (name, "invalid value, expected record, replay or read-through");
+				}
+				if (params.containsKey ("cache-dir") == false) {
+					errors.put (name, "Requires cache-dir");
+				}
+			} else if (name.equals ("cache-ttl")) {
+				assertInteger (name, val, 0, Integer.MAX_VALUE, errors);
+				if (params.containsKey ("cache-dir") == false) {
+					errors.put (name, "Requires cache-dir");
+				}
 			} else if (name.equals ("process-attachment-details")) {
 				assertBoolean (name, val, errors);
 				if (settings.bugUpdate) {
@@ -117,6 +140,13 @@ public class BugzillaMinerMetaData extends MetaData {
 		map.put ("process-history", ParamType.BOOLEAN);
 		map.put ("pass-size", ParamType.INTEGER);
 		map.put ("page-size", ParamType.INTEGER);
+		map.put ("write-queue-size", ParamType.INTEGER);
+		map.put ("connect-timeout", ParamType.INTEGER);
+		map.put ("read-timeout", ParamType.INTEGER);
+		map.put ("gzip-requests", ParamType.BOOLEAN);
+		map.put ("cache-dir", ParamType.STRING);
+		map.put ("cache-mode", ParamType.STRING);
+		map.put ("cache-ttl", ParamType.INTEGER);
 		return map;
 	}
 }
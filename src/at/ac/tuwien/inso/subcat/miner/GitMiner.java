@@ -32,32 +32,53 @@ package at.ac.tuwien.inso.subcat.miner;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffAlgorithm.SupportedAlgorithm;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
 import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.LargeObjectException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevSort;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 
 import at.ac.tuwien.inso.subcat.model.Commit;
 import at.ac.tuwien.inso.subcat.model.Identity;
 import at.ac.tuwien.inso.subcat.model.ManagedFile;
 import at.ac.tuwien.inso.subcat.model.Model;
+import at.ac.tuwien.inso.subcat.model.ModelBatchWriter;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
 import at.ac.tuwien.inso.subcat.model.Project;
 import at.ac.tuwien.inso.subcat.model.User;
@@ -71,101 +92,47 @@ public class GitMiner extends Miner {
 	private Project project;
 	private ModelPool pool;
 	private Model model;
-	private boolean stopped;
+	private ModelBatchWriter writer;
+	private volatile boolean stopped;
 
 	private boolean processDiffs;
 	private String startRef;
+	private int diffThreads;
+	private boolean printDiffStats;
+
+	private Reporter reporter;
+	private long diffCommits = 0;
+	private long diffBytesRead = 0;
+	private long diffBytesAllocated = 0;
+
+	// Matches DiffFormatter's defaults, so chunk counts
+	// and binary detection stay comparable.
+	private static final int CONTEXT_LINES = 3;
+	private static final int BIG_FILE_THRESHOLD = 50 * 1024 * 1024;
+	private static final StatText EMPTY_TEXT = new StatText (new byte[0]);
 	
 
-	private static class DiffOutputStream extends OutputStream {
-		private enum State {
-			NONE,
-			ADDED,
-			REMOVED
-		}
-		
-		private boolean lastWasNewline = false;
-		private int totalAdded = 0;
-		private int totalRemoved = 0;
-		private int totalChunks = 0;
-		private int totalAddedEmpty = 0;
-		private int totalRemovedEmpty = 0;
-		private int lineCount;
-
-		private State state = State.NONE;
-		private boolean empty = false;
-		
-		public int getTotalLinesAdded () {
-			return this.totalAdded;
-		}
-
-		public int getTotalEmptyLinesAdded () {
-			return this.totalAddedEmpty;
+	/**
+	 * RawText with direct access to its line table, used to
+	 * detect blank lines without creating strings.
+	 */
+	private static class StatText extends RawText {
+		public StatText (byte[] content) {
+			super (content);
 		}
 
-		public int getTotalLinesRemoved () {
-			return this.totalRemoved;
-		}
+		public boolean isBlank (int line) {
+			int start = lines.get (line + 1);
+			int end = lines.get (line + 2);
 
-		public int getTotalEmptyLinesRemoved () {
-			return this.totalRemovedEmpty;
-		}
-
-		public int getTotalChunks () {
-			return this.totalChunks;
-		}
-
-		@SuppressWarnings ("unused")
-		public void reset () {
-			this.totalAdded = 0;
-			this.totalRemoved = 0;
-			this.totalAddedEmpty = 0;
-			this.totalRemovedEmpty = 0;
-			this.totalChunks = 0;
-			this.lastWasNewline = false;
-			this.state = State.NONE;
-			this.empty = false;
-		}
-
-		public void resetFile () {
-			lineCount = 0;
-		}
-		
-		@Override
-		public void write (int b) {
-			if (lineCount < 5) {
-				if (b == '\n') {
-					lineCount++;
+			for (int i = start; i < end; i++) {
+				byte b = content[i];
+				if (b != '\n' && b != '\r' && b != ' ' && b != '\t') {
+					return false;
 				}
-				return ;
 			}
 
-			if (b == '\n') {
-				lastWasNewline = true;
-				if (empty == true) {
-					if (state == State.ADDED) {
-						totalAddedEmpty++;
-					} else if (state == State.REMOVED) {
-						totalRemovedEmpty++;				
-					}
-				}
-				state = State.NONE;
-				empty = true;
-			} else if (lastWasNewline == true) {
-				if (b == '+') {
-					totalAdded++;
-					state = State.ADDED;
-				} else if (b == '-') {
-					state = State.REMOVED;
-					totalRemoved++;
-				} else if (b == '@') {
-					totalChunks++;
-				}
-
-				lastWasNewline = false;
-			} else if (b != '\r' && b != ' ' && b != '\t') {
-				empty = false;
-			}
+			return true;
 		}
 	}
 
@@ -177,6 +144,7 @@ public class GitMiner extends Miner {
 		this.settings = settings;
 		this.project = project;
 		this.pool = pool;
+		this.reporter = reporter;
 	}
 
 
@@ -198,15 +166,15 @@ public class GitMiner extends Miner {
 
 		Identity identity = identities.get (mapKey);
 		if (identity == null) {
-			User user = model.addUser (project, name);
-			identity = model.addIdentity (null, Model.CONTEXT_SRC, mail, name, user);
+			User user = writer.addUser (project, name);
+			identity = writer.addIdentity (null, Model.CONTEXT_SRC, mail, name, user);
 			identities.put (mapKey, identity);
 		}
 
 		return identity;
 	}
 
-	private class FileStats {
+	private static class FileStats {
 		public int linesAdded = 0;
 		public int linesRemoved = 0;
 		public int emptyLinesAdded = 0;
@@ -216,6 +184,55 @@ public class GitMiner extends Miner {
 		public ChangeType type;
 	}
 
+	private static class DiffResult {
+		public final RevCommit rev;
+		public final Map<String, FileStats> fileStats = new HashMap<String, FileStats> ();
+		public int totalLinesAdded = 0;
+		public int totalLinesRemoved = 0;
+		public long bytesRead = 0;
+		public long bytesAllocated = 0;
+
+		public DiffResult (RevCommit rev) {
+			this.rev = rev;
+		}
+	}
+
+	/**
+	 * Computes the file stats of a single commit. Tasks only
+	 * touch the (thread-safe) repository and their own reader,
+	 * never the RevWalk, which is confined to the mining thread.
+	 */
+	private class DiffTask implements Callable<DiffResult> {
+		private final Repository repository;
+		private final RevCommit rev;
+		private final ObjectId oldTree;
+		private final ObjectId newTree;
+
+		public DiffTask (Repository repository, RevCommit rev, ObjectId oldTree, ObjectId newTree) {
+			this.repository = repository;
+			this.rev = rev;
+			this.oldTree = oldTree;
+			this.newTree = newTree;
+		}
+
+		@Override
+		public DiffResult call () throws IOException {
+			DiffResult result = new DiffResult (rev);
+			if (processDiffs == false || stopped == true) {
+				return result;
+			}
+
+			long allocStart = allocatedBytes ();
+			processDiff (repository, oldTree, newTree, result);
+			long allocEnd = allocatedBytes ();
+			if (allocStart >= 0 && allocEnd >= 0) {
+				result.bytesAllocated = allocEnd - allocStart;
+			}
+
+			return result;
+		}
+	}
+
 
 	//
 	// Runner:
@@ -229,15 +246,21 @@ public class GitMiner extends Miner {
 			model = pool.getModel ();
 			emitStart ();
 
-			model.addFlag (project, Model.FLAG_SRC_INFO);
 			processDiffs = settings.srcGetParameter (this, "process-diffs", true);
 			startRef = settings.srcGetParameter (this, "start-ref", DEFAULT_HEAD);
-			if (processDiffs == true) {
-				model.addFlag (project, Model.FLAG_SRC_FILE_STATS);
-				model.addFlag (project, Model.FLAG_SRC_LINE_STATS);
+			diffThreads = settings.srcGetParameter (this, "diff-threads", Runtime.getRuntime ().availableProcessors ());
+			printDiffStats = settings.srcGetParameter (this, "print-diff-stats", false);
+			if (settings.srcUpdate == false) {
+				model.addFlag (project, Model.FLAG_SRC_INFO);
+				if (processDiffs == true) {
+					model.addFlag (project, Model.FLAG_SRC_FILE_STATS);
+					model.addFlag (project, Model.FLAG_SRC_LINE_STATS);
+				}
 			}
 
+			writer = new ModelBatchWriter (model);
 			_run ();
+			writer.close ();
 			emitEnd ();
 		} catch (IOException e) {
 			throw new MinerException ("IO-Error: " + e.getMessage (), e);
@@ -270,58 +293,165 @@ public class GitMiner extends Miner {
 			throw new MinerException ("Unknown reference: '" + startRef + "'");
 		}
 
+		// Incremental mining:
+		String lastMined = null;
+		Set<String> minedCommits = null;
+		Map<String, ManagedFile> fileCache;
+
+		if (settings.srcUpdate) {
+			// Databases mined before revisions were recorded and
+			// interrupted runs do not have a row, start from the
+			// newest stored commit instead:
+			lastMined = model.getLastMinedRevision (project, startRef);
+			if (lastMined == null) {
+				lastMined = model.getNewestCommitIdentifier (project);
+			}
+
+			// Interrupted runs stored commits the walk still returns:
+			minedCommits = model.getCommitIdentifiers (project);
+
+			for (Identity identity : model.getIdentities (project, Model.CONTEXT_SRC)) {
+				String mapKey = (identity.getMail () != null)? identity.getMail () : identity.getName ();
+				identities.put (mapKey, identity);
+			}
+
+			fileCache = model.getActiveFilesByName (project);
+		} else {
+			fileCache = new HashMap<String, ManagedFile> ();
+		}
+
+		// Commit bodies are only loaded while a commit
+		// is persisted, see processCommit ().
 		RevWalk walk = new RevWalk (repository);
+		walk.setRetainBody (false);
+
 		RevCommit commit = walk.parseCommit (head.getObjectId ());
-		walk.markStart (commit);
-		walk.sort (RevSort.REVERSE);
-
-		// count commit: (fast)
-		int commitCount = 0;
-		Iterator<RevCommit> iter = walk.iterator ();
-		while (iter.hasNext ()) {
-			iter.next ();
-			commitCount++;
+		RevCommit lastMinedCommit = null;
+		if (lastMined != null) {
+			try {
+				lastMinedCommit = walk.parseCommit (ObjectId.fromString (lastMined));
+			} catch (MissingObjectException e) {
+				throw new MinerException ("Last mined revision " + lastMined + " is not part of the repository", e);
+			} catch (IllegalArgumentException e) {
+				throw new MinerException ("Last mined revision " + lastMined + " is not a Git revision", e);
+			}
 		}
 
-		emitTasksTotal (commitCount);
-		
-
-		// process commits: (slow)
-		walk.reset ();
 		walk.markStart (commit);
-		walk.sort (RevSort.REVERSE);
-
-		Map<String, ManagedFile> fileCache = new HashMap<String, ManagedFile> ();
+		if (lastMinedCommit != null) {
+			walk.markUninteresting (lastMinedCommit);
+		}
 
+		// Single pass over the history: The collected headers
+		// provide the exact task count and are processed
+		// oldest first afterwards. (RevSort.REVERSE would
+		// buffer the same list inside RevWalk.)
+		ArrayList<RevCommit> commits = new ArrayList<RevCommit> ();
 		for (RevCommit rev : walk) {
 			if (stopped == true) {
 				break;
 			}
 
-			processCommit (repository, walk, rev, fileCache);
+			if (minedCommits == null || minedCommits.contains (rev.getName ()) == false) {
+				commits.add (rev);
+			}
 		}
-		
+		minedCommits = null;
+
+		emitTasksTotal (commits.size ());
+
+		// Diffs are computed by a worker pool, results are
+		// persisted in walk order on this thread to keep
+		// the rename/delete semantics of fileCache intact.
+		ExecutorService executor = Executors.newFixedThreadPool (diffThreads);
+		LinkedList<Future<DiffResult>> pending = new LinkedList<Future<DiffResult>> ();
+		int window = diffThreads * 4;
+
+		try {
+			for (int i = commits.size () - 1; i >= 0; i--) {
+				if (stopped == true) {
+					break;
+				}
+
+				RevCommit rev = commits.get (i);
+				commits.set (i, null);
+
+				ObjectId oldTree = null;
+				if (rev.getParentCount () > 0) {
+					oldTree = walk.parseCommit (rev.getParent (0)).getTree ().copy ();
+				}
+
+				ObjectId newTree = rev.getTree ().copy ();
+				pending.add (executor.submit (new DiffTask (repository, rev, oldTree, newTree)));
+				if (pending.size () >= window) {
+					processCommit (walk, awaitDiff (pending.removeFirst ()), fileCache);
+				}
+			}
+
+			while (!pending.isEmpty () && stopped == false) {
+				processCommit (walk, awaitDiff (pending.removeFirst ()), fileCache);
+			}
+		} finally {
+			executor.shutdownNow ();
+		}
+
+		if (printDiffStats == true && diffCommits > 0) {
+			reporter.note (getName (), "diff stats: " + diffCommits + " commits, "
+				+ (diffBytesRead / diffCommits) + " bytes read per commit, "
+				+ (diffBytesAllocated / diffCommits) + " bytes allocated per commit");
+		}
+
+		// Only remember complete runs, the walk order
+		// does not allow to resume from a partial one.
+		if (stopped == false) {
+			writer.flush ();
+			model.setLastMinedRevision (project, startRef, commit.getName ());
+		}
+
 		walk.dispose();
 		repository.close();
 	}
-	
-	private void processCommit (Repository repository, RevWalk walk, RevCommit rev, Map<String, ManagedFile> fileCache) throws SQLException, IOException {
+
+	private DiffResult awaitDiff (Future<DiffResult> future) throws IOException, MinerException {
+		try {
+			return future.get ();
+		} catch (InterruptedException e) {
+			throw new MinerException ("Interrupted: " + e.getMessage (), e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause ();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new MinerException ("Diff-Error: " + cause.getMessage (), e);
+		}
+	}
+
+	private void processCommit (RevWalk walk, DiffResult diff, Map<String, ManagedFile> fileCache) throws SQLException, IOException {
+		RevCommit rev = diff.rev;
+		walk.parseBody (rev);
+
 		Identity author = resolveIdentity (rev.getAuthorIdent ());
 		Identity committer = resolveIdentity (rev.getCommitterIdent ());
 		Date date = new java.util.Date((long) rev.getCommitTime () * 1000);
 		String message = rev.getFullMessage ();
 
-		Map<String, FileStats> fileStats = new HashMap<String, FileStats> ();
-		DiffOutputStream outputStream = new DiffOutputStream ();
-		processDiff (repository, walk, rev, outputStream, fileStats);
+		diffCommits++;
+		diffBytesRead += diff.bytesRead;
+		diffBytesAllocated += diff.bytesAllocated;
 
+		Map<String, FileStats> fileStats = diff.fileStats;
 		String revision = rev.getId ().getName();
-		int totalLinesAdded = outputStream.getTotalLinesAdded ();
-		int totalLinesRemoved = outputStream.getTotalLinesRemoved ();
+		int totalLinesAdded = diff.totalLinesAdded;
+		int totalLinesRemoved = diff.totalLinesRemoved;
 		int fileCount = fileStats.size ();
 
 
-		Commit commit = model.addCommit (revision, project, author, committer, date, message, fileCount, totalLinesAdded, totalLinesRemoved);
+		Commit commit = writer.addCommit (revision, project, author, committer, date, message, fileCount, totalLinesAdded, totalLinesRemoved);
 
 		for (Map.Entry<String, FileStats> item : fileStats.entrySet ()) {
 			if (stopped == true) {
@@ -341,16 +471,16 @@ public class GitMiner extends Miner {
 				ManagedFile originalFile = fileCache.get (stats.oldPath);
 				assert (originalFile != null);
 
-				ManagedFile copiedFile = model.addManagedFile (project, path);
-				model.addFileChange (commit, copiedFile, stats.linesAdded, stats.linesRemoved, stats.emptyLinesAdded, stats.emptyLinesRemoved, stats.chunks);
-				model.addIsCopy (copiedFile, commit, originalFile);
+				ManagedFile copiedFile = writer.addManagedFile (project, path);
+				writer.addFileChange (commit, copiedFile, stats.linesAdded, stats.linesRemoved, stats.emptyLinesAdded, stats.emptyLinesRemoved, stats.chunks);
+				writer.addIsCopy (copiedFile, commit, originalFile);
 				fileCache.put (path, copiedFile);
 				break;
 				 */
 
 			case ADD:
-				ManagedFile addedFile = model.addManagedFile (project, path);
-				model.addFileChange (commit, addedFile, stats.linesAdded, stats.linesRemoved, stats.emptyLinesAdded, stats.emptyLinesRemoved, stats.chunks);
+				ManagedFile addedFile = writer.addManagedFile (project, path);
+				writer.addFileChange (commit, addedFile, stats.linesAdded, stats.linesRemoved, stats.emptyLinesAdded, stats.emptyLinesRemoved, stats.chunks);
 				fileCache.put (path, addedFile);
 				break;
 
@@ -358,7 +488,7 @@ public class GitMiner extends Miner {
 				ManagedFile deletedFile = fileCache.get (path);
 				// Merge handling
 				if (deletedFile != null) {
-					model.addFileDeletion (deletedFile, commit);
+					writer.addFileDeletion (deletedFile, commit);
 					fileCache.remove (stats.oldPath);
 				}
 				break;
@@ -366,14 +496,14 @@ public class GitMiner extends Miner {
 			case MODIFY:
 				ManagedFile modifiedFile = fileCache.get (path);
 				assert (modifiedFile != null);
-				model.addFileChange (commit, modifiedFile, stats.linesAdded, stats.linesRemoved, stats.emptyLinesAdded, stats.emptyLinesRemoved, stats.chunks);
+				writer.addFileChange (commit, modifiedFile, stats.linesAdded, stats.linesRemoved, stats.emptyLinesAdded, stats.emptyLinesRemoved, stats.chunks);
 				break;
 
 			case RENAME:
 				ManagedFile renamedFile = fileCache.get (stats.oldPath);
 				// E.g. on merges after a rename.
 				if (renamedFile != null) {
-					model.addFileRename (renamedFile, commit, stats.oldPath, path);
+					writer.addFileRename (renamedFile, commit, stats.oldPath, path);
 					fileCache.put (path, renamedFile);
 				}
 				break;
@@ -383,34 +513,29 @@ public class GitMiner extends Miner {
 			}
 		}
 
+		rev.disposeBody ();
 		emitTasksProcessed (1);
 	}
 	
-	private void processDiff (Repository repository, RevWalk walk, RevCommit current, DiffOutputStream outputStream, Map<String, FileStats> fileStatsMap) throws IOException {
+	private void processDiff (Repository repository, ObjectId oldTree, ObjectId newTree, DiffResult result) throws IOException {
 		assert (repository != null);
-		assert (walk != null);
-		assert (current != null);
-		assert (outputStream != null);
-		assert (fileStatsMap != null);
+		assert (newTree != null);
+		assert (result != null);
 
-		if (processDiffs == false) {
-			return ;
-		}
+		DiffFormatter df = new DiffFormatter (DisabledOutputStream.INSTANCE);
+		ObjectReader reader = repository.newObjectReader ();
+		DiffAlgorithm algorithm = DiffAlgorithm.getAlgorithm (SupportedAlgorithm.HISTOGRAM);
 
 		try {
-			DiffFormatter df = new DiffFormatter (outputStream);
 			df.setRepository (repository);
 			df.setDetectRenames (true);
 			
 			List<DiffEntry> entries;
-			if (current.getParentCount () > 0) {
-				RevCommit parent = current.getParent (0);
-				ObjectId oldTree = walk.parseCommit (parent).getTree ();
-				ObjectId newTree = current.getTree ();
+			if (oldTree != null) {
 				entries = df.scan (oldTree, newTree);
 			} else {
 				entries = df.scan (new EmptyTreeIterator(),
-					new CanonicalTreeParser (null, walk.getObjectReader(), current.getTree()));
+					new CanonicalTreeParser (null, reader, newTree));
 			}
 
 			for (DiffEntry de : entries) {
@@ -418,11 +543,6 @@ public class GitMiner extends Miner {
 					break;
 				}
 
-				int emptyLinesAddedStart = outputStream.getTotalEmptyLinesAdded ();
-				int emptyLinesRemovedStart = outputStream.getTotalEmptyLinesRemoved ();
-				int linesAddedStart = outputStream.getTotalLinesAdded ();
-				int linesRemovedStart = outputStream.getTotalLinesRemoved ();
-				int chunksStart = outputStream.getTotalChunks ();
 				String oldPath = null;
 				String path = null;
 				
@@ -448,29 +568,96 @@ public class GitMiner extends Miner {
 					continue;
 				}
 				
-				assert (fileStatsMap.containsKey (path) == false);
+				assert (result.fileStats.containsKey (path) == false);
 				assert (path != null);
 
 				FileStats fileStats = new FileStats ();
-				fileStatsMap.put (path, fileStats);
+				result.fileStats.put (path, fileStats);
+				fileStats.type = de.getChangeType ();
+				fileStats.oldPath = oldPath;
 
-				outputStream.resetFile ();
-				df.format(de);
-				df.flush();
+				// Binary files, submodules and huge files
+				// are recorded without line stats.
+				StatText a = loadText (reader, de.getOldMode (), de.getOldId (), result);
+				StatText b = loadText (reader, de.getNewMode (), de.getNewId (), result);
+				if (a == null || b == null) {
+					continue;
+				}
 
-				fileStats.emptyLinesAdded = outputStream.getTotalEmptyLinesAdded () - emptyLinesAddedStart;
-				fileStats.emptyLinesRemoved = outputStream.getTotalEmptyLinesRemoved () - emptyLinesRemovedStart;
-				fileStats.linesAdded += outputStream.getTotalLinesAdded () - linesAddedStart;
-				fileStats.linesRemoved += outputStream.getTotalLinesRemoved () - linesRemovedStart;
-				fileStats.chunks += outputStream.getTotalChunks () - chunksStart;
+				EditList edits = algorithm.diff (RawTextComparator.DEFAULT, a, b);
+				countEdits (edits, a, b, fileStats);
 
-				fileStats.type = de.getChangeType ();
-				fileStats.oldPath = oldPath;
+				result.totalLinesAdded += fileStats.linesAdded;
+				result.totalLinesRemoved += fileStats.linesRemoved;
+			}
+		} finally {
+			reader.release ();
+			df.release ();
+		}
+	}
+
+	private StatText loadText (ObjectReader reader, FileMode mode, AbbreviatedObjectId id, DiffResult result) throws IOException {
+		if (mode == FileMode.MISSING || id == null || ObjectId.zeroId ().equals (id.toObjectId ())) {
+			return EMPTY_TEXT;
+		}
+		if (mode == FileMode.GITLINK) {
+			return null;
+		}
+
+		byte[] content;
+		try {
+			content = reader.open (id.toObjectId (), Constants.OBJ_BLOB).getCachedBytes (BIG_FILE_THRESHOLD);
+		} catch (LargeObjectException e) {
+			return null;
+		}
+
+		result.bytesRead += content.length;
+		if (RawText.isBinary (content)) {
+			return null;
+		}
+
+		return new StatText (content);
+	}
+
+	private static void countEdits (EditList edits, StatText a, StatText b, FileStats stats) {
+		int lastEndA = -1;
+		int lastEndB = -1;
+
+		for (Edit edit : edits) {
+			// Edits closer than two context blocks on either
+			// side share a hunk, as in DiffFormatter:
+			if (lastEndA < 0
+				|| (edit.getBeginA () - lastEndA > 2 * CONTEXT_LINES
+					&& edit.getBeginB () - lastEndB > 2 * CONTEXT_LINES)) {
+				stats.chunks++;
+			}
+			lastEndA = edit.getEndA ();
+			lastEndB = edit.getEndB ();
+
+			stats.linesRemoved += edit.getLengthA ();
+			stats.linesAdded += edit.getLengthB ();
+
+			for (int i = edit.getBeginA (); i < edit.getEndA (); i++) {
+				if (a.isBlank (i)) {
+					stats.emptyLinesRemoved++;
+				}
+			}
+			for (int i = edit.getBeginB (); i < edit.getEndB (); i++) {
+				if (b.isBlank (i)) {
+					stats.emptyLinesAdded++;
+				}
 			}
-		} catch (IOException e) {
-			throw e;
 		}
 	}
+
+	private static long allocatedBytes () {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean ();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes (Thread.currentThread ().getId ());
+		}
+
+		return -1;
+	}
 	
 	@Override
 	public void stop () {
@@ -83,6 +83,10 @@ public class GitMinerMetaData extends MetaData {
 				assertBoolean (name, val, errors);
 			} else if (name.equalsIgnoreCase ("start-ref")) {
 				assertString (name, val, errors);
+			} else if (name.equalsIgnoreCase ("diff-threads")) {
+				assertInteger (name, val, 1, Integer.MAX_VALUE, errors);
+			} else if (name.equalsIgnoreCase ("print-diff-stats")) {
+				assertBoolean (name, val, errors);
 			} else {
 				errors.put (name, "unknown parameter");
 			}
@@ -96,6 +100,8 @@ public class GitMinerMetaData extends MetaData {
 		Map<String, ParamType> params = new HashMap<String, ParamType> ();
 		params.put ("process-diffs", ParamType.BOOLEAN);
 		params.put ("start-ref", ParamType.STRING);
+		params.put ("diff-threads", ParamType.INTEGER);
+		params.put ("print-diff-stats", ParamType.BOOLEAN);
 		return params;
 	}
 
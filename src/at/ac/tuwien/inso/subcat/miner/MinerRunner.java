@@ -47,6 +47,7 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.PosixParser;
 
 import at.ac.tuwien.inso.subcat.miner.MetaData.ParamType;
+import at.ac.tuwien.inso.subcat.model.BulkImportSession;
 import at.ac.tuwien.inso.subcat.model.Model;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
 import at.ac.tuwien.inso.subcat.model.Project;
@@ -189,6 +190,7 @@ public class MinerRunner {
 		options.addOption ("p", "project", true, "The project ID to process");
 		options.addOption ("P", "list-projects", false, "List all registered projects");
 		options.addOption ("v", "verbose", false, "Show details");
+		options.addOption (null, "query-stats", true, "Print SQL statement statistics, argument: slow query threshold in ms");
 
 		options.addOption (null, "bug-repo", true, "Bug Repository URL");
 		options.addOption (null, "bug-product", true, "Bug Product Name");
@@ -198,6 +200,8 @@ public class MinerRunner {
 		options.addOption (null, "bug-enable-untrusted", false, "Accept untrusted certificates");
 		options.addOption (null, "bug-threads", true, "Thread count used in bug miners");
 		options.addOption (null, "bug-cooldown-time", true, "Bug cooldown time");
+		options.addOption (null, "bug-requests-per-second", true, "Maximal request rate to the bug tracker, shared by all threads");
+		options.addOption (null, "bug-max-requests", true, "Maximal number of concurrent requests to the bug tracker");
 		options.addOption (null, "bug-miner-option", true, "Bug miner specific option. Format: <option-name>:value");
 		options.addOption (null, "bug-update", false, "Mine all changes since the last run");
 		options.getOption ("bug-miner-option").setArgs(Option.UNLIMITED_VALUES);
@@ -206,6 +210,7 @@ public class MinerRunner {
 		options.addOption (null, "src-remote", true, "Remote address");
 		options.addOption (null, "src-passwd", true, "Source repository account password");
 		options.addOption (null, "src-account", true, "Source repository account name");
+		options.addOption (null, "src-update", false, "Mine all commits since the last run");
 		options.addOption (null, "src-miner-option", true, "Source miner specific option. Format: <option-name>:value");
 		options.getOption ("src-miner-option").setArgs(Option.UNLIMITED_VALUES);
 
@@ -249,6 +254,16 @@ public class MinerRunner {
 			printTraces = cmd.hasOption ("verbose");
 			pool = new ModelPool (cmd.getOptionValue ("db"), 2);
 
+			if (cmd.hasOption ("query-stats")) {
+				try {
+					pool.enableQueryStats (Long.parseLong (cmd.getOptionValue ("query-stats")));
+				} catch (Exception e) {
+					reporter.error ("miner", "--query-stats: Invalid parameter type");
+					reporter.printSummary ();
+					return ;
+				}
+			}
+
 			if (cmd.hasOption ("list-projects")) {
 				Model model = pool.getModel ();
 
@@ -299,6 +314,7 @@ public class MinerRunner {
 			settings.srcRemote = cmd.getOptionValue ("src-remote");
 			settings.srcRemotePw = cmd.getOptionValue ("src-passwd");
 			settings.srcRemoteUser = cmd.getOptionValue ("src-account");
+			settings.srcUpdate = cmd.hasOption ("src-update");
 
 
 			if (settings.srcRemotePw == null || settings.srcRemoteUser == null) {
@@ -320,8 +336,19 @@ public class MinerRunner {
 			}
 
 
-			if (settings.srcLocalPath != null && hasSrcInfos) {
-				reporter.error ("miner", "Source repository updates are not supported yet.");
+			if (settings.srcUpdate) {
+				if (settings.srcLocalPath == null) {
+					reporter.error ("miner", "flag --src-update requires --src-path");
+					reporter.printSummary (true);
+					return ;
+				}
+				if (hasSrcInfos == false) {
+					reporter.error ("miner", "flag --src-update requires previously mined commits.");
+					reporter.printSummary (true);
+					return ;
+				}
+			} else if (settings.srcLocalPath != null && hasSrcInfos) {
+				reporter.error ("miner", "There are already previously mined commits for this project. Use --src-update to update the database.");
 				reporter.printSummary (true);
 				return ;
 			}
@@ -418,6 +445,26 @@ public class MinerRunner {
 					}
 				}
 
+				if (cmd.hasOption ("bug-requests-per-second")) {
+					try {
+						settings.bugRequestsPerSecond = Double.parseDouble (cmd.getOptionValue ("bug-requests-per-second"));
+					} catch (Exception e) {
+						reporter.error ("miner", "--bug-requests-per-second: Invalid parameter type");
+						reporter.printSummary ();
+						return ;
+					}
+				}
+
+				if (cmd.hasOption ("bug-max-requests")) {
+					try {
+						settings.bugMaxConcurrentRequests = Integer.parseInt (cmd.getOptionValue ("bug-max-requests"));
+					} catch (Exception e) {
+						reporter.error ("miner", "--bug-max-requests: Invalid parameter type");
+						reporter.printSummary ();
+						return ;
+					}
+				}
+
 				if (cmd.hasOption ("bug-miner-option")) {
 					for (String str : cmd.getOptionValues ("bug-miner-option")) {
 						addSpecificParameter (settings.bugSpecificParams, str);
@@ -475,6 +522,16 @@ public class MinerRunner {
 					reporter.printSummary ();
 					return ;
 				}
+				if (cmd.hasOption ("bug-requests-per-second")) {
+					reporter.error ("miner", "--bug-requests-per-second should only be used in combination with --bug-repo, --bug-tracker and --bug-product");
+					reporter.printSummary ();
+					return ;
+				}
+				if (cmd.hasOption ("bug-max-requests")) {
+					reporter.error ("miner", "--bug-max-requests should only be used in combination with --bug-repo, --bug-tracker and --bug-product");
+					reporter.printSummary ();
+					return ;
+				}
 				if (cmd.hasOption ("bug-miner-option")) {
 					reporter.error ("miner", "--bug-miner-option should only be used in combination with --bug-repo, --bug-tracker and --bug-product");
 					reporter.printSummary ();
@@ -518,7 +575,36 @@ public class MinerRunner {
 				});
 			}
 
-			runner.run ();
+			// Updates only add a few rows, rebuilding
+			// all deferred indices would not pay off:
+			boolean deferIndices = (settings.srcUpdate == false && settings.bugUpdate == false);
+			if (deferIndices) {
+				// Indices span all projects in the database:
+				model = pool.getModel ();
+				try {
+					deferIndices = (model.getProjects ().size () <= 1);
+				} finally {
+					model.close ();
+				}
+			}
+			BulkImportSession session = pool.beginBulkImport (deferIndices);
+			try {
+				runner.run ();
+			} finally {
+				session.close ();
+			}
+
+			reporter.note ("miner", String.format ("bulk import: %d rows in %.1fs (%.1f rows/s)",
+				session.getRowsImported (), session.getDuration () / 1000.0, session.getRowsPerSecond ()));
+
+			// Charts read the monthly aggregates:
+			model = pool.getModel ();
+			try {
+				int months = model.refreshMonthlyStats (project);
+				reporter.note ("miner", "monthly stats: " + months + " rows updated");
+			} finally {
+				model.close ();
+			}
 		} catch (ParameterException e) {
 			reporter.error (e.getMiner ().getName (), e.getMessage ());
 		} catch (ParseException e) {
@@ -543,6 +629,9 @@ public class MinerRunner {
 			}
 		} finally {
 			if (pool != null) {
+				if (pool.getQueryStats () != null) {
+					pool.getQueryStats ().dump (System.out, 25);
+				}
 				pool.close ();
 			}
 		}
@@ -54,6 +54,8 @@ public class Settings {
 	public boolean bugUpdate = false;
 	public int bugThreads = 1;
 	public long bugCooldownTime = 0;
+	public double bugRequestsPerSecond = 0;
+	public int bugMaxConcurrentRequests = 0;
 	public Map<String, String> bugSpecificParams
 		= new HashMap<String, String> ();
 
@@ -79,6 +81,7 @@ public class Settings {
 	public String srcRemote = "";
 	public String srcRemotePw = null;
 	public String srcRemoteUser = null;
+	public boolean srcUpdate = false;
 	public Map<String, String> srcSpecificParams
 		= new HashMap<String, String> ();
 
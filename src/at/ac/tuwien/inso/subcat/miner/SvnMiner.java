@@ -51,6 +51,7 @@ import at.ac.tuwien.inso.subcat.model.Commit;
 import at.ac.tuwien.inso.subcat.model.Identity;
 import at.ac.tuwien.inso.subcat.model.ManagedFile;
 import at.ac.tuwien.inso.subcat.model.Model;
+import at.ac.tuwien.inso.subcat.model.ModelBatchWriter;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
 import at.ac.tuwien.inso.subcat.model.Project;
 import at.ac.tuwien.inso.subcat.model.User;
@@ -74,6 +75,7 @@ public class SvnMiner extends Miner {
 	private Settings settings;
 	private Project project;
 	private Model model;
+	private ModelBatchWriter writer;
 	private ModelPool pool;
 	private XmlReader reader;
 	private Lemmatizer lemmatizer;
@@ -116,8 +118,8 @@ public class SvnMiner extends Miner {
 
 		Identity identity = identities.get (mapKey);
 		if (identity == null) {
-			User user = model.addUser (project, name);
-			identity = model.addIdentity (null, Model.CONTEXT_SRC, mail, name, user);
+			User user = writer.addUser (project, name);
+			identity = writer.addIdentity (null, Model.CONTEXT_SRC, mail, name, user);
 			identities.put (mapKey, identity);
 		}
 
@@ -155,7 +157,7 @@ public class SvnMiner extends Miner {
 		
 		assert (date != null || msg != null || pathslist != null);
 		
-		Commit commit = model.addCommit (revision, project, author, committer, 
+		Commit commit = writer.addCommit (revision, project, author, committer, 
 				date, msg, filecount, 0, 0);
 		
 		Map<String,ManagedFile> commitFileCache = new HashMap();
@@ -170,8 +172,8 @@ public class SvnMiner extends Miner {
 			
 			switch (stats.type) {
 			case ADD:
-				ManagedFile addedFile = model.addManagedFile (project, path);
-				model.addFileChange (commit, addedFile, 0, 0, 0, 0, 0);
+				ManagedFile addedFile = writer.addManagedFile (project, path);
+				writer.addFileChange (commit, addedFile, 0, 0, 0, 0, 0);
 				fileCache.put (path, addedFile);
 				commitFileCache.put(path, addedFile);
 				break;
@@ -185,7 +187,7 @@ public class SvnMiner extends Miner {
 				else {
 					if(fileCache.get (path) != null){
 						ManagedFile deletedFile = fileCache.get (path);
-						model.addFileDeletion (deletedFile, commit);
+						writer.addFileDeletion (deletedFile, commit);
 						fileCache.remove (stats.oldPath);
 					}
 					else{
@@ -206,7 +208,7 @@ public class SvnMiner extends Miner {
 								
 						//Check if file exists in the commit already and skip the file, if it does
 						if (!commitFileCache.containsKey(path)){
-							model.addFileChange (commit, modifiedFile, 0, 0, 0, 0, 0);
+							writer.addFileChange (commit, modifiedFile, 0, 0, 0, 0, 0);
 							commitFileCache.put(path, modifiedFile);
 						}
 					}
@@ -223,8 +225,8 @@ public class SvnMiner extends Miner {
 					renameBulk(stats.oldPath, path, commit, commitFileCache);					
 				}
 				else{
-					ManagedFile copyFile = model.addManagedFile (project, path);
-					model.addFileChange (commit, copyFile, 0, 0, 0, 0, 0);
+					ManagedFile copyFile = writer.addManagedFile (project, path);
+					writer.addFileChange (commit, copyFile, 0, 0, 0, 0, 0);
 					fileCache.put (path, copyFile);
 					commitFileCache.put(path, copyFile);
 					//we dont remove during rename in SVN, since RENAME might also mean a copy command
@@ -260,9 +262,9 @@ public class SvnMiner extends Miner {
 			    	if (renamePath.startsWith(oldPath)){
 			    		String subDirectory = renamePath.substring(oldPath.length());
 			    		String newFileName =  newPath + subDirectory + filename;
-			    		ManagedFile addedFile = model.addManagedFile (project, newFileName);
+			    		ManagedFile addedFile = writer.addManagedFile (project, newFileName);
 			    		
-						model.addFileChange (commit, addedFile, 0, 0, 0, 0, 0);
+						writer.addFileChange (commit, addedFile, 0, 0, 0, 0, 0);
 						result.put(newFileName, addedFile);
 			    	}
 			    	
@@ -294,7 +296,7 @@ public void removeBulk(String path, Commit commit) throws SQLException{
 			    		
 						ManagedFile deletedFile = fileCache.get (key);
 						assert (deletedFile != null);
-						model.addFileDeletion (deletedFile, commit);
+						writer.addFileDeletion (deletedFile, commit);
 			    		
 						result.put(path, deletedFile);
 			    	}
@@ -462,6 +464,10 @@ public void removeBulk(String path, Commit commit) throws SQLException{
 	@Override
 	public void run () throws MinerException {
 		// TODO Auto-generated method stub
+		if (settings.srcUpdate) {
+			throw new MinerException ("Source repository updates are not supported by the SVN miner.");
+		}
+
 		try {
 			model = pool.getModel ();
 			emitStart ();
@@ -469,7 +475,9 @@ public void removeBulk(String path, Commit commit) throws SQLException{
 			model.addFlag (project, Model.FLAG_SRC_INFO);
 			model.addFlag (project, Model.FLAG_SRC_FILE_STATS);
 
+			writer = new ModelBatchWriter (model);
 			_run ();
+			writer.close ();
 			emitEnd ();
 		} catch (IOException e) {
 			throw new MinerException ("IO-Error: " + e.getMessage (), e);
@@ -479,6 +487,10 @@ public void removeBulk(String path, Commit commit) throws SQLException{
 			throw new MinerException ("Date Parsing-Error: " + e.getMessage (), e);
 		} catch (XmlReaderException e) {
 			throw new MinerException ("XML Reader-Error: " + e.getMessage (), e);
+		} finally {
+			if (model != null) {
+				model.close ();
+			}
 		}
 		
 	}
@@ -0,0 +1,10 @@
+package at.ac.tuwien.inso.subcat.model;
+
+import java.sql.SQLException;
+import java.util.List;
+
+
+public abstract class BugCallback {
+
+	public abstract boolean processResult (Bug bug, List<BugHistory> history, List<Comment> comments) throws SQLException, Exception;
+}
@@ -0,0 +1,109 @@
+/* BulkImportSession.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.sql.SQLException;
+
+
+/**
+ * Tunes all pool connections for long write-heavy jobs, see
+ * ModelPool.beginBulkImport (). close () restores the default
+ * settings, rebuilds deferred indices and updates the planner
+ * statistics.
+ */
+public class BulkImportSession {
+	private ModelPool pool;
+	private boolean deferIndices;
+
+	private long startTime;
+	private long startRows;
+	private long endTime = -1;
+	private long rows = 0;
+
+	BulkImportSession (ModelPool pool, boolean deferIndices) {
+		assert (pool != null);
+
+		this.pool = pool;
+		this.deferIndices = deferIndices;
+		this.startTime = System.currentTimeMillis ();
+	}
+
+	synchronized void start (long startRows) {
+		this.startRows = startRows;
+		this.startTime = System.currentTimeMillis ();
+	}
+
+	public synchronized void close () throws SQLException {
+		if (endTime >= 0) {
+			return ;
+		}
+
+		endTime = System.currentTimeMillis ();
+		pool.endBulkImport (this);
+	}
+
+	synchronized void finish (long endRows) {
+		this.rows = Math.max (0, endRows - startRows);
+	}
+
+	public boolean getDeferIndices () {
+		return deferIndices;
+	}
+
+	public synchronized boolean isClosed () {
+		return endTime >= 0;
+	}
+
+	/**
+	 * Estimated number of inserted rows, available after close ().
+	 */
+	public synchronized long getRowsImported () {
+		return rows;
+	}
+
+	/**
+	 * Duration of the import in ms, excluding the index
+	 * rebuild in close ().
+	 */
+	public synchronized long getDuration () {
+		return ((endTime >= 0)? endTime : System.currentTimeMillis ()) - startTime;
+	}
+
+	public synchronized double getRowsPerSecond () {
+		long duration = getDuration ();
+		if (duration <= 0) {
+			return 0;
+		}
+
+		return rows * 1000.0 / duration;
+	}
+}
@@ -0,0 +1,10 @@
+package at.ac.tuwien.inso.subcat.model;
+
+import java.sql.SQLException;
+import java.util.List;
+
+
+public abstract class CommitCallback {
+
+	public abstract boolean processResult (Commit commit, List<FileChange> changes) throws SQLException, Exception;
+}
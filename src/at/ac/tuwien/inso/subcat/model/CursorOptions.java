@@ -0,0 +1,123 @@
+/* CursorOptions.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.util.Date;
+
+
+/**
+ * Filters for Model.openCommitCursor () and Model.openBugCursor ().
+ * Unset (null) bounds are ignored. Dates refer to the commit date
+ * or the bug creation date, ids to the database row id.
+ *
+ * Id ranges from getCommitIdRange () / getBugIdRange () can be
+ * split to feed several workers with their own models.
+ */
+public class CursorOptions {
+	private int fetchSize = 0;
+	private Date fromDate = null;
+	private Date toDate = null;
+	private Integer minId = null;
+	private Integer maxId = null;
+
+
+	public CursorOptions () {
+	}
+
+	public CursorOptions (Integer minId, Integer maxId) {
+		this.minId = minId;
+		this.maxId = maxId;
+	}
+
+	public CursorOptions (Date fromDate, Date toDate) {
+		this.fromDate = fromDate;
+		this.toDate = toDate;
+	}
+
+	/**
+	 * Number of rows the driver should fetch at once, 0 for the default.
+	 */
+	public int getFetchSize () {
+		return fetchSize;
+	}
+
+	public void setFetchSize (int fetchSize) {
+		assert (fetchSize >= 0);
+
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Inclusive lower date bound.
+	 */
+	public Date getFromDate () {
+		return fromDate;
+	}
+
+	public void setFromDate (Date fromDate) {
+		this.fromDate = fromDate;
+	}
+
+	/**
+	 * Exclusive upper date bound.
+	 */
+	public Date getToDate () {
+		return toDate;
+	}
+
+	public void setToDate (Date toDate) {
+		this.toDate = toDate;
+	}
+
+	/**
+	 * Inclusive lower id bound.
+	 */
+	public Integer getMinId () {
+		return minId;
+	}
+
+	public void setMinId (Integer minId) {
+		this.minId = minId;
+	}
+
+	/**
+	 * Inclusive upper id bound.
+	 */
+	public Integer getMaxId () {
+		return maxId;
+	}
+
+	public void setMaxId (Integer maxId) {
+		this.maxId = maxId;
+	}
+}
@@ -0,0 +1,200 @@
+/* IdentityTable.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+
+/**
+ * Canonical Identity and User instances of one project, keyed by
+ * their database id. Model read paths and inserts go through this
+ * table, so each person is materialised once and identities of the
+ * same project can be compared by reference.
+ *
+ * See ModelPool.getIdentityTable ().
+ */
+public class IdentityTable {
+
+	/**
+	 * Open addressing table over positive int keys.
+	 */
+	private static class IntTable<T> {
+		private int[] keys;
+		private Object[] values;
+		private int mask;
+		private int size = 0;
+
+		public IntTable () {
+			clear ();
+		}
+
+		@SuppressWarnings ("unchecked")
+		public T get (int key) {
+			int slot = hash (key);
+			while (values[slot] != null) {
+				if (keys[slot] == key) {
+					return (T) values[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			return null;
+		}
+
+		/**
+		 * Stores value unless the key is already taken.
+		 * Returns the stored value.
+		 */
+		@SuppressWarnings ("unchecked")
+		public T putIfAbsent (int key, T value) {
+			assert (value != null);
+
+			int slot = hash (key);
+			while (values[slot] != null) {
+				if (keys[slot] == key) {
+					return (T) values[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			// Keep the load factor at or below 0.5:
+			if ((size + 1) * 2 > keys.length) {
+				grow ();
+				return putIfAbsent (key, value);
+			}
+
+			keys[slot] = key;
+			values[slot] = value;
+			size++;
+			return value;
+		}
+
+		public int size () {
+			return size;
+		}
+
+		public void clear () {
+			keys = new int[64];
+			values = new Object[64];
+			mask = keys.length - 1;
+			size = 0;
+		}
+
+		private void grow () {
+			int[] oldKeys = keys;
+			Object[] oldValues = values;
+
+			keys = new int[oldKeys.length * 2];
+			values = new Object[oldKeys.length * 2];
+			mask = keys.length - 1;
+
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldValues[i] != null) {
+					int slot = hash (oldKeys[i]);
+					while (values[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+
+		private int hash (int key) {
+			int h = key * 0x9E3779B9;
+			return (h ^ (h >>> 16)) & mask;
+		}
+	}
+
+	private final Project project;
+	private final IntTable<Identity> identities = new IntTable<Identity> ();
+	private final IntTable<User> users = new IntTable<User> ();
+
+
+	IdentityTable (Project project) {
+		assert (project != null);
+
+		this.project = project;
+	}
+
+	public Project getProject () {
+		return project;
+	}
+
+	public synchronized Identity getIdentity (int id) {
+		return identities.get (id);
+	}
+
+	public synchronized User getUser (int id) {
+		return users.get (id);
+	}
+
+	/**
+	 * Returns the canonical instance for identity. Identities
+	 * without id are not stored and returned as they are.
+	 */
+	public synchronized Identity intern (Identity identity) {
+		assert (identity != null);
+
+		if (identity.getId () == null) {
+			return identity;
+		}
+
+		return identities.putIfAbsent (identity.getId (), identity);
+	}
+
+	/**
+	 * Returns the canonical instance for user. Users
+	 * without id are not stored and returned as they are.
+	 */
+	public synchronized User intern (User user) {
+		assert (user != null);
+
+		if (user.getId () == null) {
+			return user;
+		}
+
+		return users.putIfAbsent (user.getId (), user);
+	}
+
+	public synchronized int getIdentityCount () {
+		return identities.size ();
+	}
+
+	public synchronized int getUserCount () {
+		return users.size ();
+	}
+
+	synchronized void clear () {
+		identities.clear ();
+		users.clear ();
+	}
+}
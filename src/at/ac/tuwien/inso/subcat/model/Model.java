@@ -38,14 +38,15 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import at.ac.tuwien.inso.subcat.config.DistributionAttributesConfig;
 import at.ac.tuwien.inso.subcat.config.DistributionChartConfig;
@@ -77,7 +78,6 @@ public class Model {
 	public static final String CONTEXT_SRC = "src";
 	public static final String CONTEXT_BUG = "bug";
 
-	private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
 	
 	//
@@ -89,8 +89,8 @@ public class Model {
 	private static final String PROJECT_TABLE =
 		"CREATE TABLE IF NOT EXISTS Projects ("
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
-		+ "lastBugDate	TEXT								        ,"
+		+ "date			INTEGER								NOT NULL,"
+		+ "lastBugDate	INTEGER								        ,"
 		+ "bugTracker   TEXT										,"
 		+ "domain		TEXT								        ,"
 		+ "product		TEXT								        ,"
@@ -141,11 +141,45 @@ public class Model {
 		+ "closed		INT									NOT NULL,"
 		+ "pos			FLOAT								NOT NULL,"
 		+ "neg			FLOAt								NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "FOREIGN KEY(start) REFERENCES Identities (id),"
 		+ "FOREIGN KEY(end) REFERENCES Identities (id)"
 		+ ")";
 
+	// Per-month aggregates for charts, see refreshMonthlyStats ().
+	// Config queries can read them instead of scanning the raw tables.
+	// Months are in local time, as in strftime (..., 'unixepoch', 'localtime').
+	// Rows are kept per identity, account interlinking reassigns users,
+	// see the MonthlyUserStats view.
+	private static final String MONTHLY_IDENTITY_STATS_TABLE =
+		"CREATE TABLE IF NOT EXISTS MonthlyIdentityStats ("
+		+ "project                INTEGER     NOT NULL,"
+		+ "year                   INTEGER     NOT NULL,"
+		+ "month                  INTEGER     NOT NULL,"
+		+ "identity               INTEGER     NOT NULL,"
+		+ "commits                INTEGER     NOT NULL,"
+		+ "linesAdded             INTEGER     NOT NULL,"
+		+ "linesRemoved           INTEGER     NOT NULL,"
+		+ "changedFiles           INTEGER     NOT NULL,"
+		+ "bugsReported           INTEGER     NOT NULL,"
+		+ "comments               INTEGER     NOT NULL,"
+		+ "bugChanges             INTEGER     NOT NULL,"
+		+ "PRIMARY KEY (project, year, month, identity),"
+		+ "FOREIGN KEY(project) REFERENCES Projects (id),"
+		+ "FOREIGN KEY(identity) REFERENCES Identities (id)"
+		+ ")";
+
+	// Highest row ids already added to MonthlyIdentityStats:
+	private static final String MONTHLY_STATS_STATE_TABLE =
+		"CREATE TABLE IF NOT EXISTS MonthlyStatsState ("
+		+ "project                INTEGER     PRIMARY KEY NOT NULL,"
+		+ "lastCommit             INTEGER     NOT NULL,"
+		+ "lastBug                INTEGER     NOT NULL,"
+		+ "lastComment            INTEGER     NOT NULL,"
+		+ "lastHistory            INTEGER     NOT NULL,"
+		+ "FOREIGN KEY(project) REFERENCES Projects (id)"
+		+ ")";
+
 	private static final String SOCIAL_STATS_TABLE =
 		"CREATE TABLE IF NOT EXISTS SocialStats ("
 		+ "src                    INTEGER     NOT NULL,"
@@ -251,8 +285,8 @@ public class Model {
 		"CREATE TABLE IF NOT EXISTS BugFlagAssignments ("
 		+ "bug				INT			NOT NULL,"
 		+ "flag				INT			NOT NULL,"
-		+ "creationDate		TEXT		NOT NULL,"
-		+ "modificationDate	TEXT		NOT NULL,"
+		+ "creationDate		INTEGER		NOT NULL,"
+		+ "modificationDate	INTEGER		NOT NULL,"
 		+ "status			INT			NOT NULL,"
 		+ "setter			INT			NOT NULL,"
 		+ "requestee		INT					,"
@@ -268,8 +302,8 @@ public class Model {
 		"CREATE TABLE IF NOT EXISTS BugAttachmentFlagAssignments ("
 		+ "attachment		INT			NOT NULL,"
 		+ "flag				INT			NOT NULL,"
-		+ "creationDate		TEXT		NOT NULL,"
-		+ "modificationDate	TEXT		NOT NULL,"
+		+ "creationDate		INTEGER		NOT NULL,"
+		+ "modificationDate	INTEGER		NOT NULL,"
 		+ "status			INT			NOT NULL,"
 		+ "setter			INT			NOT NULL,"
 		+ "requestee		INT					,"
@@ -322,7 +356,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "keyword		INT									NOT NULL,"
 		+ "removed		BOOL								NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -337,8 +371,8 @@ public class Model {
 		+ "identity			INT											,"
 		+ "component		INT									NOT NULL,"
 		+ "title			TEXT								NOT NULL,"
-		+ "creation			TEXT								NOT NULL,"
-		+ "lastChange		TEXT								NOT NULL,"
+		+ "creation			INTEGER								NOT NULL,"
+		+ "lastChange		INTEGER								NOT NULL,"
 		+ "priority			INT									NOT NULL,"
 		+ "severity			INT									NOT NULL,"
 		+ "resolution		INT									NOT NULL,"
@@ -375,7 +409,7 @@ public class Model {
 	private static final String BUG_DEADLINE_TABLE =
 		"CREATE TABLE IF NOT EXISTS BugDeadlines ("
 		+ "bug			INT PRIMARY KEY						NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id)"
 		+ ")";
 
@@ -450,7 +484,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldVersion	INT									NOT NULL,"
 		+ "newVersion	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -464,7 +498,7 @@ public class Model {
 		+ "id					INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug					INT									NOT NULL,"
 		+ "addedBy				INT									NOT NULL,"
-		+ "date					TEXT								NOT NULL,"
+		+ "date					INTEGER								NOT NULL,"
 		+ "identifierAdded		TEXT										,"
 		+ "groupAdded			INT											,"
 		+ "identityAdded		INT											,"
@@ -484,7 +518,7 @@ public class Model {
 		+ "id					INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug					INT									NOT NULL,"
 		+ "addedBy				INT									NOT NULL,"
-		+ "date					TEXT								NOT NULL,"
+		+ "date					INTEGER								NOT NULL,"
 		+ "identifierAdded		TEXT										,"
 		+ "groupAdded			INT											,"
 		+ "identityAdded		INT											,"
@@ -504,7 +538,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldMilestone	INT									NOT NULL,"
 		+ "newMilestone	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -518,7 +552,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "resolution	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
 		+ "FOREIGN KEY(addedBy) REFERENCES Identities (id),"
@@ -530,7 +564,7 @@ public class Model {
 		+ "id					INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug					INT									NOT NULL,"
 		+ "addedBy				INT									NOT NULL,"
-		+ "date					TEXT								NOT NULL,"
+		+ "date					INTEGER								NOT NULL,"
 		+ "oldOperatingSystem	INT									NOT NULL,"
 		+ "newOperatingSystem	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -544,7 +578,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldPriority	INT									NOT NULL,"
 		+ "newPriority	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -558,7 +592,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldSeverity	INT									NOT NULL,"
 		+ "newSeverity	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -572,7 +606,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldStatus	INT									NOT NULL,"
 		+ "newStatus	INT									NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
@@ -586,7 +620,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "removed		BOOLEAN								NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
 		+ "FOREIGN KEY(addedBy) REFERENCES Identities (id)"
@@ -597,7 +631,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY	AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "alias		TEXT								NOT NULL,"
 		+ "FOREIGN KEY(bug) REFERENCES Bugs (id),"
 		+ "FOREIGN KEY(addedBy) REFERENCES Identities (id)"
@@ -641,7 +675,7 @@ public class Model {
 		+ "id			INTEGER PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "attachment	INTEGER								NOT NULL,"
 		+ "identity		INTEGER								NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldValue		INTEGER								NOT NULL,"
 		+ "newValue		INTEGER								NOT NULL,"
 		+ "FOREIGN KEY(attachment) REFERENCES Attachments (id),"
@@ -661,7 +695,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "attachment	INT									NOT NULL,"
 		+ "identity		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "oldStatus	INT									NOT NULL,"
 		+ "newStatus	INT									NOT NULL,"
 		+ "FOREIGN KEY(attachment) REFERENCES Attachments (id),"
@@ -675,7 +709,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY	AUTOINCREMENT	NOT NULL,"
 		+ "attachment	INT									NOT NULL,"
 		+ "identity		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "field		TEXT								NOT NULL,"
 		+ "oldValue		TEXT										,"
 		+ "newValue		TEXT										,"
@@ -687,7 +721,7 @@ public class Model {
 		"CREATE TABLE IF NOT EXISTS Comments ("
 		+ "id			INTEGER	PRIMARY KEY AUTOINCREMENT	NOT NULL,"
 		+ "pos          INTEGER                             NOT NULL,"
-		+ "creation		TEXT								NOT NULL,"
+		+ "creation		INTEGER								NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "identity		INT									NOT NULL,"
 		+ "content		TEXT								NOT NULL,"
@@ -727,7 +761,7 @@ public class Model {
 		+ "id			INTEGER	PRIMARY KEY	AUTOINCREMENT	NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "identity		INT									NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "field		TEXT								NOT NULL,"
 		+ "oldValue		TEXT										,"
 		+ "newValue		TEXT										,"
@@ -738,7 +772,7 @@ public class Model {
 	private static final String CC_TABLE =
 		"CREATE TABLE IF NOT EXISTS BugCcHistory ("
 		+ "id			INTEGER	PRIMARY KEY	AUTOINCREMENT	NOT NULL,"
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "bug			INT									NOT NULL,"
 		+ "addedBy		INT									NOT NULL,"
 		+ "cc			INT									        ,"
@@ -752,7 +786,7 @@ public class Model {
 	private static final String BUG_BLOCKS_HISTORY_TABLE =
 		"CREATE TABLE IF NOT EXISTS BugBlocksHistory ("
 		+ "id				INTEGER	PRIMARY KEY	AUTOINCREMENT	NOT NULL,"
-		+ "date				TEXT								NOT NULL,"
+		+ "date				INTEGER								NOT NULL,"
 		+ "bug				INT									NOT NULL,"
 		+ "blocks			INT									        ,"
 		+ "blocksIdentifier	INT									NOT NULL,"
@@ -766,7 +800,7 @@ public class Model {
 	private static final String BUG_DEPENDENCY_HISTORY_TABLE =
 		"CREATE TABLE IF NOT EXISTS BugDependencyHistory ("
 		+ "id					INTEGER	PRIMARY KEY	AUTOINCREMENT	NOT NULL,"
-		+ "date					TEXT								NOT NULL,"
+		+ "date					INTEGER								NOT NULL,"
 		+ "bug					INT									NOT NULL,"
 		+ "depends				INT									        ,"
 		+ "dependsIdentifier	INT									NOT NULL,"
@@ -803,7 +837,7 @@ public class Model {
 		+ "project		INT									NOT NULL,"
 		+ "author		INT									NOT NULL,"
 		+ "committer	INT									NOT NULL,"	// TODO: Rename to Pusher
-		+ "date			TEXT								NOT NULL,"
+		+ "date			INTEGER								NOT NULL,"
 		+ "title		TEXT								NOT NULL,"
 		+ "changedFiles INT									NOT NULL,"
 		+ "linesAdded	INT									NOT NULL,"
@@ -881,6 +915,15 @@ public class Model {
 		+ "FOREIGN KEY(file) REFERENCES Files (id)"
 		+ ")";
 	
+	private static final String SOURCE_MINING_STATE_TABLE =
+		"CREATE TABLE IF NOT EXISTS SourceMiningStates ("
+		+ "project		INTEGER		NOT NULL,"
+		+ "ref			TEXT		NOT NULL,"
+		+ "revision		TEXT		NOT NULL,"
+		+ "PRIMARY KEY (project, ref),"
+		+ "FOREIGN KEY(project) REFERENCES Projects (id)"
+		+ ")";
+
 	private static final String BUGFIX_COMMIT_TABLE =
 		"CREATE TABLE IF NOT EXISTS BugfixCommit ("
 		+ "bug			INTEGER								NOT NULL,"
@@ -993,6 +1036,223 @@ public class Model {
 		+ "  WHERE Bugs.id = NEW.bug; "
 		+ "END ";
 
+
+	//
+	// Views:
+	//
+
+	private static final String MONTHLY_USER_STATS_VIEW =
+		"CREATE VIEW IF NOT EXISTS MonthlyUserStats AS "
+		+ "SELECT"
+		+ " MonthlyIdentityStats.project AS project,"
+		+ " year,"
+		+ " month,"
+		+ " Identities.user		AS user,"
+		+ " sum(commits)		AS commits,"
+		+ " sum(linesAdded)		AS linesAdded,"
+		+ " sum(linesRemoved)	AS linesRemoved,"
+		+ " sum(changedFiles)	AS changedFiles,"
+		+ " sum(bugsReported)	AS bugsReported,"
+		+ " sum(comments)		AS comments,"
+		+ " sum(bugChanges)		AS bugChanges "
+		+ "FROM"
+		+ " MonthlyIdentityStats "
+		+ "JOIN Identities ON Identities.id = MonthlyIdentityStats.identity "
+		+ "GROUP BY"
+		+ " MonthlyIdentityStats.project, year, month, Identities.user";
+
+	private static final String MONTHLY_PROJECT_STATS_VIEW =
+		"CREATE VIEW IF NOT EXISTS MonthlyProjectStats AS "
+		+ "SELECT"
+		+ " project,"
+		+ " year,"
+		+ " month,"
+		+ " count(user)			AS activeUsers,"
+		+ " sum(commits)		AS commits,"
+		+ " sum(linesAdded)		AS linesAdded,"
+		+ " sum(linesRemoved)	AS linesRemoved,"
+		+ " sum(changedFiles)	AS changedFiles,"
+		+ " sum(bugsReported)	AS bugsReported,"
+		+ " sum(comments)		AS comments,"
+		+ " sum(bugChanges)		AS bugChanges "
+		+ "FROM"
+		+ " MonthlyUserStats "
+		+ "GROUP BY"
+		+ " project, year, month";
+
+
+	//
+	// Indices:
+	//
+
+	// Bump SCHEMA_VERSION whenever INDICES changes. Databases
+	// with an older PRAGMA user_version get the set (re)applied.
+	private static final int SCHEMA_VERSION = 4;
+
+	private static final String[] INDICES = {
+		"CREATE INDEX IF NOT EXISTS idx_Commits_project_date ON Commits (project, date)",
+		"CREATE INDEX IF NOT EXISTS idx_Commits_author ON Commits (author)",
+		"CREATE INDEX IF NOT EXISTS idx_Commits_committer ON Commits (committer)",
+		"CREATE INDEX IF NOT EXISTS idx_Files_project_name ON Files (project, name)",
+		"CREATE INDEX IF NOT EXISTS idx_FileChanges_file ON FileChanges (file)",
+		"CREATE INDEX IF NOT EXISTS idx_FileRenames_file ON FileRenames (file)",
+		"CREATE INDEX IF NOT EXISTS idx_FileDeletion_commitId ON FileDeletion (commitId)",
+		"CREATE INDEX IF NOT EXISTS idx_FileCopy_commitId ON FileCopy (commitId)",
+		"CREATE INDEX IF NOT EXISTS idx_BugfixCommit_commitId ON BugfixCommit (commitId)",
+		"CREATE INDEX IF NOT EXISTS idx_Users_project ON Users (project)",
+		"CREATE INDEX IF NOT EXISTS idx_Identities_user ON Identities (user)",
+		"CREATE INDEX IF NOT EXISTS idx_Interactions_start ON Interactions (start)",
+		"CREATE INDEX IF NOT EXISTS idx_Interactions_end ON Interactions (end)",
+		"CREATE INDEX IF NOT EXISTS idx_ProjectFlags_project ON ProjectFlags (project)",
+		"CREATE INDEX IF NOT EXISTS idx_Bugs_component ON Bugs (component)",
+		"CREATE INDEX IF NOT EXISTS idx_Bugs_identifier ON Bugs (identifier)",
+		"CREATE INDEX IF NOT EXISTS idx_Bugs_identity ON Bugs (identity)",
+		"CREATE INDEX IF NOT EXISTS idx_Bugs_component_creation ON Bugs (component, creation)",
+		"CREATE INDEX IF NOT EXISTS idx_Comments_creation ON Comments (creation)",
+		"CREATE INDEX IF NOT EXISTS idx_Comments_identity ON Comments (identity)",
+		"CREATE INDEX IF NOT EXISTS idx_Attachments_comment ON Attachments (comment)",
+		"CREATE INDEX IF NOT EXISTS idx_BugHistory_bug ON BugHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_BugHistory_date ON BugHistory (date)",
+		"CREATE INDEX IF NOT EXISTS idx_BugCcHistory_bug ON BugCcHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_BugBlocksHistory_bug ON BugBlocksHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_BugDependencyHistory_bug ON BugDependencyHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_BugAliases_bug ON BugAliases (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_KeywordHistory_bug ON KeywordHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_VersionHistory_bug ON VersionHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_AssignedToHistory_bug ON AssignedToHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_QaContactHistory_bug ON QaContactHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_MilestoneHistory_bug ON MilestoneHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_ResolutionHistory_bug ON ResolutionHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_OperatingSystemHistory_bug ON OperatingSystemHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_PriorityHistory_bug ON PriorityHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_SeverityHistory_bug ON SeverityHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_StatusHistory_bug ON StatusHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_ConfirmedHistory_bug ON ConfirmedHistory (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_BugCategories_bug ON BugCategories (bug)",
+		"CREATE INDEX IF NOT EXISTS idx_ObsoleteAttachments_attachment ON ObsoleteAttachments (attachment)",
+		"CREATE INDEX IF NOT EXISTS idx_AttachmentStatusHistory_attachment ON AttachmentStatusHistory (attachment)",
+		"CREATE INDEX IF NOT EXISTS idx_AttachmentHistory_attachment ON AttachmentHistory (attachment)",
+		"CREATE INDEX IF NOT EXISTS idx_BugDuplicationComments_comment ON BugDuplicationComments (comment)",
+		"CREATE INDEX IF NOT EXISTS idx_BugAttachmentReviewComments_comment ON BugAttachmentReviewComments (comment)",
+		"CREATE INDEX IF NOT EXISTS idx_Categories_dictionary ON Categories (dictionary)",
+		"CREATE INDEX IF NOT EXISTS idx_Dictionary_project ON Dictionary (project)",
+		"CREATE INDEX IF NOT EXISTS idx_BugCommentSentiment_commentId ON BugCommentSentiment (commentId)",
+		"CREATE INDEX IF NOT EXISTS idx_CommitSentiment_commitId ON CommitSentiment (commitId)",
+		"CREATE INDEX IF NOT EXISTS idx_BlockSentiment_sentimentId ON BlockSentiment (sentimentId)",
+		"CREATE INDEX IF NOT EXISTS idx_MonthlyIdentityStats_identity ON MonthlyIdentityStats (identity)"
+	};
+
+	// Indices only used by reports and post-processing. Bulk imports
+	// drop them and rebuild them once at the end, see BulkImportSession.
+	private static final String[] DEFERRABLE_INDICES = {
+		"idx_Commits_project_date",
+		"idx_Commits_author",
+		"idx_Commits_committer",
+		"idx_FileChanges_file",
+		"idx_FileRenames_file",
+		"idx_FileDeletion_commitId",
+		"idx_FileCopy_commitId",
+		"idx_BugfixCommit_commitId",
+		"idx_Interactions_start",
+		"idx_Interactions_end",
+		"idx_Bugs_identity",
+		"idx_Bugs_component_creation",
+		"idx_Comments_identity",
+		"idx_Comments_creation",
+		"idx_BugHistory_bug",
+		"idx_BugHistory_date",
+		"idx_BugCcHistory_bug",
+		"idx_BugBlocksHistory_bug",
+		"idx_BugDependencyHistory_bug",
+		"idx_BugAliases_bug",
+		"idx_KeywordHistory_bug",
+		"idx_VersionHistory_bug",
+		"idx_AssignedToHistory_bug",
+		"idx_QaContactHistory_bug",
+		"idx_MilestoneHistory_bug",
+		"idx_ResolutionHistory_bug",
+		"idx_OperatingSystemHistory_bug",
+		"idx_PriorityHistory_bug",
+		"idx_SeverityHistory_bug",
+		"idx_StatusHistory_bug",
+		"idx_ConfirmedHistory_bug",
+		"idx_BugCategories_bug",
+		"idx_AttachmentStatusHistory_attachment",
+		"idx_AttachmentHistory_attachment",
+		"idx_BugCommentSentiment_commentId",
+		"idx_CommitSentiment_commitId",
+		"idx_BlockSentiment_sentimentId"
+	};
+
+	//
+	// Date Columns:
+	//
+
+	// Tables with date columns. Databases created with TEXT dates
+	// are rebuilt with INTEGER columns (seconds since the epoch).
+	private static class DateTable {
+		public final String name;
+		public final String schema;
+		public final String[] columns;
+
+		public DateTable (String name, String schema, String... columns) {
+			this.name = name;
+			this.schema = schema;
+			this.columns = columns;
+		}
+	}
+
+	private static final DateTable[] DATE_TABLES = {
+		new DateTable ("Projects", PROJECT_TABLE, "date", "lastBugDate"),
+		new DateTable ("Interactions", INTERACTION_TABLE, "date"),
+		new DateTable ("BugFlagAssignments", BUG_FLAG_ASSIGNMENT_TABLE, "creationDate", "modificationDate"),
+		new DateTable ("BugAttachmentFlagAssignments", BUG_ATTACHMENT_FLAG_ASSIGNMENT_TABLE, "creationDate", "modificationDate"),
+		new DateTable ("KeywordHistory", KEYWORD_HISTORY_TABLE, "date"),
+		new DateTable ("Bugs", BUG_TABLE, "creation", "lastChange"),
+		new DateTable ("BugDeadlines", BUG_DEADLINE_TABLE, "date"),
+		new DateTable ("VersionHistory", VERSION_HISTORY_TABLE, "date"),
+		new DateTable ("AssignedToHistory", ASSIGNED_TO_HISTORY_TABLE, "date"),
+		new DateTable ("QaContactHistory", QA_CONTACT_HISTORY_TABLE, "date"),
+		new DateTable ("MilestoneHistory", MILESTONE_HISTORY_TABLE, "date"),
+		new DateTable ("ResolutionHistory", RESOLUTION_HISTORY_TABLE, "date"),
+		new DateTable ("OperatingSystemHistory", OPERATING_SYSTEM_HISTORY_TABLE, "date"),
+		new DateTable ("PriorityHistory", PRIORITY_HISTORY_TABLE, "date"),
+		new DateTable ("SeverityHistory", SEVERITY_HISTORY_TABLE, "date"),
+		new DateTable ("StatusHistory", STATUS_HISTORY_TABLE, "date"),
+		new DateTable ("ConfirmedHistory", CONFIRMED_HISTORY_TABLE, "date"),
+		new DateTable ("BugAliases", BUG_ALIASES, "date"),
+		new DateTable ("ObsoleteAttachments", ATTACHMENT_ISOBSOLETE_TABLE, "date"),
+		new DateTable ("AttachmentStatusHistory", ATTACHMENT_STATUS_HISTORY_TABLE, "date"),
+		new DateTable ("AttachmentHistory", ATTACHMENT_HISTORY_TABLE, "date"),
+		new DateTable ("Comments", COMMENT_TABLE, "creation"),
+		new DateTable ("BugHistory", BUG_HISTORY_TABLE, "date"),
+		new DateTable ("BugCcHistory", CC_TABLE, "date"),
+		new DateTable ("BugBlocksHistory", BUG_BLOCKS_HISTORY_TABLE, "date"),
+		new DateTable ("BugDependencyHistory", BUG_DEPENDENCY_HISTORY_TABLE, "date"),
+		new DateTable ("Commits", COMMIT_TABLE, "date")
+	};
+
+	// Names of all date columns, used to check configuration queries:
+	static Set<String> getDateColumnNames () {
+		Set<String> names = new HashSet<String> ();
+		for (DateTable table : DATE_TABLES) {
+			for (String column : table.columns) {
+				names.add (column.toLowerCase ());
+			}
+		}
+
+		return names;
+	}
+
+	private static final String SELECT_TABLE_NAMES =
+		"SELECT"
+		+ " name "
+		+ "FROM"
+		+ " sqlite_master "
+		+ "WHERE"
+		+ " type = 'table'"
+		+ " AND name NOT LIKE 'sqlite_%'";
+
 	private static final String SELECT_FILE_CHANGES =
 		"SELECT "
 		+ " FileChanges.linesAdded,"
@@ -1103,8 +1363,21 @@ public class Model {
 		+ " ON CommitterUser.id = CommitterIdentity.user "
 		+ "WHERE"
 		+ " Commits.project = ? "
+		+ " AND (? IS NULL OR Commits.date >= ?) "
+		+ " AND (? IS NULL OR Commits.date < ?) "
+		+ " AND (? IS NULL OR Commits.id >= ?) "
+		+ " AND (? IS NULL OR Commits.id <= ?) "
 		+ "ORDER BY "
-		+ " date (Commits.date)";
+		+ " Commits.date";
+
+	private static final String SELECT_COMMIT_ID_RANGE =
+		"SELECT"
+		+ " min(id),"
+		+ " max(id) "
+		+ "FROM"
+		+ " Commits "
+		+ "WHERE"
+		+ " project = ?";
 
 	private static final String SELECT_ALL_BUGS = 
 		"SELECT"
@@ -1142,8 +1415,23 @@ public class Model {
 		+ " ON Components.id = Bugs.component "
 		+ "WHERE"
 		+ " Components.project = ? "
+		+ " AND (? IS NULL OR Bugs.creation >= ?) "
+		+ " AND (? IS NULL OR Bugs.creation < ?) "
+		+ " AND (? IS NULL OR Bugs.id >= ?) "
+		+ " AND (? IS NULL OR Bugs.id <= ?) "
 		+ "ORDER BY "
-		+ " date (Bugs.creation)";
+		+ " Bugs.creation";
+
+	private static final String SELECT_BUG_ID_RANGE =
+		"SELECT"
+		+ " min(Bugs.id),"
+		+ " max(Bugs.id) "
+		+ "FROM"
+		+ " Bugs "
+		+ "JOIN Components"
+		+ " ON Components.id = Bugs.component "
+		+ "WHERE"
+		+ " Components.project = ?";
 
 	private static final String SELECT_BUG = 
 		"SELECT"
@@ -1210,7 +1498,7 @@ public class Model {
 		+ " Components.project = ?"
 		+ " AND Bugs.identifier = ? "
 		+ "ORDER BY "
-		+ " date (Bugs.creation)";
+		+ " Bugs.creation";
 
 	private static final String SELECT_ALL_CATEGORIES =
 		"SELECT"
@@ -1475,6 +1763,87 @@ public class Model {
 		+ "ORDER BY"
 		+ " BugHistory.id";
 
+	// Chunked iteration, see foreachCommitWithChanges ()
+	// and foreachBugWithHistory (). Unused slots are NULL.
+	private static final int FOREACH_CHUNK_SIZE = 256;
+
+	private static final String SELECT_FILE_CHANGES_CHUNK =
+		"SELECT "
+		+ " FileChanges.linesAdded,"
+		+ " FileChanges.linesRemoved,"
+		+ " FileChanges.emptyLinesAdded,"
+		+ " FileChanges.emptyLinesRemoved,"
+		+ " FileChanges.chunksChanged,"
+		+ " Files.id,"
+		+ " Files.project,"
+		+ " Files.name,"
+		+ " Files.touched,"
+		+ " Files.linesAdded,"
+		+ " Files.linesRemoved,"
+		+ " Files.chunksChanged,"
+		+ " FileChanges.commitId "
+		+ "FROM "
+		+ " FileChanges,"
+		+ " Files "
+		+ "WHERE "
+		+ " Files.id = FileChanges.file "
+		+ " AND FileChanges.commitId IN (" + chunkParameters () + ") "
+		+ "ORDER BY"
+		+ " FileChanges.commitId";
+
+	private static final String SELECT_COMMENTS_CHUNK =
+		"SELECT"
+		+ " Comments.id,"
+		+ " Comments.pos,"
+		+ " Comments.creation,"
+		+ " Identity.id				AS aiId,"
+		+ " Identity.name			AS aiName,"
+		+ " Identity.mail			AS aiMail,"
+		+ " Users.id				AS auId,"
+		+ " Users.name				AS auName,"
+		+ " Comments.content, "
+		+ " Identity.context		AS aiContext,"
+		+ " Identity.identifier,"
+		+ " Comments.bug "
+		+ "FROM"
+		+ " Comments "
+		+ "LEFT JOIN Identities Identity"
+		+ " ON Comments.identity = Identity.id "
+		+ "LEFT JOIN Users "
+		+ " ON Users.id = Identity.user "
+		+ "WHERE"
+		+ " Comments.bug IN (" + chunkParameters () + ") "
+		+ "ORDER BY"
+		+ " Comments.bug,"
+		+ " Comments.pos";
+
+	private static final String SELECT_FULL_HISTORY_CHUNK =
+		"SELECT"
+		+ " BugHistory.id,"
+		+ " Identity.id,"
+		+ " Identity.name,"
+		+ " Identity.mail,"
+		+ " Users.id,"
+		+ " Users.name,"
+		+ " BugHistory.date,"
+		+ " BugHistory.field,"
+		+ " BugHistory.oldValue,"
+		+ " BugHistory.newValue,"
+		+ " Identity.context,"
+		+ " Identity.identifier,"
+		+ " BugHistory.bug "
+		+ "FROM"
+		+ " BugHistory "
+		+ "LEFT JOIN Identities Identity"
+		+ " ON BugHistory.identity = Identity.id "
+		+ "LEFT JOIN Users "
+		+ " ON Users.id = Identity.user "
+		+ "WHERE"
+		+ " BugHistory.bug IN (" + chunkParameters () + ") "
+		+ "ORDER BY"
+		+ " BugHistory.bug,"
+		+ " BugHistory.id";
+
 	private static final String SELECT_DICTIONARIES =
 		"SELECT "
 		+ " id, "
@@ -1485,6 +1854,50 @@ public class Model {
 		+ "WHERE "
 		+ " project = ?";
 
+	private static final String SELECT_SOURCE_MINING_STATE =
+		"SELECT"
+		+ " revision "
+		+ "FROM"
+		+ " SourceMiningStates "
+		+ "WHERE"
+		+ " project = ?"
+		+ " AND ref = ?";
+
+	private static final String SELECT_COMMIT_IDENTIFIERS =
+		"SELECT"
+		+ " identifier "
+		+ "FROM"
+		+ " Commits "
+		+ "WHERE"
+		+ " project = ?";
+
+	private static final String SELECT_NEWEST_COMMIT_IDENTIFIER =
+		"SELECT"
+		+ " identifier "
+		+ "FROM"
+		+ " Commits "
+		+ "WHERE"
+		+ " project = ? "
+		+ "ORDER BY"
+		+ " id DESC "
+		+ "LIMIT 1";
+
+	private static final String SELECT_ACTIVE_FILES =
+		"SELECT"
+		+ " id,"
+		+ " name,"
+		+ " touched,"
+		+ " linesAdded,"
+		+ " linesRemoved,"
+		+ " chunksChanged "
+		+ "FROM"
+		+ " Files "
+		+ "WHERE"
+		+ " project = ?"
+		+ " AND id NOT IN (SELECT fileId FROM FileDeletion) "
+		+ "ORDER BY"
+		+ " id";
+
 	private static final String SELECT_ALL_IDENTITIES_CONTEXT =
 			"SELECT "
 			+ " u.id, "
@@ -1723,6 +2136,132 @@ public class Model {
 		+ " COALESCE((SELECT bugsClosed FROM SocialStats WHERE src = ? AND dest = ?), 0) + ?"
 		+ ")";
 
+	// Used by SocialStatsAccumulator:
+	static final String SOCIAL_STATS_INIT =
+		"INSERT OR IGNORE INTO SocialStats (src, dest, quotations, patchesReviewed, bugInteractions, fileInteractions, bugLinkingInteractions, pushed, bugsClosed)"
+		+ "VALUES (?, ?, 0, 0, 0, 0, 0, 0, 0)";
+
+	private static final String SELECT_MONTHLY_STATS_STATE =
+		"SELECT"
+		+ " lastCommit,"
+		+ " lastBug,"
+		+ " lastComment,"
+		+ " lastHistory "
+		+ "FROM"
+		+ " MonthlyStatsState "
+		+ "WHERE"
+		+ " project = ?";
+
+	private static final String SELECT_MONTHLY_STATS_SOURCE_IDS =
+		"SELECT"
+		+ " (SELECT max(id) FROM Commits),"
+		+ " (SELECT max(id) FROM Bugs),"
+		+ " (SELECT max(id) FROM Comments),"
+		+ " (SELECT max(id) FROM BugHistory)";
+
+	private static final String MONTHLY_STATS_STATE_UPDATE =
+		"INSERT OR REPLACE INTO MonthlyStatsState "
+		+ "(project, lastCommit, lastBug, lastComment, lastHistory) "
+		+ "VALUES (?, ?, ?, ?, ?)";
+
+	// Adds all source rows within the given id ranges (lower bound
+	// exclusive, upper bound inclusive) to the existing aggregates.
+	private static final String MONTHLY_STATS_INCREMENT =
+		"INSERT OR REPLACE INTO MonthlyIdentityStats "
+		+ "SELECT"
+		+ " d.project, d.year, d.month, d.identity,"
+		+ " ifnull(m.commits, 0) + d.commits,"
+		+ " ifnull(m.linesAdded, 0) + d.linesAdded,"
+		+ " ifnull(m.linesRemoved, 0) + d.linesRemoved,"
+		+ " ifnull(m.changedFiles, 0) + d.changedFiles,"
+		+ " ifnull(m.bugsReported, 0) + d.bugsReported,"
+		+ " ifnull(m.comments, 0) + d.comments,"
+		+ " ifnull(m.bugChanges, 0) + d.bugChanges "
+		+ "FROM ("
+		+ " SELECT"
+		+ "  project, year, month, identity,"
+		+ "  sum(commits) AS commits,"
+		+ "  sum(linesAdded) AS linesAdded,"
+		+ "  sum(linesRemoved) AS linesRemoved,"
+		+ "  sum(changedFiles) AS changedFiles,"
+		+ "  sum(bugsReported) AS bugsReported,"
+		+ "  sum(comments) AS comments,"
+		+ "  sum(bugChanges) AS bugChanges"
+		+ " FROM ("
+		+ "  SELECT"
+		+ "   Commits.project AS project,"
+		+ "   CAST(strftime('%Y', Commits.date, 'unixepoch', 'localtime') AS INTEGER) AS year,"
+		+ "   CAST(strftime('%m', Commits.date, 'unixepoch', 'localtime') AS INTEGER) AS month,"
+		+ "   Commits.author AS identity,"
+		+ "   1 AS commits,"
+		+ "   Commits.linesAdded AS linesAdded,"
+		+ "   Commits.linesRemoved AS linesRemoved,"
+		+ "   Commits.changedFiles AS changedFiles,"
+		+ "   0 AS bugsReported,"
+		+ "   0 AS comments,"
+		+ "   0 AS bugChanges"
+		+ "  FROM Commits"
+		+ "  WHERE Commits.project = ? AND Commits.id > ? AND Commits.id <= ?"
+		+ "  UNION ALL"
+		+ "  SELECT"
+		+ "   Components.project,"
+		+ "   CAST(strftime('%Y', Bugs.creation, 'unixepoch', 'localtime') AS INTEGER),"
+		+ "   CAST(strftime('%m', Bugs.creation, 'unixepoch', 'localtime') AS INTEGER),"
+		+ "   Bugs.identity,"
+		+ "   0, 0, 0, 0, 1, 0, 0"
+		+ "  FROM Bugs"
+		+ "  JOIN Components ON Components.id = Bugs.component"
+		+ "  WHERE Components.project = ? AND Bugs.id > ? AND Bugs.id <= ?"
+		+ "  UNION ALL"
+		+ "  SELECT"
+		+ "   Components.project,"
+		+ "   CAST(strftime('%Y', Comments.creation, 'unixepoch', 'localtime') AS INTEGER),"
+		+ "   CAST(strftime('%m', Comments.creation, 'unixepoch', 'localtime') AS INTEGER),"
+		+ "   Comments.identity,"
+		+ "   0, 0, 0, 0, 0, 1, 0"
+		+ "  FROM Comments"
+		+ "  JOIN Bugs ON Bugs.id = Comments.bug"
+		+ "  JOIN Components ON Components.id = Bugs.component"
+		+ "  WHERE Components.project = ? AND Comments.id > ? AND Comments.id <= ?"
+		+ "  UNION ALL"
+		+ "  SELECT"
+		+ "   Components.project,"
+		+ "   CAST(strftime('%Y', BugHistory.date, 'unixepoch', 'localtime') AS INTEGER),"
+		+ "   CAST(strftime('%m', BugHistory.date, 'unixepoch', 'localtime') AS INTEGER),"
+		+ "   BugHistory.identity,"
+		+ "   0, 0, 0, 0, 0, 0, 1"
+		+ "  FROM BugHistory"
+		+ "  JOIN Bugs ON Bugs.id = BugHistory.bug"
+		+ "  JOIN Components ON Components.id = Bugs.component"
+		+ "  WHERE Components.project = ? AND BugHistory.id > ? AND BugHistory.id <= ?"
+		+ " )"
+		+ " GROUP BY project, year, month, identity"
+		+ ") d "
+		+ "LEFT JOIN MonthlyIdentityStats m"
+		+ " ON m.project = d.project"
+		+ " AND m.year = d.year"
+		+ " AND m.month = d.month"
+		+ " AND m.identity = d.identity";
+
+	private static final String DELETE_MONTHLY_IDENTITY_STATS =
+		"DELETE FROM MonthlyIdentityStats WHERE project = ?";
+
+	private static final String DELETE_MONTHLY_STATS_STATE =
+		"DELETE FROM MonthlyStatsState WHERE project = ?";
+
+	static final String SOCIAL_STATS_INCREMENT =
+		"UPDATE SocialStats SET"
+		+ " quotations = quotations + ?,"
+		+ " patchesReviewed = patchesReviewed + ?,"
+		+ " bugInteractions = bugInteractions + ?,"
+		+ " fileInteractions = fileInteractions + ?,"
+		+ " bugLinkingInteractions = bugLinkingInteractions + ?,"
+		+ " pushed = pushed + ?,"
+		+ " bugsClosed = bugsClosed + ? "
+		+ "WHERE"
+		+ " src = ?"
+		+ " AND dest = ?";
+
 	private static final String INTERACTION_INSERTION =
 		"INSERT INTO Interactions"
 		+ "(start, end, quotes, pos, neg, date, closed)"
@@ -2093,27 +2632,32 @@ public class Model {
 		+ "(project, name)"
 		+ "VALUES (?, ?)";
 
+	private static final String SOURCE_MINING_STATE_UPDATE =
+		"INSERT OR REPLACE INTO SourceMiningStates "
+		+ "(project, ref, revision)"
+		+ "VALUES (?,?,?)";
+
 	private static final String FILE_INSERTION =
 		"INSERT INTO Files "
 		+ "(project, name, linesAdded)"
 		+ "VALUES (?,?,?)";
 	
-	private static final String FILE_RENAME_INSERTION =
+	static final String FILE_RENAME_INSERTION =
 		"INSERT INTO FileRenames"
 		+ "(file, commitId, oldName)"
 		+ "VALUES (?,?,?)";
 
-	private static final String FILE_CHANGE_INSERTION =
+	static final String FILE_CHANGE_INSERTION =
 		"INSERT INTO FileChanges"
 		+ "(commitId, file, linesAdded, linesRemoved, emptyLinesAdded, emptyLinesRemoved, chunksChanged)"
 		+ "VALUES (?,?,?,?,?,?,?)";
 
-	private static final String FILE_DELETION_INSERTION =
+	static final String FILE_DELETION_INSERTION =
 		"INSERT INTO FileDeletion"
 		+ "(fileId, commitId)"
 		+ "VALUES (?,?)";
 
-	private static final String FILE_COPY_INSERTION =
+	static final String FILE_COPY_INSERTION =
 		"INSERT INTO FileCopy"
 		+ "(fileId, commitId, originalFileId)"
 		+ "VALUES (?,?,?)";
@@ -2212,7 +2756,10 @@ public class Model {
 	private static final String UPDATE_DEFAULT_STATUS =
 		"UPDATE Projects SET defaultStatusId = ? WHERE id = ?";
 
-	private static final String UPDATE_FILE_NAME =
+	private static final String IDENTITY_USER_UPDATE =
+		"UPDATE Identities SET user = ? WHERE id = ?";
+
+	static final String UPDATE_FILE_NAME =
 		"UPDATE Files SET name = ? WHERE id = ?";
 
 	
@@ -2273,6 +2820,9 @@ public class Model {
 	private boolean printTemplates = false;
 	private ModelPool pool;
 	private Connection conn;
+	private StatementCache stmts;
+	private boolean readOnly = false;
+	private int txDimensionGeneration = 0;
 
 	
 	//
@@ -2284,8 +2834,45 @@ public class Model {
 		
 		this.pool = pool;
 		this.conn = conn;
+		this.stmts = new StatementCache (conn);
+
+		initConnection (conn, extensions, true);
+	}
+
+	/**
+	 * Used by ModelPool for connections that already
+	 * passed initConnection (). The statement cache
+	 * belongs to the connection and outlives the model.
+	 */
+	Model (ModelPool pool, Connection conn, StatementCache stmts) {
+		this (pool, conn, stmts, false);
+	}
+
+	Model (ModelPool pool, Connection conn, StatementCache stmts, boolean readOnly) {
+		assert (conn != null);
+		assert (stmts != null);
+
+		this.pool = pool;
+		this.conn = conn;
+		this.stmts = stmts;
+		this.readOnly = readOnly;
+	}
+
+	static void initConnection (Connection conn, String[] extensions, boolean createSchema) throws SQLException {
+		assert (conn != null);
+		assert (extensions != null);
+
+		if (createSchema) {
+			createTables (conn);
+		}
 
-		createTables ();
+		// Temporary tables are bound to their connection:
+		Statement tmpStmt = conn.createStatement ();
+		try {
+			tmpStmt.executeUpdate (SELECTED_USER_TABLE);
+		} finally {
+			tmpStmt.close ();
+		}
 
 		// Load drivers:
 		PreparedStatement stmt = conn.prepareStatement (LOAD_EXTENSION);
@@ -2314,28 +2901,116 @@ public class Model {
 	public synchronized boolean close () {
 		try {
 			if (conn != null) {
-				pool.pushConnection (conn);
+				if (readOnly) {
+					pool.pushReadOnlyConnection (conn, stmts);
+				} else {
+					pool.pushConnection (conn, stmts);
+				}
 				this.conn = null;
+				this.stmts = null;
 			}
 			return true;
 		} catch (SQLException e) {
 			this.conn = null;
+			this.stmts = null;
 			return false;
 		}
 	}
 
+	/**
+	 * True for models created by ModelPool.getReadOnlyModel ().
+	 */
+	public boolean isReadOnly () {
+		return readOnly;
+	}
+
+	ModelPool getPool () {
+		return pool;
+	}
+
+	StatementCache getStatementCache () {
+		return stmts;
+	}
+
+	public int getStatementCacheHits () {
+		return stmts.getHits ();
+	}
+
+	public int getStatementCacheMisses () {
+		return stmts.getMisses ();
+	}
+
+	public int getStatementCacheEvictions () {
+		return stmts.getEvictions ();
+	}
+
+	/**
+	 * Returns the detail column of EXPLAIN QUERY PLAN for sql.
+	 * All parameters are bound to NULL.
+	 */
+	synchronized List<String> explainQueryPlan (String sql) throws SQLException {
+		return explainQueryPlan (conn, sql);
+	}
+
+	static List<String> explainQueryPlan (Connection conn, String sql) throws SQLException {
+		assert (conn != null);
+		assert (sql != null);
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			stmt = conn.prepareStatement ("EXPLAIN QUERY PLAN " + sql);
+			int params = stmt.getParameterMetaData ().getParameterCount ();
+			for (int i = 1; i <= params; i++) {
+				stmt.setNull (i, Types.NULL);
+			}
+
+			List<String> plan = new LinkedList<String> ();
+			res = stmt.executeQuery ();
+			int detailColumn = res.getMetaData ().getColumnCount ();
+			while (res.next ()) {
+				plan.add (res.getString (detailColumn));
+			}
+
+			return plan;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmt.close ();
+			}
+		}
+	}
+
 	public synchronized void begin () throws SQLException {
 		conn.setAutoCommit (false);
+		txDimensionGeneration = pool.getDimensionCache ().getGeneration ();
 	}
 
 	public synchronized void commit () throws SQLException {
 		conn.commit ();
 		conn.setAutoCommit (true);
+		invalidateTransactionDimensions ();
 	}
 
 	public synchronized void rollback () throws SQLException {
 		conn.rollback ();
 		conn.setAutoCommit (true);
+		invalidateTransactionDimensions ();
+
+		// Ids of discarded rows can be handed out again:
+		pool.clearIdentityTables ();
+	}
+
+	// Other connections may have cached dimensions between an
+	// add and its commit, without seeing the uncommitted rows.
+	private void invalidateTransactionDimensions () {
+		ProjectDimensionCache dimensions = pool.getDimensionCache ();
+		if (dimensions.getGeneration () != txDimensionGeneration) {
+			dimensions.invalidateAll ();
+		}
 	}
 
 
@@ -2352,7 +3027,7 @@ public class Model {
 		ResultSet res = null;
 
 		try {
-			stmt = conn.prepareStatement (SELECT_COUNTS);
+			stmt = stmts.prepare (SELECT_COUNTS);
 			stmt.setInt (1, proj.getId ());
 			stmt.setInt (2, proj.getId ());
 			
@@ -2368,7 +3043,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2384,7 +3059,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (OBSOLETE_ATTACHMENT_INSERTION);
+			stmt = stmts.prepare (OBSOLETE_ATTACHMENT_INSERTION);
 			stmt.setInt (1, attachment.getId ());
 			stmt.setInt (2, identity.getId ());
 			resSetDate (stmt, 3, date);
@@ -2395,7 +3070,7 @@ public class Model {
 			pool.emitAttachmentIsObsoleteAdded (attachment, identity, date, oldValue, newValue);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2424,7 +3099,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_DETAIL_INSERTION);
+			stmt = stmts.prepare (ATTACHMENT_DETAIL_INSERTION);
 			stmt.setInt (1, ad.getAttachment ().getId ());
 			stmt.setBytes (2, ad.getData ());
 			resSetDate (stmt, 3, ad.getCreationTime ());
@@ -2441,7 +3116,7 @@ public class Model {
 			pool.emitAttachmentDetailsAdded (ad);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2455,14 +3130,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (PROJECT_FLAG_INSERTION);
+			stmt = stmts.prepare (PROJECT_FLAG_INSERTION);
 			
 			stmt.setInt (1, proj.getId ());
 			stmt.setString (2, flag);
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2477,7 +3152,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_FLAGS);
+			stmt = stmts.prepare (SELECT_ALL_FLAGS);
 			stmt.setInt (1, proj.getId ());
 			
 			// Collect data:
@@ -2494,7 +3169,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2513,14 +3188,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (UPDATE_DEFAULT_STATUS);
+			stmt = stmts.prepare (UPDATE_DEFAULT_STATUS);
 			
 			stmt.setInt (1, status.getId ());
 			stmt.setInt (2, status.getProject ().getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2533,8 +3208,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (PROJECT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (PROJECT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			resSetDate (stmt, 1, project.getDate ());
 			stmt.setString (2, project.getDomain ());
@@ -2549,7 +3223,7 @@ public class Model {
 			pool.emitProjectAdded (project);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2562,7 +3236,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (PROJECT_UPDATE);
+			stmt = stmts.prepare (PROJECT_UPDATE);
 			resSetDate (stmt, 1, project.getDate ());
 			stmt.setString (2, project.getDomain ());
 			stmt.setString (3, project.getProduct ());
@@ -2575,7 +3249,7 @@ public class Model {
 			pool.emitProjectUpdated (project);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2589,7 +3263,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_DETAIL_UPDATE);
+			stmt = stmts.prepare (ATTACHMENT_DETAIL_UPDATE);
 			stmt.setBytes (1, ad.getData ());
 			resSetDate (stmt, 2, ad.getCreationTime ());
 			resSetDate (stmt, 3, ad.getLastChangeTime ());
@@ -2606,7 +3280,7 @@ public class Model {
 			pool.emitAttachmentDetailsUpdated (ad);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2618,6 +3292,12 @@ public class Model {
 	}
 
 	public void add (User user) throws SQLException {
+		insert (user);
+		pool.emitUserAdded (user);
+	}
+
+	// Does not notify listeners, see ModelBatchWriter:
+	void insert (User user) throws SQLException {
 		assert (conn != null);
 		assert (user != null);
 		Project project = user.getProject ();
@@ -2627,19 +3307,17 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (USER_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (USER_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString (2, user.getName ());
 			stmt.executeUpdate();
 			
 			user.setId (getLastInsertedId (stmt));
-			
-			pool.emitUserAdded (user);
+			pool.getIdentityTable (project).intern (user);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2651,14 +3329,15 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_USERS,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (DELETE_USERS, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.executeUpdate();
+
+			pool.getIdentityTable (project).clear ();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2672,16 +3351,19 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (
-					"UPDATE Identities SET user = ? WHERE id = ?",
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (IDENTITY_USER_UPDATE);
 			
 			stmt.setInt (1, user.getId ());
 			stmt.setInt (2, id.getId ());
 			stmt.executeUpdate();
+
+			Identity interned = pool.getIdentityTable (user.getProject ()).getIdentity (id.getId ());
+			if (interned != null && interned != id) {
+				interned.setUser (user);
+			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2693,6 +3375,12 @@ public class Model {
 	}
 
 	public void add (Identity identity) throws SQLException {
+		insert (identity);
+		pool.emitIdentityAdded (identity);
+	}
+
+	// Does not notify listeners, see ModelBatchWriter:
+	void insert (Identity identity) throws SQLException {
 		assert (conn != null);
 		assert (identity != null);
 		assert (identity.getUser ().getId () != null);
@@ -2701,8 +3389,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (IDENTITY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (IDENTITY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setString (1, identity.getMail ());
 			stmt.setString (2, identity.getName ());
@@ -2716,42 +3403,157 @@ public class Model {
 			stmt.executeUpdate();
 			
 			identity.setId (getLastInsertedId (stmt));
-			
-			pool.emitIdentityAdded (identity);
+			pool.getIdentityTable (identity.getUser ().getProject ()).intern (identity);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 	
-	public void addSocialStats (Identity src, Identity dest, int quotations, int patchesReviewed, int bugInteractions, int fileInteractions, int bugLinkingInteractions, int pushed, int bugsClosed) throws SQLException {
-		assert (src != null && src.getId () != null);
-		assert (dest != null && dest.getId () != null);
-		assert (quotations >= 0);
-		assert (patchesReviewed >= 0);
-		assert (bugInteractions >= 0);
-		assert (fileInteractions >= 0);
-		assert (bugLinkingInteractions >= 0);
-		assert (bugsClosed >= 0);
-		assert (src.equals (dest) == false);
+	/**
+	 * Adds commits, bugs, comments and bug history rows inserted since
+	 * the last refresh to MonthlyIdentityStats. Call it after mining, the
+	 * aggregates are not updated on insertion. Returns the number of
+	 * updated (project, month, user) rows.
+	 */
+	public synchronized int refreshMonthlyStats (Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		boolean autoCommit = conn.getAutoCommit ();
+		conn.setAutoCommit (false);
 
 		PreparedStatement stmt = null;
+		ResultSet res = null;
 
 		try {
-			stmt = conn.prepareStatement (INSERT_OR_REPLACE_SOCIAL_STATS);
-			stmt.setInt (1, src.getId ());
-			stmt.setInt (2, dest.getId ());
-			
-			stmt.setInt (3, src.getId ());
-			stmt.setInt (4, dest.getId ());
-			stmt.setInt (5, quotations);
-			
-			stmt.setInt (6, src.getId ());
-			stmt.setInt (7, dest.getId ());
-			stmt.setInt (8, patchesReviewed);
-			
-			stmt.setInt (9, src.getId ());
+			// Already aggregated:
+			long[] last = new long[4];
+			stmt = stmts.prepare (SELECT_MONTHLY_STATS_STATE);
+			stmt.setInt (1, proj.getId ());
+			res = stmt.executeQuery ();
+			if (res.next ()) {
+				for (int i = 0; i < last.length; i++) {
+					last[i] = res.getLong (i + 1);
+				}
+			}
+			res.close ();
+			res = null;
+			stmts.release (stmt);
+			stmt = null;
+
+			// Current state, max(id) is a rowid lookup:
+			long[] current = new long[4];
+			stmt = stmts.prepare (SELECT_MONTHLY_STATS_SOURCE_IDS);
+			res = stmt.executeQuery ();
+			if (res.next ()) {
+				for (int i = 0; i < current.length; i++) {
+					current[i] = res.getLong (i + 1);
+				}
+			}
+			res.close ();
+			res = null;
+			stmts.release (stmt);
+			stmt = null;
+
+			stmt = stmts.prepare (MONTHLY_STATS_INCREMENT);
+			int param = 1;
+			for (int i = 0; i < last.length; i++) {
+				stmt.setInt (param++, proj.getId ());
+				stmt.setLong (param++, last[i]);
+				stmt.setLong (param++, current[i]);
+			}
+			int updated = stmt.executeUpdate ();
+			stmts.release (stmt);
+			stmt = null;
+
+			stmt = stmts.prepare (MONTHLY_STATS_STATE_UPDATE);
+			stmt.setInt (1, proj.getId ());
+			for (int i = 0; i < current.length; i++) {
+				stmt.setLong (i + 2, Math.max (last[i], current[i]));
+			}
+			stmt.executeUpdate ();
+
+			if (autoCommit) {
+				conn.commit ();
+			}
+
+			return updated;
+		} catch (SQLException e) {
+			if (autoCommit) {
+				conn.rollback ();
+			}
+			throw e;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+			conn.setAutoCommit (autoCommit);
+		}
+	}
+
+	/**
+	 * Drops the monthly aggregates of proj and recomputes them,
+	 * needed after rows were deleted or dates changed.
+	 */
+	public synchronized int rebuildMonthlyStats (Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		PreparedStatement stmt = null;
+
+		try {
+			stmt = stmts.prepare (DELETE_MONTHLY_IDENTITY_STATS);
+			stmt.setInt (1, proj.getId ());
+			stmt.executeUpdate ();
+			stmts.release (stmt);
+			stmt = null;
+
+			stmt = stmts.prepare (DELETE_MONTHLY_STATS_STATE);
+			stmt.setInt (1, proj.getId ());
+			stmt.executeUpdate ();
+		} finally {
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+
+		return refreshMonthlyStats (proj);
+	}
+
+	public void addSocialStats (Identity src, Identity dest, int quotations, int patchesReviewed, int bugInteractions, int fileInteractions, int bugLinkingInteractions, int pushed, int bugsClosed) throws SQLException {
+		assert (src != null && src.getId () != null);
+		assert (dest != null && dest.getId () != null);
+		assert (quotations >= 0);
+		assert (patchesReviewed >= 0);
+		assert (bugInteractions >= 0);
+		assert (fileInteractions >= 0);
+		assert (bugLinkingInteractions >= 0);
+		assert (bugsClosed >= 0);
+		assert (src.equals (dest) == false);
+
+		PreparedStatement stmt = null;
+
+		try {
+			stmt = stmts.prepare (INSERT_OR_REPLACE_SOCIAL_STATS);
+			stmt.setInt (1, src.getId ());
+			stmt.setInt (2, dest.getId ());
+			
+			stmt.setInt (3, src.getId ());
+			stmt.setInt (4, dest.getId ());
+			stmt.setInt (5, quotations);
+			
+			stmt.setInt (6, src.getId ());
+			stmt.setInt (7, dest.getId ());
+			stmt.setInt (8, patchesReviewed);
+			
+			stmt.setInt (9, src.getId ());
 			stmt.setInt (10, dest.getId ());
 			stmt.setInt (11, bugInteractions);
 			
@@ -2775,7 +3577,7 @@ public class Model {
 			pool.emitSocialStatsAdded (src, dest, quotations, patchesReviewed, bugInteractions, fileInteractions, bugLinkingInteractions, pushed);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2795,8 +3597,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (INTERACTION_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (INTERACTION_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, relation.getFrom ().getId ());
 			stmt.setInt (2, relation.getTo ().getId ());
@@ -2812,7 +3613,7 @@ public class Model {
 			pool.emitInteraction (relation);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2833,8 +3634,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (SEVERITY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (SEVERITY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, severity.getName ());
@@ -2845,7 +3645,7 @@ public class Model {
 			pool.emitSeverityAdded (severity);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2859,7 +3659,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DUPLICATION_COMMENT_INSERTION);
+			stmt = stmts.prepare (BUG_DUPLICATION_COMMENT_INSERTION);
 			stmt.setInt (1, comment.getId ());
 			stmt.setInt (2, identifier);		
 			stmt.executeUpdate();
@@ -2867,7 +3667,7 @@ public class Model {
 			pool.emitBugDuplicationCommentAdded (comment, identifier);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2882,7 +3682,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_ATTACHMENT_REVIEW_COMMENT_INSERTION);
+			stmt = stmts.prepare (BUG_ATTACHMENT_REVIEW_COMMENT_INSERTION);
 			stmt.setInt (1, comment.getId ());
 			stmt.setInt (2, attachment.getId ());
 			stmt.executeUpdate();
@@ -2890,7 +3690,7 @@ public class Model {
 			pool.emitBugAttachmentReviewCommentAdded (comment, attachment);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2911,8 +3711,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_CLASS_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_CLASS_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, bc.getName ());
@@ -2923,7 +3722,7 @@ public class Model {
 			pool.emitBugClassAdded (bc);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2944,8 +3743,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_FLAG_STATUS_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_FLAG_STATUS_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, status.getName ());
@@ -2956,7 +3754,7 @@ public class Model {
 			pool.emitBugFlagStatusAdded (status);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -2977,8 +3775,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_FLAG_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_FLAG_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, flag.getIdentifier ());
@@ -2991,7 +3788,7 @@ public class Model {
 			pool.emitBugFlagAdded (flag);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3028,7 +3825,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_FLAG_ASSIGNMENT_INSERTION);
+			stmt = stmts.prepare (BUG_FLAG_ASSIGNMENT_INSERTION);
 			
 			for (BugFlagAssignment flag : flags) {
 				assert (flag != null);
@@ -3055,7 +3852,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3068,13 +3865,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_FLAG_ASSIGNMENTS);
+			stmt = stmts.prepare (DELETE_BUG_FLAG_ASSIGNMENTS);
 			
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3110,7 +3907,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_ATTACHMENT_FLAG_ASSIGNMENT_INSERTION);
+			stmt = stmts.prepare (BUG_ATTACHMENT_FLAG_ASSIGNMENT_INSERTION);
 			
 			for (BugFlagAssignment flag : flags) {
 				assert (flag != null);
@@ -3137,7 +3934,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3150,13 +3947,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_ATTACHMENT_FLAG_ASSIGNMENTS);
+			stmt = stmts.prepare (DELETE_BUG_ATTACHMENT_FLAG_ASSIGNMENTS);
 			
 			stmt.setInt (1, attachment.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}	
@@ -3177,8 +3974,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (RESOLUTION_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (RESOLUTION_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, resolution.getName ());
@@ -3189,7 +3985,7 @@ public class Model {
 			pool.emitResolutionAdded (resolution);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3210,8 +4006,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (PLATFORM_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (PLATFORM_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, pf.getName ());
@@ -3222,7 +4017,7 @@ public class Model {
 			pool.emitPlatformAdded (pf);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3243,8 +4038,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (OPERATING_SYSTEM_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (OPERATING_SYSTEM_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, os.getName ());
@@ -3255,7 +4049,7 @@ public class Model {
 			pool.emitOperatingSystemAdded (os);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3276,8 +4070,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (KEYWORD_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (KEYWORD_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, keyword.getName ());
@@ -3288,7 +4081,7 @@ public class Model {
 			pool.emitKeywordAdded (keyword);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3309,8 +4102,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (PRIORITY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (PRIORITY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, priority.getName ());
@@ -3321,7 +4113,7 @@ public class Model {
 			pool.emitPriorityAdded (priority);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3341,8 +4133,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (CATEGORY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (CATEGORY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setString(1, category.getName ());
 			stmt.setInt (2, category.getDictionary ().getId ());
@@ -3353,7 +4144,7 @@ public class Model {
 			pool.emitCategoryAdded (category);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3367,8 +4158,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_CATEGORY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_CATEGORY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, category.getId ());
@@ -3377,7 +4167,7 @@ public class Model {
 			pool.emitBugCategoryAdded (bug, category);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3391,8 +4181,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (COMMIT_CATEGORY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (COMMIT_CATEGORY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, commit.getId ());
 			stmt.setInt (2, category.getId ());
@@ -3400,7 +4189,7 @@ public class Model {
 			pool.emitCommitCategoryAdded (commit, category);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3421,8 +4210,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (COMPONENT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (COMPONENT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, component.getName ());
@@ -3433,7 +4221,7 @@ public class Model {
 			pool.emitComponentAdded (component);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3454,8 +4242,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (VERSION_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (VERSION_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, version.getName ());
@@ -3466,7 +4253,7 @@ public class Model {
 			pool.emitVersionAdded (version);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3487,8 +4274,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_GROUP_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_GROUP_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, grp.getName ());
@@ -3499,7 +4285,7 @@ public class Model {
 			pool.emitBugGroupAdded (grp);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3520,8 +4306,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (MILESTONE_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (MILESTONE_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, ms.getName ());
@@ -3532,7 +4317,7 @@ public class Model {
 			pool.emitMilestoneAdded (ms);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3554,8 +4339,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (ATTACHMENT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, attachment.getIdentifier ());
 			stmt.setInt (2, attachment.getComment ().getId ());
@@ -3566,7 +4350,7 @@ public class Model {
 			pool.emitAttachmentAdded (attachment);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3582,7 +4366,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_UPDATE);
+			stmt = stmts.prepare (ATTACHMENT_UPDATE);
 			stmt.setInt (1, attachment.getIdentifier ());
 			stmt.setInt (2, attachment.getComment ().getId ());
 			stmt.setInt (3, attachment.getId ());
@@ -3591,7 +4375,7 @@ public class Model {
 			pool.emitAttachmentUpdated (attachment);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3617,8 +4401,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_STATUS_HISTORY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (ATTACHMENT_STATUS_HISTORY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			
 			stmt.setInt (1, history.getAttachment ().getId ());
 			stmt.setInt (2, history.getIdentity ().getId ());
@@ -3632,7 +4415,7 @@ public class Model {
 			pool.emitAttachmentStatusHistoryAdded (history);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3675,8 +4458,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, bug.getIdentifier ());
 			if (bug.getIdentity () != null) {
@@ -3709,7 +4491,7 @@ public class Model {
 			pool.emitBugAdded (bug);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3732,15 +4514,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DEADLINE_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_DEADLINE_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, bug.getId ());
 			resSetDate (stmt, 2, deadline);
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3754,7 +4535,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_GROUP_MEMBERSHIP_INSERTION);
+			stmt = stmts.prepare (BUG_GROUP_MEMBERSHIP_INSERTION);
 	
 			for (BugGroup grp : groups) {
 				assert (grp != null);
@@ -3766,7 +4547,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3779,13 +4560,13 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_GROUP_MEMBERSHIPS);
+			stmt = stmts.prepare (DELETE_BUG_GROUP_MEMBERSHIPS);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3822,7 +4603,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_SEE_ALSO_INSERTION);
+			stmt = stmts.prepare (BUG_SEE_ALSO_INSERTION);
 	
 			for (String link : links) {
 				assert (link != null);
@@ -3833,7 +4614,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3846,13 +4627,13 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_SEE_ALSO);
+			stmt = stmts.prepare (DELETE_BUG_SEE_ALSO);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3889,7 +4670,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_CC_INSERTION);
+			stmt = stmts.prepare (BUG_CC_INSERTION);
 	
 			for (Identity id : identities) {
 				assert (id != null);
@@ -3901,7 +4682,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3914,13 +4695,13 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_CC);
+			stmt = stmts.prepare (DELETE_BUG_CC);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3957,7 +4738,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_KEYWORD_INSERTION);
+			stmt = stmts.prepare (BUG_KEYWORD_INSERTION);
 	
 			for (Keyword kw : keywords) {
 				assert (kw != null);
@@ -3969,7 +4750,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -3982,13 +4763,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_KEYWORDS);
+			stmt = stmts.prepare (DELETE_BUG_KEYWORDS);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4025,7 +4806,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DEPENDS_ON_INSERTION);
+			stmt = stmts.prepare (BUG_DEPENDS_ON_INSERTION);
 	
 			for (Integer id : dependsOn) {
 				stmt.setInt (1, bug.getId ());
@@ -4034,7 +4815,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4047,13 +4828,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_DEPENDS_ON);
+			stmt = stmts.prepare (DELETE_BUG_DEPENDS_ON);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4090,15 +4871,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DUPLICATION_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_DUPLICATION_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, duplication);
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4111,14 +4891,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_DUPLICATIONS,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (DELETE_BUG_DUPLICATIONS, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4153,14 +4932,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_DEADLINE,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (DELETE_BUG_DEADLINE, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4187,7 +4965,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_BLOCKS_INSERTION);
+			stmt = stmts.prepare (BUG_BLOCKS_INSERTION);
 	
 			for (Integer id : blocks) {
 				stmt.setInt (1, bug.getId ());
@@ -4196,7 +4974,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4209,13 +4987,13 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_BLOCKS);
+			stmt = stmts.prepare (DELETE_BUG_BLOCKS);
 	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4273,7 +5051,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_UPDATE);
+			stmt = stmts.prepare (BUG_UPDATE);
 			stmt.setInt (1, bug.getIdentifier ());
 			if (bug.getIdentity () != null) {
 				stmt.setInt (2, bug.getIdentity ().getId ());
@@ -4303,7 +5081,7 @@ public class Model {
 			pool.emitBugUpdated (bug);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4341,12 +5119,12 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUG_QA_CONTACTS);	
+			stmt = stmts.prepare (DELETE_BUG_QA_CONTACTS);	
 			stmt.setInt (1, bug.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4362,7 +5140,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_QA_CONTACT_INSERTION);
+			stmt = stmts.prepare (BUG_QA_CONTACT_INSERTION);
 	
 			stmt.setInt (1, bug.getId ());
 			if (identity != null) {
@@ -4380,7 +5158,7 @@ public class Model {
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4396,7 +5174,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_ALIAS_INSERTION);
+			stmt = stmts.prepare (BUG_ALIAS_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4407,7 +5185,7 @@ public class Model {
 			pool.emitBugAliasAdded (bug, addedBy, date, alias);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4426,7 +5204,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (PRIORITY_HISTORY_INSERTION);
+			stmt = stmts.prepare (PRIORITY_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4438,7 +5216,7 @@ public class Model {
 			pool.emitPriorityHistoryAdded (bug, addedBy, date, oldPriority, newPriority);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4457,7 +5235,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (ASSIGNED_TO_HISTORY_INSERTION);
+			stmt = stmts.prepare (ASSIGNED_TO_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4491,7 +5269,7 @@ public class Model {
 			pool.emitAssignedToHistoryAdded (bug, addedBy, date, identifierAdded, groupAdded, identityAdded, identifierRemoved, groupRemoved, identityAdded);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}	
@@ -4510,7 +5288,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (QA_CONTACT_HISTORY_INSERTION);
+			stmt = stmts.prepare (QA_CONTACT_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4544,7 +5322,7 @@ public class Model {
 			pool.emitQaContactHistoryAdded (bug, addedBy, date, identifierAdded, groupAdded, identityAdded, identifierRemoved, groupRemoved, identityAdded);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}	
@@ -4563,7 +5341,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (VERSION_HISTORY_INSERTION);
+			stmt = stmts.prepare (VERSION_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4574,7 +5352,7 @@ public class Model {
 			pool.emitVersionHistoryAdded (bug, addedBy, date, oldVersion, newVersion);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4593,7 +5371,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (MILESTONE_HISTORY_INSERTION);
+			stmt = stmts.prepare (MILESTONE_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4605,7 +5383,7 @@ public class Model {
 			pool.emitMilestoneHistoryAdded (bug, addedBy, date, oldMilestone, newMilestone);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4622,7 +5400,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (RESOLUTION_HISTORY_INSERTION);
+			stmt = stmts.prepare (RESOLUTION_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4633,7 +5411,7 @@ public class Model {
 			pool.emitResolutionHistoryAdded (bug, addedBy, date, resolution);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4648,7 +5426,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (CONFIRMED_HISTORY_INSERTION);
+			stmt = stmts.prepare (CONFIRMED_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4658,7 +5436,7 @@ public class Model {
 			pool.emitConfirmedHistoryAdded (bug, addedBy, date, removed);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4677,7 +5455,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (SEVERITY_HISTORY_INSERTION);
+			stmt = stmts.prepare (SEVERITY_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4688,7 +5466,7 @@ public class Model {
 			pool.emitSeverityHistoryAdded (bug, addedBy, date, oldSeverity, newSeverity);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4707,7 +5485,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (OPERATING_SYSTEM_HISTORY_INSERTION);
+			stmt = stmts.prepare (OPERATING_SYSTEM_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4718,7 +5496,7 @@ public class Model {
 			pool.emitOperatingSystemHistoryAdded (bug, addedBy, date, oldOs, newOs);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4735,7 +5513,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (KEYWORD_HISTORY_INSERTION);
+			stmt = stmts.prepare (KEYWORD_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4746,7 +5524,7 @@ public class Model {
 			pool.emitKeywordHistoryAdded (bug, addedBy, date, keyword, removed);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4765,7 +5543,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (STATUS_HISTORY_INSERTION);
+			stmt = stmts.prepare (STATUS_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, addedBy.getId ());
 			resSetDate (stmt, 3, date);
@@ -4776,7 +5554,7 @@ public class Model {
 			pool.emitStatusHistoryAdded (bug, addedBy, date, oldStatus, newStatus);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4796,8 +5574,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (DICTIONARY_INSERT,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (DICTIONARY_INSERT, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setString (1, dict.getName ());
 			stmt.setInt (2, dict.getProject ().getId ());
@@ -4809,7 +5586,7 @@ public class Model {
 			pool.emitDictionaryAdded (dict);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4830,8 +5607,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_HISTORY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_HISTORY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, history.getBug ().getId ());
 			stmt.setInt (2, history.getIdentity ().getId ());
@@ -4846,7 +5622,7 @@ public class Model {
 			pool.emitBugHistoryAdded (history);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4863,8 +5639,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_HISTORY_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (ATTACHMENT_HISTORY_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, attachment.getId ());
 			stmt.setInt (2, identity.getId ());
@@ -4877,7 +5652,7 @@ public class Model {
 			pool.emitAttachmentHistoryAdded (attachment, identity, date, fieldName, oldValue, newValue);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4895,7 +5670,7 @@ public class Model {
 		PreparedStatement stmt = null;
 		
 		try {
-			stmt = conn.prepareStatement (BUG_CC_HISTORY_INSERTION);
+			stmt = stmts.prepare (BUG_CC_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			resSetDate (stmt, 2, date);
 			stmt.setInt (3, addedBy.getId ());
@@ -4911,7 +5686,7 @@ public class Model {
 			pool.emitBugCcHistoryAdded (bug, date, addedBy, cc, ccMail, removed);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4929,7 +5704,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_BLOCKS_HISTORY_INSERTION);
+			stmt = stmts.prepare (BUG_BLOCKS_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			resSetDate (stmt, 2, date);
 			stmt.setInt (3, addedBy.getId ());
@@ -4945,7 +5720,7 @@ public class Model {
 			pool.emitBugBlocksAdded (bug, date, addedBy, removed);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4962,7 +5737,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DEPENDENCY_HISTORY_INSERTION);
+			stmt = stmts.prepare (BUG_DEPENDENCY_HISTORY_INSERTION);
 			stmt.setInt (1, bug.getId ());
 			resSetDate (stmt, 2, date);
 			stmt.setInt (3, addedBy.getId ());
@@ -4978,7 +5753,7 @@ public class Model {
 			pool.emitBugBlocksAdded (bug, date, addedBy, removed);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -4991,14 +5766,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_BLOCKS_HISTORY_RESOLVE_BUGS);
+			stmt = stmts.prepare (BUG_BLOCKS_HISTORY_RESOLVE_BUGS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, project.getId ());
 	
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5011,14 +5786,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DUPLICATION_COMMENT_RESOLVE_BUGS);
+			stmt = stmts.prepare (BUG_DUPLICATION_COMMENT_RESOLVE_BUGS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, project.getId ());
 	
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5031,14 +5806,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_BLOCKS_RESOLVE_BUGS);
+			stmt = stmts.prepare (BUG_BLOCKS_RESOLVE_BUGS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, project.getId ());
 
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5051,14 +5826,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DEPENDS_ON_RESOLVE_BUGS);
+			stmt = stmts.prepare (BUG_DEPENDS_ON_RESOLVE_BUGS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, project.getId ());
 	
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5071,14 +5846,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DUPLICATIONS_RESOLVE_BUGS);
+			stmt = stmts.prepare (BUG_DUPLICATIONS_RESOLVE_BUGS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, project.getId ());
 	
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5091,14 +5866,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_DEPENDENCY_HISTORY_RESOLVE_BUGS);
+			stmt = stmts.prepare (BUG_DEPENDENCY_HISTORY_RESOLVE_BUGS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, project.getId ());
 	
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5117,8 +5892,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (COMMENT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (COMMENT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, cmnt.getBug ().getId ());
 			stmt.setInt (2, cmnt.getIndex ());
@@ -5132,7 +5906,7 @@ public class Model {
 			pool.emitCommentAdded (cmnt);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5153,8 +5927,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (ATTACHMENT_STATUS_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (ATTACHMENT_STATUS_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, status.getName ());
@@ -5165,7 +5938,7 @@ public class Model {
 			pool.emitAttachmentStatusAdded (status);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5186,8 +5959,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (STATUS_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (STATUS_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, project.getId ());
 			stmt.setString(2, status.getName ());
@@ -5198,7 +5970,7 @@ public class Model {
 			pool.emitStatusAdded (status);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5217,6 +5989,12 @@ public class Model {
 	}
 	
 	public void add (Commit commit) throws SQLException {
+		insert (commit);
+		pool.emitCommitAdded (commit);
+	}
+
+	// Does not notify listeners, see ModelBatchWriter:
+	void insert (Commit commit) throws SQLException {
 		assert (conn != null);
 		assert (commit != null);
 		Project project = commit.getProject ();
@@ -5228,8 +6006,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (COMMIT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (COMMIT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 			stmt.setInt (1, project.getId ());
 			stmt.setInt (2, commit.getAuthor ().getId ());
 			stmt.setInt (3, commit.getCommitter ().getId ());
@@ -5242,11 +6019,9 @@ public class Model {
 			stmt.executeUpdate();
 	
 			commit.setId (getLastInsertedId (stmt));
-	
-			pool.emitCommitAdded (commit);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5268,17 +6043,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (FILE_COPY_INSERTION);
-	
-			stmt.setInt (1, copy.getFile ().getId ());
-			stmt.setInt (2, copy.getCommit ().getId ());
-			stmt.setInt (3, copy.getOriginal ().getId ());
+			stmt = stmts.prepare (FILE_COPY_INSERTION);
+			bind (stmt, copy);
 			stmt.executeUpdate();
 	
 			pool.emitManagedFileCopyAdded (copy);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5291,6 +6063,12 @@ public class Model {
 	}
 
 	public void add (ManagedFile file) throws SQLException {
+		insert (file);
+		pool.emitManagedFileAdded (file);
+	}
+
+	// Does not notify listeners, see ModelBatchWriter:
+	void insert (ManagedFile file) throws SQLException {
 		assert (conn != null);
 		assert (file != null);
 		assert (file.getId () == null);
@@ -5302,7 +6080,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (FILE_INSERTION);
+			stmt = stmts.prepare (FILE_INSERTION);
 	
 			stmt.setInt (1, file.getProject ().getId ());
 			stmt.setString (2, file.getName ());
@@ -5310,15 +6088,35 @@ public class Model {
 			stmt.executeUpdate();
 	
 			file.setId (getLastInsertedId (stmt));
-	
-			pool.emitManagedFileAdded (file);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
+
+	public void setLastMinedRevision (Project project, String ref, String revision) throws SQLException {
+		assert (conn != null);
+		assert (project != null);
+		assert (project.getId () != null);
+		assert (ref != null);
+		assert (revision != null);
+
+		PreparedStatement stmt = null;
+
+		try {
+			stmt = stmts.prepare (SOURCE_MINING_STATE_UPDATE);
+			stmt.setInt (1, project.getId ());
+			stmt.setString (2, ref);
+			stmt.setString (3, revision);
+			stmt.executeUpdate ();
+		} finally {
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
 	
 	public FileDeletion addFileDeletion (ManagedFile file, Commit commit) throws SQLException {
 		FileDeletion deletion = new FileDeletion (file, commit);
@@ -5335,16 +6133,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (FILE_DELETION_INSERTION);
-	
-			stmt.setInt (1, deletion.getFile ().getId ());
-			stmt.setInt (2, deletion.getCommit ().getId ());
+			stmt = stmts.prepare (FILE_DELETION_INSERTION);
+			bind (stmt, deletion);
 			stmt.executeUpdate();
 	
 			pool.emitFileDeletionAdded (deletion);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5366,22 +6162,20 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (UPDATE_FILE_NAME);
-			stmt.setString (1, newName);
-			stmt.setInt (2, rename.getFile ().getId ());
+			stmt = stmts.prepare (UPDATE_FILE_NAME);
+			bindFileName (stmt, rename.getFile (), newName);
 			stmt.executeUpdate();
-			stmt.close ();
+			stmts.release (stmt);
+			stmt = null;
 	
-			stmt = conn.prepareStatement (FILE_RENAME_INSERTION);
-			stmt.setInt (1, rename.getFile ().getId ());
-			stmt.setInt (2, rename.getCommit ().getId ());
-			stmt.setString (3, rename.getOldName ());
+			stmt = stmts.prepare (FILE_RENAME_INSERTION);
+			bind (stmt, rename);
 			stmt.executeUpdate();
 	
 			pool.emitFileRenameAdded (rename);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5400,12 +6194,12 @@ public class Model {
 
 		PreparedStatement stmt = null;
 		try {
-			stmt = conn.prepareStatement (CLEAN_FILE_CHANGE_INTERACTIONS);
+			stmt = stmts.prepare (CLEAN_FILE_CHANGE_INTERACTIONS);
 			stmt.setInt (1, project.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5417,12 +6211,12 @@ public class Model {
 
 		PreparedStatement stmt = null;
 		try {
-			stmt = conn.prepareStatement (CLEAN_BUG_INTERLINKING_INTERACTIONS);
+			stmt = stmts.prepare (CLEAN_BUG_INTERLINKING_INTERACTIONS);
 			stmt.setInt (1, project.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5434,12 +6228,12 @@ public class Model {
 
 		PreparedStatement stmt = null;
 		try {
-			stmt = conn.prepareStatement (CLEAN_BUG_CLOSED_INTERACTIONS);
+			stmt = stmts.prepare (CLEAN_BUG_CLOSED_INTERACTIONS);
 			stmt.setInt (1, project.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5453,21 +6247,14 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (FILE_CHANGE_INSERTION);
-	
-			stmt.setInt (1, change.getCommit ().getId ());
-			stmt.setInt (2, change.getFile ().getId ());
-			stmt.setInt (3, change.getLinesAdded ());
-			stmt.setInt (4, change.getLinesRemoved ());
-			stmt.setInt (5, change.getEmptyLinesAdded ());
-			stmt.setInt (6, change.getEmptyLinesRemoved ());
-			stmt.setInt (7, change.getChangedChunks ());
+			stmt = stmts.prepare (FILE_CHANGE_INSERTION);
+			bind (stmt, change);
 			stmt.executeUpdate();
 	
 			pool.emitFileChangeAdded (change);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5482,7 +6269,7 @@ public class Model {
 
 		try {	
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_FILE_CHANGES);
+			stmt = stmts.prepare (SELECT_FILE_CHANGES);
 			stmt.setInt (1, commit.getId ());
 	
 			res = stmt.executeQuery ();
@@ -5515,7 +6302,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5533,7 +6320,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUGFIX_COMMIT_INSERTION);
+			stmt = stmts.prepare (BUGFIX_COMMIT_INSERTION);
 	
 			stmt.setInt (1, bugfix.getBug ().getId ());
 			stmt.setInt (2, bugfix.getCommit ().getId ());
@@ -5542,7 +6329,7 @@ public class Model {
 			pool.emitBugfixCommitAdded (bugfix);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5554,12 +6341,12 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (DELETE_BUGFIX_COMMITS);
+			stmt = stmts.prepare (DELETE_BUGFIX_COMMITS);
 			stmt.setInt (1, project.getId ());
 			stmt.executeUpdate();
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5571,8 +6358,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (SENTIMENT_SENTENCE_INSERTION,
-				Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (SENTIMENT_SENTENCE_INSERTION, Statement.RETURN_GENERATED_KEYS);
 
 			int pos = 0;
 			for (SentenceSentiment sent : sentences) {
@@ -5589,7 +6375,7 @@ public class Model {
 			}
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5602,8 +6388,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (SENTIMENT_BLOCK_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (SENTIMENT_BLOCK_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, parentId);
 			stmt.setInt (2, blockPos);
@@ -5632,12 +6417,13 @@ public class Model {
 			stmt.executeUpdate();
 	
 			int newId = getLastInsertedId (stmt);
-			stmt.close ();
+			stmts.release (stmt);
+			stmt = null;
 	
 			addSentenceSentiments (newId, sentiment.getSentenceSentiments ());
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5648,8 +6434,7 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (SENTIMENT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (SENTIMENT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, sentiment.getNegativeCount ());
 			stmt.setInt (2, sentiment.getSomewhatNegativeCount ());
@@ -5675,7 +6460,8 @@ public class Model {
 	
 			int newId = getLastInsertedId (stmt);
 			sentiment.setId (newId);
-			stmt.close ();
+			stmts.release (stmt);
+			stmt = null;
 	
 			int i = 0;
 			for (SentimentBlock block : sentiment.getBlocks ()) {
@@ -5686,7 +6472,7 @@ public class Model {
 			pool.emitSentimentAdded (sentiment);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5700,18 +6486,18 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (BUG_COMMENT_SENTIMENT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (BUG_COMMENT_SENTIMENT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, sentiment.getId ());
 			stmt.setInt (2, comment.getId ());
 			stmt.executeUpdate();
-			stmt.close ();
+			stmts.release (stmt);
+			stmt = null;
 	
 			pool.emitBugCommentSentimentAdded (comment, sentiment);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5725,18 +6511,18 @@ public class Model {
 		PreparedStatement stmt = null;
 
 		try {
-			stmt = conn.prepareStatement (COMMIT_SENTIMENT_INSERTION,
-					Statement.RETURN_GENERATED_KEYS);
+			stmt = stmts.prepare (COMMIT_SENTIMENT_INSERTION, Statement.RETURN_GENERATED_KEYS);
 	
 			stmt.setInt (1, sentiment.getId ());
 			stmt.setInt (2, commit.getId ());
 			stmt.executeUpdate();
-			stmt.close ();
+			stmts.release (stmt);
+			stmt = null;
 	
 			pool.emitCommitSentimentAdded (commit, sentiment);
 		} finally {
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -5763,6 +6549,11 @@ public class Model {
 
 		// Create the query:
 		PreparedStatement stmt = conn.prepareStatement (query);
+		QueryStats queryStats = pool.getQueryStats ();
+		if (queryStats != null) {
+			stmt = queryStats.wrap (stmt, query, conn);
+		}
+
 		int i = 1;
 
 		for (Query.VariableSegment param : paramOrder) {
@@ -5787,13 +6578,13 @@ public class Model {
 				stmt.setArray(i, arr);
 			} else if (val instanceof Date[]) {
 				Date[] origArr = (Date[]) val;
-				String[] resArr = new String[origArr.length];
+				Long[] resArr = new Long[origArr.length];
 
 				for (int ai = 0; ai < origArr.length ; ai++) {
-					resArr[ai] = dateFormat.format (origArr[ai]);
+					resArr[ai] = encodeDate (origArr[ai]);
 				}
 
-				Array arr = conn.createArrayOf ("TEXT", resArr);
+				Array arr = conn.createArrayOf ("INTEGER", resArr);
 				stmt.setArray(i, arr);
 			} else {
 				throw new SemanticException ("semantic error: Unsupported type " + val.getClass ().getName ()
@@ -5814,6 +6605,11 @@ public class Model {
 
 		// Create the query:
 		PreparedStatement stmt = conn.prepareStatement (query);
+		QueryStats queryStats = pool.getQueryStats ();
+		if (queryStats != null) {
+			stmt = queryStats.wrap (stmt, query, conn);
+		}
+
 		int i = 1;
 
 		for (Query.VariableSegment param : paramOrder) {
@@ -5838,13 +6634,13 @@ public class Model {
 				stmt.setArray(i, arr);
 			} else if (val instanceof Date[]) {
 				Date[] origArr = (Date[]) val;
-				String[] resArr = new String[origArr.length];
+				Long[] resArr = new Long[origArr.length];
 
 				for (int ai = 0; ai < origArr.length ; ai++) {
-					resArr[ai] = dateFormat.format (origArr[ai]);
+					resArr[ai] = encodeDate (origArr[ai]);
 				}
 
-				Array arr = conn.createArrayOf ("TEXT", resArr);
+				Array arr = conn.createArrayOf ("INTEGER", resArr);
 				stmt.setArray(i, arr);
 			} else {
 				throw new SemanticException ("semantic error: Unsupported type " + val.getClass ().getName ()
@@ -5866,7 +6662,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_BUG_STATS);
+			stmt = stmts.prepare (SELECT_BUG_STATS);
 			stmt.setInt (1, identifier);
 			stmt.setInt (2, proj.getId ());
 	
@@ -5875,10 +6671,7 @@ public class Model {
 			if (!res.next ()) {
 				return null;
 			}
-	
-			res.close ();
-			stmt.close ();
-			
+
 			int bugId = res.getInt (1);
 			int cmntCnt = res.getInt (2);
 			int histCnt = res.getInt (3);
@@ -5899,9 +6692,13 @@ public class Model {
 			int assignedToCnt = res.getInt (18);
 			int qaContactCnt = res.getInt (19);
 
+			res.close ();
+			stmts.release (stmt);
+			stmt = null;
+
 	
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ATTACHMENT_STATS);
+			stmt = stmts.prepare (SELECT_ATTACHMENT_STATS);
 			stmt.setInt (1, bugId);
 	
 			// Collect attachment stats:
@@ -5926,7 +6723,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6305,7 +7102,7 @@ public class Model {
 		ResultSet res = null;
 
 		try {
-			stmt = conn.prepareStatement (SELECT_BUG_CLOSED_STATS);
+			stmt = stmts.prepare (SELECT_BUG_CLOSED_STATS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Execution:
@@ -6327,28 +7124,67 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}	
 	
 	public void foreachCommit (Project proj, ObjectCallback<Commit> callback) throws SQLException, Exception {
+		assert (callback != null);
+
+		ModelCursor<Commit> cursor = openCommitCursor (proj, null);
+
+		try {
+			boolean do_next = true;
+			while (do_next && cursor.hasNext ()) {
+				do_next = callback.processResult (cursor.next ());
+			}
+		} catch (ModelCursor.CursorException e) {
+			throw e.getCause ();
+		} finally {
+			cursor.close ();
+		}
+	}
+
+	public void foreachBug (Project proj, ObjectCallback<Bug> callback) throws SQLException, Exception {
+		assert (callback != null);
+
+		ModelCursor<Bug> cursor = openBugCursor (proj, null);
+
+		try {
+			boolean do_next = true;
+			while (do_next && cursor.hasNext ()) {
+				do_next = callback.processResult (cursor.next ());
+			}
+		} catch (ModelCursor.CursorException e) {
+			throw e.getCause ();
+		} finally {
+			cursor.close ();
+		}
+	}
+
+	/**
+	 * Returns a cursor over all commits matching options (may be null),
+	 * ordered by date.
+	 */
+	public ModelCursor<Commit> openCommitCursor (final Project proj, CursorOptions options) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
-		assert (callback != null);
 
-		PreparedStatement stmt = null;
-		ResultSet res = null;
+		PreparedStatement stmt = stmts.prepare (SELECT_ALL_COMMITS);
 
 		try {
-			stmt = conn.prepareStatement (SELECT_ALL_COMMITS);
 			stmt.setInt (1, proj.getId ());
-		
-			// Execution:
-			res = stmt.executeQuery ();
-			boolean do_next = true;
-			while (res.next () && do_next) {
+			bindCursorOptions (stmt, 2, options);
+		} catch (SQLException e) {
+			stmts.release (stmt);
+			throw e;
+		}
+
+		return new ModelCursor<Commit> (stmts, stmt) {
+			@Override
+			Commit fromResult (ResultSet res) throws SQLException {
 				Integer id = res.getInt (1);
 				Date date = resGetDate (res, 2);
 				String title = res.getString (3);
@@ -6358,62 +7194,55 @@ public class Model {
 				Identity author = identityFromResult (res, authorUser, 20, 6, 17, 7, 8);
 				User committerUser = userFromResult (res, proj, 14, 15);
 				Identity committer = identityFromResult (res, committerUser, 21, 11, 18, 12, 13);
-				Integer changedFiles = res.getInt (14);
+				Integer changedFiles = res.getInt (16);
 				String identifier = res.getString (19);
-			
-				Commit commit = new Commit (id, identifier, proj, author, committer, date, title, changedFiles, linesAdded, linesRemoved);
-				do_next = callback.processResult (commit);
-			}
-		
-			res.close ();
-		} finally {
-			if (res != null) {
-				res.close ();
-			}
-			if (stmt != null) {
-				stmt.close ();
+
+				return new Commit (id, identifier, proj, author, committer, date, title, changedFiles, linesAdded, linesRemoved);
 			}
-		}
+		};
 	}
 
-	public void foreachBug (Project proj, ObjectCallback<Bug> callback) throws SQLException, Exception {
+	/**
+	 * Returns a cursor over all bugs matching options (may be null),
+	 * ordered by creation date.
+	 */
+	public ModelCursor<Bug> openBugCursor (Project proj, CursorOptions options) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
-		assert (callback != null);
 
 		// Cache some values:
-		Map<Integer, Severity> severities = getSeverities (proj);
-		//Map<Integer, Status> statuses = getStatuses (proj);
-		Map<Integer, Priority> priorities = getPriorities (proj);
-		Map<Integer, Component> components = getComponents (proj);
-		Map<Integer, Resolution> resolutions = getResolutions (proj);
-		Map<Integer, Version> versions = getVersions (proj);
-		Map<Integer, Milestone> milestones = getMilestones (proj);
-		Map<Integer, Platform> platforms = getPlatforms (proj);
-		Map<Integer, OperatingSystem> operatingSystems = getOperatingSystems (proj);
-		Map<Integer, Status> statuses = getStatuses (proj);
-		Map<Integer, BugClass> classifications = getBugClasses (proj);
-
+		final Map<Integer, Severity> severities = getSeverities (proj);
+		final Map<Integer, Priority> priorities = getPriorities (proj);
+		final Map<Integer, Component> components = getComponents (proj);
+		final Map<Integer, Resolution> resolutions = getResolutions (proj);
+		final Map<Integer, Version> versions = getVersions (proj);
+		final Map<Integer, Milestone> milestones = getMilestones (proj);
+		final Map<Integer, Platform> platforms = getPlatforms (proj);
+		final Map<Integer, OperatingSystem> operatingSystems = getOperatingSystems (proj);
+		final Map<Integer, Status> statuses = getStatuses (proj);
+		final Map<Integer, BugClass> classifications = getBugClasses (proj);
+		final Project project = proj;
 
-		PreparedStatement stmt = null;
-		ResultSet res = null;
+		PreparedStatement stmt = stmts.prepare (SELECT_ALL_BUGS);
 
 		try {
-			stmt = conn.prepareStatement (SELECT_ALL_BUGS);
 			stmt.setInt (1, proj.getId ());
-		
-			// Execution:
-			res = stmt.executeQuery ();
-			boolean do_next = true;
-			while (res.next () && do_next) {
-				User user = null;
+			bindCursorOptions (stmt, 2, options);
+		} catch (SQLException e) {
+			stmts.release (stmt);
+			throw e;
+		}
+
+		return new ModelCursor<Bug> (stmts, stmt) {
+			@Override
+			Bug fromResult (ResultSet res) throws SQLException {
 				Identity identity = null;
-	
+
 				Integer id = res.getInt (1);
 				Integer identifier = res.getInt (2);
 				if (res.getInt (3) != 0) {
-					user = userFromResult (res, proj, 6, 7);
+					User user = userFromResult (res, project, 6, 7);
 					identity = identityFromResult (res, user, 16, 3, 15, 4, 5);
 				}
 				Component component = components.get (res.getInt (8));
@@ -6430,26 +7259,366 @@ public class Model {
 				Status status = statuses.get (res.getInt (14));
 				BugClass classification = classifications.get (res.getInt (23));
 				boolean isOpen = res.getBoolean (24);
-	
-				Bug bug = new Bug (id, identifier, identity, component,
+
+				return new Bug (id, identifier, identity, component,
 					title, creation, lastChange, priority, severity, status, resolution,
 					version, milestone, operatingSystem, platform, classification,
 					isOpen);
-	
-				do_next = callback.processResult (bug);
 			}
-		
-			res.close ();
+		};
+	}
+
+	/**
+	 * Returns the smallest and largest commit id of proj,
+	 * or null if there are no commits.
+	 */
+	public Tuple<Integer, Integer> getCommitIdRange (Project proj) throws SQLException {
+		return getIdRange (SELECT_COMMIT_ID_RANGE, proj);
+	}
+
+	/**
+	 * Returns the smallest and largest bug id of proj,
+	 * or null if there are no bugs.
+	 */
+	public Tuple<Integer, Integer> getBugIdRange (Project proj) throws SQLException {
+		return getIdRange (SELECT_BUG_ID_RANGE, proj);
+	}
+
+	private Tuple<Integer, Integer> getIdRange (String query, Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			stmt = stmts.prepare (query);
+			stmt.setInt (1, proj.getId ());
+
+			res = stmt.executeQuery ();
+			if (res.next () == false) {
+				return null;
+			}
+
+			int min = res.getInt (1);
+			if (res.wasNull ()) {
+				return null;
+			}
+
+			return new Tuple<Integer, Integer> (min, res.getInt (2));
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	private static void bindCursorOptions (PreparedStatement stmt, int index, CursorOptions options) throws SQLException {
+		Long fromDate = null;
+		Long toDate = null;
+		Integer minId = null;
+		Integer maxId = null;
+
+		if (options != null) {
+			fromDate = (options.getFromDate () != null)? encodeDate (options.getFromDate ()) : null;
+			toDate = (options.getToDate () != null)? encodeDate (options.getToDate ()) : null;
+			minId = options.getMinId ();
+			maxId = options.getMaxId ();
+			stmt.setFetchSize (options.getFetchSize ());
+		} else {
+			stmt.setFetchSize (0);
+		}
+
+		Object[] bounds = {fromDate, toDate, minId, maxId};
+		for (Object bound : bounds) {
+			stmt.setObject (index++, bound);
+			stmt.setObject (index++, bound);
+		}
+	}
+
+	/**
+	 * Like foreachCommit (), but also delivers the file changes of each
+	 * commit. Changes are loaded for chunks of commits at once.
+	 */
+	public void foreachCommitWithChanges (Project proj, final CommitCallback callback) throws SQLException, Exception {
+		assert (callback != null);
+
+		final LinkedList<Commit> chunk = new LinkedList<Commit> ();
+
+		foreachCommit (proj, new ObjectCallback<Commit> () {
+			@Override
+			public boolean processResult (Commit commit) throws SQLException, Exception {
+				chunk.add (commit);
+				if (chunk.size () < FOREACH_CHUNK_SIZE) {
+					return true;
+				}
+
+				return processCommitChunk (chunk, callback);
+			}
+		});
+
+		if (chunk.size () > 0) {
+			processCommitChunk (chunk, callback);
+		}
+	}
+
+	/**
+	 * Like foreachBug (), but also delivers the history and the comments
+	 * of each bug. Both are loaded for chunks of bugs at once.
+	 */
+	public void foreachBugWithHistory (final Project proj, final BugCallback callback) throws SQLException, Exception {
+		assert (callback != null);
+
+		final LinkedList<Bug> chunk = new LinkedList<Bug> ();
+
+		foreachBug (proj, new ObjectCallback<Bug> () {
+			@Override
+			public boolean processResult (Bug bug) throws SQLException, Exception {
+				chunk.add (bug);
+				if (chunk.size () < FOREACH_CHUNK_SIZE) {
+					return true;
+				}
+
+				return processBugChunk (proj, chunk, callback);
+			}
+		});
+
+		if (chunk.size () > 0) {
+			processBugChunk (proj, chunk, callback);
+		}
+	}
+
+	private boolean processCommitChunk (List<Commit> chunk, CommitCallback callback) throws SQLException, Exception {
+		try {
+			Map<Integer, List<FileChange>> changes = getFileChanges (chunk);
+
+			for (Commit commit : chunk) {
+				List<FileChange> commitChanges = changes.get (commit.getId ());
+				if (commitChanges == null) {
+					commitChanges = new LinkedList<FileChange> ();
+				}
+
+				if (callback.processResult (commit, commitChanges) == false) {
+					return false;
+				}
+			}
+
+			return true;
+		} finally {
+			chunk.clear ();
+		}
+	}
+
+	private boolean processBugChunk (Project proj, List<Bug> chunk, BugCallback callback) throws SQLException, Exception {
+		try {
+			Map<Integer, List<BugHistory>> history = getBugHistory (proj, chunk);
+			Map<Integer, List<Comment>> comments = getComments (proj, chunk);
+
+			for (Bug bug : chunk) {
+				List<BugHistory> bugHistory = history.get (bug.getId ());
+				if (bugHistory == null) {
+					bugHistory = new LinkedList<BugHistory> ();
+				}
+
+				List<Comment> bugComments = comments.get (bug.getId ());
+				if (bugComments == null) {
+					bugComments = new LinkedList<Comment> ();
+				}
+
+				if (callback.processResult (bug, bugHistory, bugComments) == false) {
+					return false;
+				}
+			}
+
+			return true;
+		} finally {
+			chunk.clear ();
+		}
+	}
+
+	private Map<Integer, List<FileChange>> getFileChanges (List<Commit> chunk) throws SQLException {
+		assert (conn != null);
+		assert (chunk.size () <= FOREACH_CHUNK_SIZE);
+
+		HashMap<Integer, Commit> commits = new HashMap<Integer, Commit> ();
+		for (Commit commit : chunk) {
+			commits.put (commit.getId (), commit);
+		}
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_FILE_CHANGES_CHUNK);
+			bindChunk (stmt, commits.keySet ());
+
+			res = stmt.executeQuery ();
+			HashMap<Integer, List<FileChange>> changes = new HashMap<Integer, List<FileChange>> ();
+			while (res.next ()) {
+				Commit commit = commits.get (res.getInt (13));
+
+				// File:
+				int fileId = res.getInt (6);
+				String fileName = res.getString (8);
+				int fileTouched = res.getInt (9);
+				int fileLinesAdded = res.getInt (10);
+				int fileLinesRemoved = res.getInt (11);
+				int fileChunksChanged = res.getInt (12);
+				ManagedFile file = new ManagedFile (fileId, commit.getProject (), fileName, null, fileTouched, fileLinesAdded, fileLinesRemoved, fileChunksChanged);
+
+				// Change:
+				int linesAdded = res.getInt (1);
+				int linesRemoved = res.getInt (2);
+				int emptyLinesAdded = res.getInt (3);
+				int emptyLinesRemoved = res.getInt (4);
+				int changedChunks = res.getInt (5);
+
+				List<FileChange> commitChanges = changes.get (commit.getId ());
+				if (commitChanges == null) {
+					commitChanges = new LinkedList<FileChange> ();
+					changes.put (commit.getId (), commitChanges);
+				}
+
+				commitChanges.add (new FileChange (commit, file, linesAdded, linesRemoved, emptyLinesAdded, emptyLinesRemoved, changedChunks));
+			}
+
+			return changes;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	private Map<Integer, List<BugHistory>> getBugHistory (Project proj, List<Bug> chunk) throws SQLException {
+		assert (conn != null);
+		assert (chunk.size () <= FOREACH_CHUNK_SIZE);
+
+		HashMap<Integer, Bug> bugs = new HashMap<Integer, Bug> ();
+		for (Bug bug : chunk) {
+			bugs.put (bug.getId (), bug);
+		}
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_FULL_HISTORY_CHUNK);
+			bindChunk (stmt, bugs.keySet ());
+
+			// Collect data:
+			HashMap<Integer, List<BugHistory>> history = new HashMap<Integer, List<BugHistory>> ();
+			res = stmt.executeQuery ();
+			while (res.next ()) {
+				Bug bug = bugs.get (res.getInt (13));
+				Integer id = res.getInt (1);
+				User user = userFromResult (res, proj, 5, 6);
+				Identity identity = identityFromResult (res, user, 12, 2, 11, 3, 4);
+				Date creation = resGetDate (res, 7);
+				String field = res.getString (8);
+				String oldValue = res.getString (9);
+				String newValue = res.getString (10);
+
+				List<BugHistory> bugHistory = history.get (bug.getId ());
+				if (bugHistory == null) {
+					bugHistory = new LinkedList<BugHistory> ();
+					history.put (bug.getId (), bugHistory);
+				}
+
+				bugHistory.add (new BugHistory (id, bug, identity, creation, field, oldValue, newValue));
+			}
+
+			return history;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
 			}
 		}
 	}
 
+	private Map<Integer, List<Comment>> getComments (Project proj, List<Bug> chunk) throws SQLException {
+		assert (conn != null);
+		assert (chunk.size () <= FOREACH_CHUNK_SIZE);
+
+		HashMap<Integer, Bug> bugs = new HashMap<Integer, Bug> ();
+		for (Bug bug : chunk) {
+			bugs.put (bug.getId (), bug);
+		}
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_COMMENTS_CHUNK);
+			bindChunk (stmt, bugs.keySet ());
+
+			// Collect data:
+			HashMap<Integer, List<Comment>> comments = new HashMap<Integer, List<Comment>> ();
+			res = stmt.executeQuery ();
+			while (res.next ()) {
+				Bug bug = bugs.get (res.getInt (12));
+				Integer id = res.getInt (1);
+				Integer index = res.getInt (2);
+				Date creation = resGetDate (res, 3);
+				User user = userFromResult (res, proj, 7, 8);
+				Identity identity = identityFromResult (res, user, 11, 4, 10, 5, 6);
+				String content = res.getString (9);
+
+				List<Comment> bugComments = comments.get (bug.getId ());
+				if (bugComments == null) {
+					bugComments = new LinkedList<Comment> ();
+					comments.put (bug.getId (), bugComments);
+				}
+
+				bugComments.add (new Comment (id, index, bug, creation, identity, content));
+			}
+
+			return comments;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	private static String chunkParameters () {
+		StringBuilder builder = new StringBuilder ();
+		for (int i = 0; i < FOREACH_CHUNK_SIZE; i++) {
+			if (i > 0) {
+				builder.append (", ");
+			}
+			builder.append ('?');
+		}
+
+		return builder.toString ();
+	}
+
+	private static void bindChunk (PreparedStatement stmt, Collection<Integer> ids) throws SQLException {
+		int i = 1;
+		for (Integer id : ids) {
+			stmt.setInt (i++, id);
+		}
+		for (; i <= FOREACH_CHUNK_SIZE; i++) {
+			stmt.setNull (i, Types.INTEGER);
+		}
+	}
+
 	public Bug getBug (Project proj, Integer identifier) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
@@ -6460,7 +7629,7 @@ public class Model {
 		ResultSet res = null;
 
 		try {
-			stmt = conn.prepareStatement (SELECT_BUG);
+			stmt = stmts.prepare (SELECT_BUG);
 			stmt.setInt (1, proj.getId ());
 			stmt.setInt (2, identifier);
 	
@@ -6538,24 +7707,48 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 	
+	// Rows of known users and identities are resolved through the
+	// identity table of the project without reading the strings.
 	private User userFromResult (ResultSet res, Project proj, int idCol, int nameCol) throws SQLException {
 		Integer id = res.getInt (idCol);
-		String name = res.getString (nameCol);
-		return new User (id, proj, name);
+		if (res.wasNull ()) {
+			return new User (id, proj, res.getString (nameCol));
+		}
+
+		IdentityTable table = pool.getIdentityTable (proj);
+		User user = table.getUser (id);
+		if (user == null) {
+			String name = res.getString (nameCol);
+			user = table.intern (new User (id, proj, name));
+		}
+
+		return user;
 	}
 
 	private Identity identityFromResult (ResultSet res, User user, int identifierCol, int idCol, int contextCol, int nameCol, int mailCol) throws SQLException {
 		Integer id = res.getInt (idCol);
+		boolean known = (res.wasNull () == false && user.getProject () != null);
+
+		IdentityTable table = null;
+		if (known) {
+			table = pool.getIdentityTable (user.getProject ());
+			Identity identity = table.getIdentity (id);
+			if (identity != null) {
+				return identity;
+			}
+		}
+
 		Integer identifier = res.getInt (identifierCol);
 		String mail = res.getString (mailCol);
 		String name = res.getString (nameCol);
 		String context = res.getString (contextCol);
-		return new Identity (id, identifier, context, mail, name, user);
+		Identity identity = new Identity (id, identifier, context, mail, name, user);
+		return (known)? table.intern (identity) : identity;
 	}
 
 	public void rawForeach (Query query, Map<String, Object> vars, ResultCallback callback) throws SQLException, Exception {
@@ -6617,7 +7810,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_CATEGORIES);
+			stmt = stmts.prepare (SELECT_ALL_CATEGORIES);
 			stmt.setInt (1, dictionary.getId ());
 		
 			// Collect data:
@@ -6634,7 +7827,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6644,12 +7837,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Component> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.COMPONENTS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_COMPONENTS);
+			stmt = stmts.prepare (SELECT_ALL_COMPONENTS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6660,13 +7860,14 @@ public class Model {
 				components.put (category.getId (), category);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.COMPONENTS, components, generation);
 			return components;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6676,12 +7877,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Resolution> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.RESOLUTIONS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_RESOLUTIONS);
+			stmt = stmts.prepare (SELECT_ALL_RESOLUTIONS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6692,13 +7900,14 @@ public class Model {
 				resolutions.put (category.getId (), category);
 			}
 		
-			return resolutions;		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.RESOLUTIONS, resolutions, generation);
+			return resolutions;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6708,12 +7917,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Version> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.VERSIONS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_VERSIONS);
+			stmt = stmts.prepare (SELECT_ALL_VERSIONS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6724,13 +7940,14 @@ public class Model {
 				versions.put (version.getId (), version);
 			}
 		
-			return versions;		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.VERSIONS, versions, generation);
+			return versions;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6740,12 +7957,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, BugGroup> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_GROUPS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_BUG_GROUPS);
+			stmt = stmts.prepare (SELECT_ALL_BUG_GROUPS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6756,13 +7980,14 @@ public class Model {
 				groups.put (grp.getId (), grp);
 			}
 		
-			return groups;		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_GROUPS, groups, generation);
+			return groups;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6772,12 +7997,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Milestone> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.MILESTONES);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_MILESTONES);
+			stmt = stmts.prepare (SELECT_ALL_MILESTONES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6788,13 +8020,14 @@ public class Model {
 				milestones.put (ms.getId (), ms);
 			}
 	
-			return milestones;		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.MILESTONES, milestones, generation);
+			return milestones;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6804,12 +8037,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Component> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.COMPONENTS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_COMPONENTS);
+			stmt = stmts.prepare (SELECT_ALL_COMPONENTS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6820,13 +8060,14 @@ public class Model {
 				components.put (category.getName (), category);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.COMPONENTS_BY_NAME, components, generation);
 			return components;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6836,12 +8077,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, OperatingSystem> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.OPERATING_SYSTEMS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_OPERATING_SYSTEMS);
+			stmt = stmts.prepare (SELECT_ALL_OPERATING_SYSTEMS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6852,13 +8100,14 @@ public class Model {
 				opsys.put (os.getName (), os);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.OPERATING_SYSTEMS_BY_NAME, opsys, generation);
 			return opsys;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6868,12 +8117,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Platform> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.PLATFORMS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_PLATFORMS);
+			stmt = stmts.prepare (SELECT_ALL_PLATFORMS);
 			stmt.setInt (1, proj.getId ());
 	
 			// Collect data:
@@ -6884,13 +8140,14 @@ public class Model {
 				platforms.put (pf.getName (), pf);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.PLATFORMS_BY_NAME, platforms, generation);
 			return platforms;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6900,12 +8157,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Keyword> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.KEYWORDS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_KEYWORDS);
+			stmt = stmts.prepare (SELECT_ALL_KEYWORDS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6916,13 +8180,14 @@ public class Model {
 				kwds.put (kw.getName (), kw);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.KEYWORDS_BY_NAME, kwds, generation);
 			return kwds;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6932,12 +8197,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, BugClass> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_CLASSES_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_BUG_CLASSES);
+			stmt = stmts.prepare (SELECT_BUG_CLASSES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6948,13 +8220,14 @@ public class Model {
 				classes.put (cl.getName (), cl);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_CLASSES_BY_NAME, classes, generation);
 			return classes;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6964,12 +8237,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Version> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.VERSIONS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_VERSIONS);
+			stmt = stmts.prepare (SELECT_ALL_VERSIONS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -6980,13 +8260,14 @@ public class Model {
 				versions.put (version.getName (), version);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.VERSIONS_BY_NAME, versions, generation);
 			return versions;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -6996,12 +8277,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, BugGroup> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_GROUPS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_BUG_GROUPS);
+			stmt = stmts.prepare (SELECT_ALL_BUG_GROUPS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7012,13 +8300,14 @@ public class Model {
 				groups.put (grp.getName (), grp);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_GROUPS_BY_NAME, groups, generation);
 			return groups;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7028,12 +8317,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Milestone> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.MILESTONES_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_MILESTONES);
+			stmt = stmts.prepare (SELECT_ALL_MILESTONES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7044,13 +8340,14 @@ public class Model {
 				milestones.put (ms.getName (), ms);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.MILESTONES_BY_NAME, milestones, generation);
 			return milestones;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7060,12 +8357,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, AttachmentStatus> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.ATTACHMENT_STATUS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ATTACHMENT_STATES);
+			stmt = stmts.prepare (SELECT_ATTACHMENT_STATES);
 			stmt.setInt (1, proj.getId ());
 	
 			// Collect data:
@@ -7076,13 +8380,14 @@ public class Model {
 				stats.put (stat.getName (), stat);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.ATTACHMENT_STATUS_BY_NAME, stats, generation);
 			return stats;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	} 
@@ -7092,12 +8397,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Severity> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.SEVERITIES);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_SEVERITIES);
+			stmt = stmts.prepare (SELECT_ALL_SEVERITIES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7108,13 +8420,14 @@ public class Model {
 				severities.put (severity.getId (), severity);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.SEVERITIES, severities, generation);
 			return severities;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7124,12 +8437,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, BugFlagStatus> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_FLAG_STATES);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_BUG_FLAGS_STATES);
+			stmt = stmts.prepare (SELECT_ALL_BUG_FLAGS_STATES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7140,13 +8460,14 @@ public class Model {
 				states.put (state.getId (), state);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_FLAG_STATES, states, generation);
 			return states;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7156,12 +8477,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, BugFlag> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_FLAGS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_BUG_FLAGS);
+			stmt = stmts.prepare (SELECT_ALL_BUG_FLAGS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7178,13 +8506,14 @@ public class Model {
 				flags.put (flag.getId (), flag);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_FLAGS, flags, generation);
 			return flags;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7194,12 +8523,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, OperatingSystem> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.OPERATING_SYSTEMS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_OPERATING_SYSTEMS);
+			stmt = stmts.prepare (SELECT_ALL_OPERATING_SYSTEMS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7210,13 +8546,14 @@ public class Model {
 				opsys.put (os.getId (), os);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.OPERATING_SYSTEMS, opsys, generation);
 			return opsys;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7226,12 +8563,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Platform> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.PLATFORMS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_PLATFORMS);
+			stmt = stmts.prepare (SELECT_ALL_PLATFORMS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7242,13 +8586,14 @@ public class Model {
 				platforms.put (pf.getId (), pf);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.PLATFORMS, platforms, generation);
 			return platforms;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7258,12 +8603,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Keyword> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.KEYWORDS);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_KEYWORDS);
+			stmt = stmts.prepare (SELECT_ALL_KEYWORDS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7274,13 +8626,14 @@ public class Model {
 				kwds.put (kw.getId (), kw);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.KEYWORDS, kwds, generation);
 			return kwds;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7290,167 +8643,366 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, BugClass> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_CLASSES);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_BUG_CLASSES);
+			stmt = stmts.prepare (SELECT_BUG_CLASSES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
 			HashMap<Integer, BugClass> classes = new HashMap<Integer, BugClass> ();
 			res = stmt.executeQuery ();
 			while (res.next ()) {
-				BugClass cl = new BugClass (res.getInt (1), proj, res.getString (2));
-				classes.put (cl.getId (), cl);
+				BugClass cl = new BugClass (res.getInt (1), proj, res.getString (2));
+				classes.put (cl.getId (), cl);
+			}
+		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_CLASSES, classes, generation);
+			return classes;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	public Map<String, Severity> getSeveritiesByName (Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		Map<String, Severity> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.SEVERITIES_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_ALL_SEVERITIES);
+			stmt.setInt (1, proj.getId ());
+		
+			// Collect data:
+			HashMap<String, Severity> severities = new HashMap<String, Severity> ();
+			res = stmt.executeQuery ();
+			while (res.next ()) {
+				Severity severity = new Severity (res.getInt (1), proj, res.getString (2));
+				severities.put (severity.getName (), severity);
+			}
+		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.SEVERITIES_BY_NAME, severities, generation);
+			return severities;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	public Map<String, BugFlagStatus> getBugFlagStatesByName (Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		Map<String, BugFlagStatus> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_FLAG_STATES_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_ALL_BUG_FLAGS_STATES);
+			stmt.setInt (1, proj.getId ());
+		
+			// Collect data:
+			HashMap<String, BugFlagStatus> states = new HashMap<String, BugFlagStatus> ();
+			res = stmt.executeQuery ();
+			while (res.next ()) {
+				BugFlagStatus state = new BugFlagStatus (res.getInt (1), proj, res.getString (2));
+				states.put (state.getName (), state);
+			}
+		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_FLAG_STATES_BY_NAME, states, generation);
+			return states;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	public Map<Integer, BugFlag> getBugFlagsByIdentifier (Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		Map<Integer, BugFlag> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.BUG_FLAGS_BY_IDENTIFIER);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_ALL_BUG_FLAGS);
+			stmt.setInt (1, proj.getId ());
+		
+			// Collect data:
+			HashMap<Integer, BugFlag> flags = new HashMap<Integer, BugFlag> ();
+			res = stmt.executeQuery ();
+			while (res.next ()) {
+				Integer id  = res.getInt (1);
+				Integer identifier = res.getInt (2);
+				String name = res.getString (3);
+				Integer typeId = res.getInt (4);
+				
+				BugFlag flag = new BugFlag (id, proj, identifier, name, typeId);
+				flags.put (flag.getIdentifier (), flag);
+			}
+		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.BUG_FLAGS_BY_IDENTIFIER, flags, generation);
+			return flags;
+		} finally {
+			if (res != null) {
+				res.close ();
+			}
+			if (stmt != null) {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	public Map<Integer, Status> getStatuses (Project proj) throws SQLException {
+		assert (conn != null);
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		Map<Integer, Status> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.STATUSES);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
+		PreparedStatement stmt = null;
+		ResultSet res = null;
+
+		try {
+			// Statement:
+			stmt = stmts.prepare (SELECT_ALL_STATUSES);
+			stmt.setInt (1, proj.getId ());
+	
+			// Collect data:
+			HashMap<Integer, Status> statuses = new HashMap<Integer, Status> ();
+			res = stmt.executeQuery ();
+			while (res.next ()) {
+				Status status = new Status (res.getInt (1), proj, res.getString (2));
+				statuses.put (status.getId (), status);
 			}
 		
-			return classes;
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.STATUSES, statuses, generation);
+			return statuses;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<String, Severity> getSeveritiesByName (Project proj) throws SQLException {
+	public Map<String, Status> getStatusesByName (Project proj) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Status> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.STATUSES_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_SEVERITIES);
+			stmt = stmts.prepare (SELECT_ALL_STATUSES);
 			stmt.setInt (1, proj.getId ());
-		
+	
 			// Collect data:
-			HashMap<String, Severity> severities = new HashMap<String, Severity> ();
+			HashMap<String, Status> statuses = new HashMap<String, Status> ();
 			res = stmt.executeQuery ();
 			while (res.next ()) {
-				Severity severity = new Severity (res.getInt (1), proj, res.getString (2));
-				severities.put (severity.getName (), severity);
+				Status status = new Status (res.getInt (1), proj, res.getString (2));
+				statuses.put (status.getName (), status);
 			}
 		
-			return severities;
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.STATUSES_BY_NAME, statuses, generation);
+			return statuses;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<String, BugFlagStatus> getBugFlagStatesByName (Project proj) throws SQLException {
+	public Map<Integer, Priority> getPriorities (Project proj) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<Integer, Priority> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.PRIORITIES);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_BUG_FLAGS_STATES);
+			stmt = stmts.prepare (SELECT_ALL_PRIORITIES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
-			HashMap<String, BugFlagStatus> states = new HashMap<String, BugFlagStatus> ();
+			HashMap<Integer, Priority> priorities = new HashMap<Integer, Priority> ();
 			res = stmt.executeQuery ();
 			while (res.next ()) {
-				BugFlagStatus state = new BugFlagStatus (res.getInt (1), proj, res.getString (2));
-				states.put (state.getName (), state);
+				Priority priority = new Priority (res.getInt (1), proj, res.getString (2));
+				priorities.put (priority.getId (), priority);
 			}
 		
-			return states;
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.PRIORITIES, priorities, generation);
+			return priorities;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<Integer, BugFlag> getBugFlagsByIdentifier (Project proj) throws SQLException {
+	public Map<String, Priority> getPrioritiesByName (Project proj) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Priority> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.PRIORITIES_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_BUG_FLAGS);
+			stmt = stmts.prepare (SELECT_ALL_PRIORITIES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
-			HashMap<Integer, BugFlag> flags = new HashMap<Integer, BugFlag> ();
+			HashMap<String, Priority> priorities = new HashMap<String, Priority> ();
 			res = stmt.executeQuery ();
 			while (res.next ()) {
-				Integer id  = res.getInt (1);
-				Integer identifier = res.getInt (2);
-				String name = res.getString (3);
-				Integer typeId = res.getInt (4);
-				
-				BugFlag flag = new BugFlag (id, proj, identifier, name, typeId);
-				flags.put (flag.getIdentifier (), flag);
+				Priority priority = new Priority (res.getInt (1), proj, res.getString (2));
+				priorities.put (priority.getName (), priority);
 			}
 		
-			return flags;
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.PRIORITIES_BY_NAME, priorities, generation);
+			return priorities;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<Integer, Status> getStatuses (Project proj) throws SQLException {
+	public String getLastMinedRevision (Project proj, String ref) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
+		assert (ref != null);
 
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_STATUSES);
+			stmt = stmts.prepare (SELECT_SOURCE_MINING_STATE);
 			stmt.setInt (1, proj.getId ());
-	
+			stmt.setString (2, ref);
+
 			// Collect data:
-			HashMap<Integer, Status> statuses = new HashMap<Integer, Status> ();
 			res = stmt.executeQuery ();
-			while (res.next ()) {
-				Status status = new Status (res.getInt (1), proj, res.getString (2));
-				statuses.put (status.getId (), status);
+			if (res.next ()) {
+				return res.getString (1);
 			}
-		
-			return statuses;
+
+			return null;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<String, Status> getStatusesByName (Project proj) throws SQLException {
+	/**
+	 * Returns all files that were not deleted, mapped by their
+	 * current name. Renames are already applied to Files.name.
+	 */
+	/**
+	 * Returns the identifiers of all mined commits of proj.
+	 */
+	public Set<String> getCommitIdentifiers (Project proj) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
@@ -7460,29 +9012,32 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_STATUSES);
+			stmt = stmts.prepare (SELECT_COMMIT_IDENTIFIERS);
 			stmt.setInt (1, proj.getId ());
-	
+
 			// Collect data:
-			HashMap<String, Status> statuses = new HashMap<String, Status> ();
+			HashSet<String> identifiers = new HashSet<String> ();
 			res = stmt.executeQuery ();
 			while (res.next ()) {
-				Status status = new Status (res.getInt (1), proj, res.getString (2));
-				statuses.put (status.getName (), status);
+				identifiers.add (res.getString (1));
 			}
-		
-			return statuses;
+
+			return identifiers;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<Integer, Priority> getPriorities (Project proj) throws SQLException {
+	/**
+	 * Returns the identifier of the commit inserted last,
+	 * null if there are no commits.
+	 */
+	public String getNewestCommitIdentifier (Project proj) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
@@ -7492,29 +9047,27 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_PRIORITIES);
+			stmt = stmts.prepare (SELECT_NEWEST_COMMIT_IDENTIFIER);
 			stmt.setInt (1, proj.getId ());
-		
+
 			// Collect data:
-			HashMap<Integer, Priority> priorities = new HashMap<Integer, Priority> ();
 			res = stmt.executeQuery ();
-			while (res.next ()) {
-				Priority priority = new Priority (res.getInt (1), proj, res.getString (2));
-				priorities.put (priority.getId (), priority);
+			if (res.next ()) {
+				return res.getString (1);
 			}
-		
-			return priorities;
+
+			return null;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
 
-	public Map<String, Priority> getPrioritiesByName (Project proj) throws SQLException {
+	public Map<String, ManagedFile> getActiveFilesByName (Project proj) throws SQLException {
 		assert (conn != null);
 		assert (proj != null);
 		assert (proj.getId () != null);
@@ -7524,24 +9077,25 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_PRIORITIES);
+			stmt = stmts.prepare (SELECT_ACTIVE_FILES);
 			stmt.setInt (1, proj.getId ());
-		
+
 			// Collect data:
-			HashMap<String, Priority> priorities = new HashMap<String, Priority> ();
+			HashMap<String, ManagedFile> files = new HashMap<String, ManagedFile> ();
 			res = stmt.executeQuery ();
 			while (res.next ()) {
-				Priority priority = new Priority (res.getInt (1), proj, res.getString (2));
-				priorities.put (priority.getName (), priority);
+				ManagedFile file = new ManagedFile (res.getInt (1), proj, res.getString (2), null,
+					res.getInt (3), res.getInt (4), res.getInt (5), res.getInt (6));
+				files.put (file.getName (), file);
 			}
-		
-			return priorities;
+
+			return files;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7551,12 +9105,19 @@ public class Model {
 		assert (proj != null);
 		assert (proj.getId () != null);
 
+		Map<String, Resolution> cached = pool.getDimensionCache ().get (proj, ProjectDimensionCache.View.RESOLUTIONS_BY_NAME);
+		if (cached != null) {
+			return cached;
+		}
+
+		int generation = pool.getDimensionCache ().getGeneration ();
+
 		PreparedStatement stmt = null;
 		ResultSet res = null;
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_RESOLUTIONS);
+			stmt = stmts.prepare (SELECT_ALL_RESOLUTIONS);
 			stmt.setInt (1, proj.getId ());
 	
 			// Collect data:
@@ -7567,13 +9128,14 @@ public class Model {
 				resolutions.put (resolution.getName (), resolution);
 			}
 		
+			pool.getDimensionCache ().put (proj, ProjectDimensionCache.View.RESOLUTIONS_BY_NAME, resolutions, generation);
 			return resolutions;
 		} finally {
 			if (res != null) {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7588,7 +9150,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_FULL_HISTORY);
+			stmt = stmts.prepare (SELECT_FULL_HISTORY);
 			stmt.setInt (1, bug.getId ());
 	
 			// Collect data:
@@ -7613,7 +9175,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7626,7 +9188,7 @@ public class Model {
 		ResultSet res = null;
 
 		try {
-			stmt = conn.prepareStatement (SELECT_BUG_SENTIMENT_STATES);
+			stmt = stmts.prepare (SELECT_BUG_SENTIMENT_STATES);
 			stmt.setInt (1, bug.getId ());
 			res = stmt.executeQuery ();
 	
@@ -7641,7 +9203,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7654,7 +9216,7 @@ public class Model {
 		ResultSet res = null;
 
 		try {
-			stmt = conn.prepareStatement (SELECT_COMMIT_SENTIMENT_STATES);
+			stmt = stmts.prepare (SELECT_COMMIT_SENTIMENT_STATES);
 			stmt.setInt (1, proj.getId ());
 			res = stmt.executeQuery ();
 	
@@ -7669,7 +9231,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}		
 	}
@@ -7686,7 +9248,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_COMMENTS);
+			stmt = stmts.prepare (SELECT_ALL_COMMENTS);
 			stmt.setInt (1, bug.getId ());
 		
 			// Collect data:
@@ -7710,7 +9272,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7725,7 +9287,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_COMMENT_BY_INDEX);
+			stmt = stmts.prepare (SELECT_COMMENT_BY_INDEX);
 			stmt.setInt (1, bug.getId ());
 			stmt.setInt (2, index);
 	
@@ -7747,7 +9309,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7763,7 +9325,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_IDENTITIES_CONTEXT);
+			stmt = stmts.prepare (SELECT_ALL_IDENTITIES_CONTEXT);
 			stmt.setInt (1, proj.getId ());
 			stmt.setString (2, context);
 		
@@ -7782,7 +9344,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7798,7 +9360,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_IDENTITY_BY_IDENTIFIER);
+			stmt = stmts.prepare (SELECT_IDENTITY_BY_IDENTIFIER);
 			stmt.setInt (1, proj.getId ());
 			stmt.setString (2, context);
 			stmt.setInt (3, identifier);
@@ -7816,7 +9378,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7832,7 +9394,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ATTACHMENT_IDENTITY);
+			stmt = stmts.prepare (SELECT_ATTACHMENT_IDENTITY);
 			stmt.setInt (1, proj.getId ());
 			stmt.setString (2, patchId);
 			
@@ -7850,7 +9412,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7865,7 +9427,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_IDENTITIES);
+			stmt = stmts.prepare (SELECT_ALL_IDENTITIES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7883,7 +9445,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7898,7 +9460,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_USERS);
+			stmt = stmts.prepare (SELECT_ALL_USERS);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -7915,7 +9477,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7928,7 +9490,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_PROJECT);
+			stmt = stmts.prepare (SELECT_PROJECT);
 			stmt.setInt (1, id);
 		
 			// Collect data:
@@ -7951,7 +9513,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -7964,7 +9526,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_ALL_PROJECTS);
+			stmt = stmts.prepare (SELECT_ALL_PROJECTS);
 
 			// Collect data:
 			LinkedList<Project> projects = new LinkedList<Project> ();
@@ -7988,7 +9550,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -8003,7 +9565,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_DICTIONARIES);
+			stmt = stmts.prepare (SELECT_DICTIONARIES);
 			stmt.setInt (1, proj.getId ());
 		
 			// Collect data:
@@ -8024,7 +9586,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -8039,7 +9601,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_START_DATE);
+			stmt = stmts.prepare (SELECT_START_DATE);
 			stmt.setInt (1, proj.getId ());
 	
 			
@@ -8055,7 +9617,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -8068,7 +9630,7 @@ public class Model {
 
 		try {
 			// Statement:
-			stmt = conn.prepareStatement (SELECT_SELECTED_USERS);
+			stmt = stmts.prepare (SELECT_SELECTED_USERS);
 	
 			// Collect data:
 			LinkedList<Integer> users = new LinkedList<Integer> ();
@@ -8083,7 +9645,7 @@ public class Model {
 				res.close ();
 			}
 			if (stmt != null) {
-				stmt.close ();
+				stmts.release (stmt);
 			}
 		}
 	}
@@ -8097,21 +9659,21 @@ public class Model {
 
 		try {
 			// Drop old selections:
-			stmt1 = conn.prepareStatement (DELETE_SELECTED_USERS);
+			stmt1 = stmts.prepare (DELETE_SELECTED_USERS);
 			stmt1.executeUpdate();
 			
 			// Insert new selections:
-			stmt2 = conn.prepareStatement (SELECTED_USER_INSERTION);
+			stmt2 = stmts.prepare (SELECTED_USER_INSERTION);
 			for (Integer id : selectedUsers) {
 				stmt2.setInt (1, id);
 				stmt2.executeUpdate();
 			}
 		} finally {
 			if (stmt1 != null) {
-				stmt1.close ();
+				stmts.release (stmt1);
 			}
 			if (stmt2 != null) {
-				stmt2.close ();
+				stmts.release (stmt2);
 			}
 		}
 	}
@@ -8125,35 +9687,74 @@ public class Model {
 		assert (stmt != null);
 
 		ResultSet res = stmt.getGeneratedKeys ();
-		boolean hadNext = res.next ();
-		assert (hadNext);
-		return res.getInt (1);
+		try {
+			boolean hadNext = res.next ();
+			assert (hadNext);
+			return res.getInt (1);
+		} finally {
+			res.close ();
+		}
+	}
+
+	static void bind (PreparedStatement stmt, ManagedFileCopy copy) throws SQLException {
+		stmt.setInt (1, copy.getFile ().getId ());
+		stmt.setInt (2, copy.getCommit ().getId ());
+		stmt.setInt (3, copy.getOriginal ().getId ());
+	}
+
+	static void bind (PreparedStatement stmt, FileDeletion deletion) throws SQLException {
+		stmt.setInt (1, deletion.getFile ().getId ());
+		stmt.setInt (2, deletion.getCommit ().getId ());
+	}
+
+	static void bind (PreparedStatement stmt, FileRename rename) throws SQLException {
+		stmt.setInt (1, rename.getFile ().getId ());
+		stmt.setInt (2, rename.getCommit ().getId ());
+		stmt.setString (3, rename.getOldName ());
+	}
+
+	static void bindFileName (PreparedStatement stmt, ManagedFile file, String newName) throws SQLException {
+		stmt.setString (1, newName);
+		stmt.setInt (2, file.getId ());
+	}
+
+	static void bind (PreparedStatement stmt, FileChange change) throws SQLException {
+		stmt.setInt (1, change.getCommit ().getId ());
+		stmt.setInt (2, change.getFile ().getId ());
+		stmt.setInt (3, change.getLinesAdded ());
+		stmt.setInt (4, change.getLinesRemoved ());
+		stmt.setInt (5, change.getEmptyLinesAdded ());
+		stmt.setInt (6, change.getEmptyLinesRemoved ());
+		stmt.setInt (7, change.getChangedChunks ());
+	}
+
+	// Dates are stored as seconds since the epoch:
+	static long encodeDate (Date date) {
+		return date.getTime () / 1000;
+	}
+
+	static Date decodeDate (long seconds) {
+		return new Date (seconds * 1000);
 	}
 
 	private Date resGetDate (ResultSet res, int pos) throws SQLException {
-		String str = res.getString (pos);
-		if (str == null) {
-			return null;
-		}
-		
-		try {
-	    	SimpleDateFormat formatter = new SimpleDateFormat ("yyyy-MM-dd HH:mm:ss");
-			return formatter.parse (str);
-		} catch (ParseException e) {
-			// TODO
+		long seconds = res.getLong (pos);
+		if (res.wasNull ()) {
 			return null;
 		}
+
+		return decodeDate (seconds);
 	}
 
 	private void resSetDate (PreparedStatement stmt, int pos, Date date) throws SQLException {
 		if (date != null) {
-			stmt.setString (pos, dateFormat.format (date));
+			stmt.setLong (pos, encodeDate (date));
 		} else {
-			stmt.setNull (pos, Types.VARCHAR);
+			stmt.setNull (pos, Types.INTEGER);
 		}
 	}
 	
-	private void createTables () throws SQLException {
+	private static void createTables (Connection conn) throws SQLException {
 		assert (conn != null);
 
 		Statement stmt = null;
@@ -8215,6 +9816,7 @@ public class Model {
 			stmt.executeUpdate (FILE_CHANGES_TABLE);
 			stmt.executeUpdate (FILE_DELETION_TABLE);
 			stmt.executeUpdate (FILE_COPY_TABLE);
+			stmt.executeUpdate (SOURCE_MINING_STATE_TABLE);
 			stmt.executeUpdate (BUG_COMMENT_COUNT_UPDATE_TRIGGER);
 			stmt.executeUpdate (PROJECT_FLAG_TABLE);
 			stmt.executeUpdate (ATTACHMENT_TABLE);
@@ -8234,11 +9836,237 @@ public class Model {
 			stmt.executeUpdate (SENTIMENT_TABLE);
 			stmt.executeUpdate (ATTACHMENT_ISOBSOLETE_TABLE);
 			stmt.executeUpdate (SOCIAL_STATS_TABLE);
-			stmt.executeUpdate (SELECTED_USER_TABLE);
+			migrateMonthlyStats (stmt);
+			stmt.executeUpdate (MONTHLY_IDENTITY_STATS_TABLE);
+			stmt.executeUpdate (MONTHLY_STATS_STATE_TABLE);
+			stmt.executeUpdate (MONTHLY_USER_STATS_VIEW);
+			stmt.executeUpdate (MONTHLY_PROJECT_STATS_VIEW);
+
+			if (migrateDateColumns (conn)) {
+				// Rebuilt tables lost their indices:
+				stmt.executeUpdate ("PRAGMA user_version = 0");
+			}
+			createIndices (stmt);
 		} finally {
 			if (stmt != null) {
 				stmt.close ();
 			}
 		}
 	}
+
+	// MonthlyUserStats used to be a table keyed by user ids, which
+	// went stale once account interlinking reassigned the users.
+	// The aggregates are recomputed on the next refresh.
+	private static void migrateMonthlyStats (Statement stmt) throws SQLException {
+		boolean isTable = false;
+		ResultSet res = stmt.executeQuery ("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'MonthlyUserStats'");
+		try {
+			isTable = res.next ();
+		} finally {
+			res.close ();
+		}
+
+		if (isTable == false) {
+			return ;
+		}
+
+		stmt.executeUpdate ("DROP VIEW IF EXISTS MonthlyProjectStats");
+		stmt.executeUpdate ("DROP TABLE MonthlyUserStats");
+		stmt.executeUpdate ("DROP TABLE IF EXISTS MonthlyStatsState");
+	}
+
+	private static boolean migrateDateColumns (Connection conn) throws SQLException {
+		assert (conn != null);
+
+		LinkedList<DateTable> tables = new LinkedList<DateTable> ();
+		Statement stmt = conn.createStatement ();
+		try {
+			for (DateTable table : DATE_TABLES) {
+				String type = null;
+				ResultSet res = stmt.executeQuery ("PRAGMA table_info (" + table.name + ")");
+				try {
+					while (res.next ()) {
+						if (table.columns[0].equals (res.getString (2))) {
+							type = res.getString (3);
+						}
+					}
+				} finally {
+					res.close ();
+				}
+
+				if ("TEXT".equalsIgnoreCase (type)) {
+					tables.add (table);
+				}
+			}
+
+			if (tables.size () == 0) {
+				return false;
+			}
+
+			boolean autoCommit = conn.getAutoCommit ();
+			conn.setAutoCommit (false);
+			try {
+				// Trigger bodies must stay valid while tables are swapped:
+				stmt.executeUpdate ("DROP TRIGGER IF EXISTS update_comments");
+
+				for (DateTable table : tables) {
+					migrateDateColumns (stmt, table);
+				}
+
+				stmt.executeUpdate (BUG_COMMENT_COUNT_UPDATE_TRIGGER);
+				conn.commit ();
+			} catch (SQLException e) {
+				conn.rollback ();
+				throw e;
+			} finally {
+				conn.setAutoCommit (autoCommit);
+			}
+
+			return true;
+		} finally {
+			stmt.close ();
+		}
+	}
+
+	private static void migrateDateColumns (Statement stmt, DateTable table) throws SQLException {
+		String tmpName = table.name + "_migration";
+
+		LinkedList<String> columns = new LinkedList<String> ();
+		ResultSet res = stmt.executeQuery ("PRAGMA table_info (" + table.name + ")");
+		try {
+			while (res.next ()) {
+				columns.add (res.getString (2));
+			}
+		} finally {
+			res.close ();
+		}
+
+		StringBuilder names = new StringBuilder ();
+		StringBuilder values = new StringBuilder ();
+		for (String column : columns) {
+			if (names.length () > 0) {
+				names.append (", ");
+				values.append (", ");
+			}
+
+			names.append (column);
+			if (Arrays.asList (table.columns).contains (column)) {
+				// Stored dates are local time:
+				values.append ("CASE WHEN typeof (" + column + ") = 'text'"
+					+ " THEN CAST (strftime ('%s', " + column + ", 'utc') AS INTEGER)"
+					+ " ELSE " + column + " END");
+			} else {
+				values.append (column);
+			}
+		}
+
+		stmt.executeUpdate (table.schema.replace ("CREATE TABLE IF NOT EXISTS " + table.name + " (", "CREATE TABLE " + tmpName + " ("));
+		stmt.executeUpdate ("INSERT INTO " + tmpName + " (" + names + ") SELECT " + values + " FROM " + table.name);
+		stmt.executeUpdate ("DROP TABLE " + table.name);
+		stmt.executeUpdate ("ALTER TABLE " + tmpName + " RENAME TO " + table.name);
+	}
+
+	private static void createIndices (Statement stmt) throws SQLException {
+		assert (stmt != null);
+
+		ResultSet res = stmt.executeQuery ("PRAGMA user_version");
+		int version = 0;
+		try {
+			if (res.next ()) {
+				version = res.getInt (1);
+			}
+		} finally {
+			res.close ();
+		}
+
+		if (version >= SCHEMA_VERSION) {
+			return ;
+		}
+
+		for (String index : INDICES) {
+			stmt.executeUpdate (index);
+		}
+
+		stmt.executeUpdate ("PRAGMA user_version = " + SCHEMA_VERSION);
+	}
+
+
+	//
+	// Bulk Imports:
+	//
+
+	void dropDeferrableIndices () throws SQLException {
+		assert (conn != null);
+
+		Statement stmt = conn.createStatement ();
+		try {
+			for (String index : DEFERRABLE_INDICES) {
+				stmt.executeUpdate ("DROP INDEX IF EXISTS " + index);
+			}
+
+			// Rebuilt by the next schema check if the import does not finish:
+			stmt.executeUpdate ("PRAGMA user_version = 0");
+		} finally {
+			stmt.close ();
+		}
+	}
+
+	void createIndices () throws SQLException {
+		assert (conn != null);
+
+		Statement stmt = conn.createStatement ();
+		try {
+			createIndices (stmt);
+		} finally {
+			stmt.close ();
+		}
+	}
+
+	/**
+	 * Estimates the number of stored rows from the highest
+	 * rowid of each table. Deleted rows are not subtracted.
+	 */
+	long countRows () throws SQLException {
+		assert (conn != null);
+
+		Statement stmt = conn.createStatement ();
+		try {
+			LinkedList<String> tables = new LinkedList<String> ();
+			ResultSet res = stmt.executeQuery (SELECT_TABLE_NAMES);
+			try {
+				while (res.next ()) {
+					tables.add (res.getString (1));
+				}
+			} finally {
+				res.close ();
+			}
+
+			long rows = 0;
+			for (String table : tables) {
+				res = stmt.executeQuery ("SELECT max(rowid) FROM \"" + table + "\"");
+				try {
+					if (res.next ()) {
+						rows += res.getLong (1);
+					}
+				} finally {
+					res.close ();
+				}
+			}
+
+			return rows;
+		} finally {
+			stmt.close ();
+		}
+	}
+
+	void analyze () throws SQLException {
+		assert (conn != null);
+
+		Statement stmt = conn.createStatement ();
+		try {
+			stmt.executeUpdate ("ANALYZE");
+		} finally {
+			stmt.close ();
+		}
+	}
 }
@@ -0,0 +1,420 @@
+/* ModelBatchWriter.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+
+/**
+ * Buffers miner insertions and writes them in batches.
+ *
+ * Rows whose keys are needed by the caller (commits, files,
+ * users, identities) are written immediately, but inside the
+ * open transaction. All other rows are buffered per table and
+ * flushed via executeBatch () once batchSize rows are pending
+ * or flushInterval milliseconds passed since the last flush.
+ * Listeners are notified of all rows, including the immediate
+ * ones, after the transaction is committed.
+ */
+public class ModelBatchWriter {
+	public static final int DEFAULT_BATCH_SIZE = 2000;
+	public static final long DEFAULT_FLUSH_INTERVAL = 5000;
+
+	// Rows written in the open transaction, emitted on commit:
+	private abstract class Inserted<T> {
+		protected final List<T> rows = new ArrayList<T> ();
+
+		protected abstract void emit (T row);
+
+		public void add (T row) {
+			rows.add (row);
+		}
+
+		public void emitAll () {
+			for (T row : rows) {
+				emit (row);
+			}
+		}
+
+		public int size () {
+			return rows.size ();
+		}
+
+		public void clear () {
+			rows.clear ();
+		}
+	}
+
+	private abstract class Batch<T> extends Inserted<T> {
+		private final String sql;
+
+		public Batch (String sql) {
+			this.sql = sql;
+		}
+
+		protected abstract void bind (PreparedStatement stmt, T row) throws SQLException;
+
+		@Override
+		public void add (T row) {
+			super.add (row);
+			pending++;
+		}
+
+		public void execute () throws SQLException {
+			if (rows.size () == 0) {
+				return ;
+			}
+
+			StatementCache stmts = model.getStatementCache ();
+			PreparedStatement stmt = stmts.prepare (sql);
+			try {
+				for (T row : rows) {
+					bind (stmt, row);
+					stmt.addBatch ();
+				}
+
+				stmt.executeBatch ();
+			} finally {
+				stmts.release (stmt);
+			}
+		}
+	}
+
+	private static class Rename {
+		public final FileRename rename;
+		public final String newName;
+
+		public Rename (FileRename rename, String newName) {
+			this.rename = rename;
+			this.newName = newName;
+		}
+	}
+
+	private final Model model;
+	private final ModelPool pool;
+	private final int batchSize;
+	private final long flushInterval;
+
+	private boolean inTransaction = false;
+	private long lastFlush;
+	private int pending = 0;
+
+	private long rowsWritten = 0;
+	private int flushes = 0;
+
+
+	private final Inserted<User> users = new Inserted<User> () {
+		@Override
+		protected void emit (User row) {
+			pool.emitUserAdded (row);
+		}
+	};
+
+	private final Inserted<Identity> identities = new Inserted<Identity> () {
+		@Override
+		protected void emit (Identity row) {
+			pool.emitIdentityAdded (row);
+		}
+	};
+
+	private final Inserted<ManagedFile> files = new Inserted<ManagedFile> () {
+		@Override
+		protected void emit (ManagedFile row) {
+			pool.emitManagedFileAdded (row);
+		}
+	};
+
+	private final Inserted<Commit> commits = new Inserted<Commit> () {
+		@Override
+		protected void emit (Commit row) {
+			pool.emitCommitAdded (row);
+		}
+	};
+
+	// Order matters: renames have to be applied before later
+	// changes and deletions reference the renamed file.
+	private final Batch<ManagedFileCopy> copies = new Batch<ManagedFileCopy> (Model.FILE_COPY_INSERTION) {
+		@Override
+		protected void bind (PreparedStatement stmt, ManagedFileCopy row) throws SQLException {
+			Model.bind (stmt, row);
+		}
+
+		@Override
+		protected void emit (ManagedFileCopy row) {
+			pool.emitManagedFileCopyAdded (row);
+		}
+	};
+
+	private final Batch<Rename> fileNames = new Batch<Rename> (Model.UPDATE_FILE_NAME) {
+		@Override
+		protected void bind (PreparedStatement stmt, Rename row) throws SQLException {
+			Model.bindFileName (stmt, row.rename.getFile (), row.newName);
+		}
+
+		@Override
+		protected void emit (Rename row) {
+		}
+	};
+
+	private final Batch<Rename> renames = new Batch<Rename> (Model.FILE_RENAME_INSERTION) {
+		@Override
+		protected void bind (PreparedStatement stmt, Rename row) throws SQLException {
+			Model.bind (stmt, row.rename);
+		}
+
+		@Override
+		protected void emit (Rename row) {
+			pool.emitFileRenameAdded (row.rename);
+		}
+	};
+
+	private final Batch<FileChange> changes = new Batch<FileChange> (Model.FILE_CHANGE_INSERTION) {
+		@Override
+		protected void bind (PreparedStatement stmt, FileChange row) throws SQLException {
+			Model.bind (stmt, row);
+		}
+
+		@Override
+		protected void emit (FileChange row) {
+			pool.emitFileChangeAdded (row);
+		}
+	};
+
+	private final Batch<FileDeletion> deletions = new Batch<FileDeletion> (Model.FILE_DELETION_INSERTION) {
+		@Override
+		protected void bind (PreparedStatement stmt, FileDeletion row) throws SQLException {
+			Model.bind (stmt, row);
+		}
+
+		@Override
+		protected void emit (FileDeletion row) {
+			pool.emitFileDeletionAdded (row);
+		}
+	};
+
+	private final Batch<?>[] batches = new Batch<?>[] {copies, fileNames, renames, changes, deletions};
+
+	// Emitted in this order, rows only reference earlier ones:
+	private final Inserted<?>[] inserted = new Inserted<?>[] {users, identities, files, commits, copies, fileNames, renames, changes, deletions};
+
+
+	public ModelBatchWriter (Model model) {
+		this (model, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+	}
+
+	public ModelBatchWriter (Model model, int batchSize, long flushInterval) {
+		assert (model != null);
+		assert (batchSize > 0);
+		assert (flushInterval >= 0);
+
+		this.model = model;
+		this.pool = model.getPool ();
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.lastFlush = System.currentTimeMillis ();
+	}
+
+
+	//
+	// Immediate insertions:
+	//
+
+	public Commit addCommit (String identifier, Project project, Identity author, Identity committer, Date date, String title, int changedFiles, int linesAdded, int linesRemoved) throws SQLException {
+		Commit commit = new Commit (null, identifier, project, author, committer, date, title, changedFiles, linesAdded, linesRemoved);
+		begin ();
+		model.insert (commit);
+		commits.add (commit);
+		return commit;
+	}
+
+	public ManagedFile addManagedFile (Project project, String name) throws SQLException {
+		ManagedFile file = new ManagedFile (null, project, name, null, 1, 0, 0, 1);
+		begin ();
+		model.insert (file);
+		files.add (file);
+		return file;
+	}
+
+	public User addUser (Project project, String name) throws SQLException {
+		User user = new User (null, project, name);
+		begin ();
+		model.insert (user);
+		users.add (user);
+		return user;
+	}
+
+	public Identity addIdentity (Integer identifier, String context, String mail, String name, User user) throws SQLException {
+		Identity identity = new Identity (null, identifier, context, mail, name, user);
+		begin ();
+		model.insert (identity);
+		identities.add (identity);
+		return identity;
+	}
+
+
+	//
+	// Buffered insertions:
+	//
+
+	public FileChange addFileChange (Commit commit, ManagedFile file, int linesAdded, int linesRemoved, int emptyLinesAdded, int emptyLinesRemoved, int changedChunks) throws SQLException {
+		assert (commit != null && commit.getId () != null);
+		assert (file != null && file.getId () != null);
+
+		FileChange change = new FileChange (commit, file, linesAdded, linesRemoved, emptyLinesAdded, emptyLinesRemoved, changedChunks);
+		begin ();
+		changes.add (change);
+		flushIfNeeded ();
+		return change;
+	}
+
+	public FileDeletion addFileDeletion (ManagedFile file, Commit commit) throws SQLException {
+		assert (commit != null && commit.getId () != null);
+		assert (file != null && file.getId () != null);
+
+		FileDeletion deletion = new FileDeletion (file, commit);
+		begin ();
+		deletions.add (deletion);
+		flushIfNeeded ();
+		return deletion;
+	}
+
+	public FileRename addFileRename (ManagedFile file, Commit commit, String oldName, String newName) throws SQLException {
+		assert (commit != null && commit.getId () != null);
+		assert (file != null && file.getId () != null);
+		assert (oldName != null);
+
+		FileRename rename = new FileRename (file, commit, oldName);
+		Rename row = new Rename (rename, newName);
+		begin ();
+		fileNames.add (row);
+		renames.add (row);
+		flushIfNeeded ();
+		return rename;
+	}
+
+	public ManagedFileCopy addIsCopy (ManagedFile copy, Commit commit, ManagedFile original) throws SQLException {
+		assert (commit != null && commit.getId () != null);
+		assert (copy != null && copy.getId () != null);
+		assert (original != null && original.getId () != null);
+
+		ManagedFileCopy _copy = new ManagedFileCopy (copy, commit, original);
+		begin ();
+		copies.add (_copy);
+		flushIfNeeded ();
+		return _copy;
+	}
+
+
+	//
+	// Flushing:
+	//
+
+	public void flush () throws SQLException {
+		if (inTransaction == false) {
+			return ;
+		}
+
+		try {
+			for (Batch<?> batch : batches) {
+				batch.execute ();
+			}
+
+			model.commit ();
+			inTransaction = false;
+		} catch (SQLException e) {
+			inTransaction = false;
+			model.rollback ();
+			clear ();
+			throw e;
+		}
+
+		for (Batch<?> batch : batches) {
+			rowsWritten += batch.size ();
+		}
+
+		for (Inserted<?> rows : inserted) {
+			rows.emitAll ();
+		}
+
+		clear ();
+		flushes++;
+		lastFlush = System.currentTimeMillis ();
+	}
+
+	/**
+	 * Flushes all pending rows and ends the transaction.
+	 */
+	public void close () throws SQLException {
+		flush ();
+	}
+
+	public long getRowsWritten () {
+		return rowsWritten;
+	}
+
+	public int getFlushCount () {
+		return flushes;
+	}
+
+	public int getPendingRows () {
+		return pending;
+	}
+
+
+	//
+	// Helper:
+	//
+
+	private void begin () throws SQLException {
+		if (inTransaction == false) {
+			model.begin ();
+			inTransaction = true;
+		}
+	}
+
+	private void flushIfNeeded () throws SQLException {
+		if (pending >= batchSize || System.currentTimeMillis () - lastFlush >= flushInterval) {
+			flush ();
+		}
+	}
+
+	private void clear () {
+		for (Inserted<?> rows : inserted) {
+			rows.clear ();
+		}
+
+		pending = 0;
+	}
+}
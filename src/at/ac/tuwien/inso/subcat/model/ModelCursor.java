@@ -0,0 +1,159 @@
+/* ModelCursor.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.io.Closeable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Pull-based alternative to the foreach* () callbacks.
+ *
+ * Rows are read on demand. The cursor closes itself after the last
+ * row; close it explicitly when stopping early. A cursor borrows a
+ * statement from its model and must not be used after Model.close ().
+ * Database errors are thrown as CursorException.
+ */
+public abstract class ModelCursor<T> implements Iterator<T>, Closeable {
+
+	public static class CursorException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public CursorException (SQLException cause) {
+			super (cause);
+		}
+
+		@Override
+		public SQLException getCause () {
+			return (SQLException) super.getCause ();
+		}
+	}
+
+	private StatementCache stmts;
+	private PreparedStatement stmt;
+	private ResultSet res;
+	private T next = null;
+	private int rows = 0;
+
+
+	ModelCursor (StatementCache stmts, PreparedStatement stmt) throws SQLException {
+		assert (stmts != null);
+		assert (stmt != null);
+
+		this.stmts = stmts;
+		this.stmt = stmt;
+
+		try {
+			this.res = stmt.executeQuery ();
+		} catch (SQLException e) {
+			stmts.release (stmt);
+			this.stmt = null;
+			throw e;
+		}
+	}
+
+	abstract T fromResult (ResultSet res) throws SQLException;
+
+	@Override
+	public boolean hasNext () {
+		if (next != null) {
+			return true;
+		}
+		if (res == null) {
+			return false;
+		}
+
+		try {
+			if (res.next ()) {
+				next = fromResult (res);
+				rows++;
+				return true;
+			}
+		} catch (SQLException e) {
+			close ();
+			throw new CursorException (e);
+		}
+
+		close ();
+		return false;
+	}
+
+	@Override
+	public T next () {
+		if (hasNext () == false) {
+			throw new NoSuchElementException ();
+		}
+
+		T item = next;
+		next = null;
+		return item;
+	}
+
+	@Override
+	public void remove () {
+		throw new UnsupportedOperationException ();
+	}
+
+	@Override
+	public void close () {
+		if (stmt == null) {
+			return ;
+		}
+
+		try {
+			res.close ();
+			stmts.release (stmt);
+		} catch (SQLException e) {
+			// Ignore
+		}
+
+		next = null;
+		res = null;
+		stmt = null;
+	}
+
+	public boolean isClosed () {
+		return stmt == null;
+	}
+
+	/**
+	 * Number of rows read so far.
+	 */
+	public int getRowCount () {
+		return rows;
+	}
+}
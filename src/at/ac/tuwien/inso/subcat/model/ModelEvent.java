@@ -0,0 +1,67 @@
+/* ModelEvent.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.util.Arrays;
+
+
+/**
+ * A single ModelModificationListener notification, see ModelPool.emit* ().
+ */
+abstract class ModelEvent {
+	private final Object subject;
+
+	ModelEvent () {
+		this (null);
+	}
+
+	/**
+	 * Events created at the same place for the same subject
+	 * replace each other if they are queued in ModelEventBus.
+	 * Only pass a subject for events carrying the full state.
+	 */
+	ModelEvent (Object subject) {
+		this.subject = subject;
+	}
+
+	public abstract void deliver (ModelModificationListener listener);
+
+	Object getCoalescingKey () {
+		if (subject == null) {
+			return null;
+		}
+
+		// Each emit* () method creates its own anonymous class:
+		return Arrays.<Object>asList (getClass (), subject);
+	}
+}
@@ -0,0 +1,275 @@
+/* ModelEventBus.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Delivers model modification events on a background thread.
+ *
+ * Emitting threads only append to a bounded queue. The dispatcher
+ * drains the queue in batches; within a batch, update events of the
+ * same kind and subject (e.g. bugUpdated for one bug) are coalesced
+ * to the last one. Listeners see all other events in emit order.
+ *
+ * See ModelPool.enableAsyncEvents ().
+ */
+public class ModelEventBus {
+	public static final int DEFAULT_CAPACITY = 8192;
+	private static final int MAX_BATCH_SIZE = 512;
+	private static final long POLL_INTERVAL = 100;
+
+	public enum OverflowPolicy {
+		/** Wait for free space; slows down emitters to the listener speed. */
+		BLOCK,
+		/** Discard events that do not fit into the queue. */
+		DROP
+	}
+
+	private final List<ModelModificationListener> listeners;
+	private final ArrayBlockingQueue<ModelEvent> queue;
+	private final OverflowPolicy policy;
+	private final Thread dispatcher;
+	private volatile boolean closed = false;
+
+	// Guarded by this:
+	private long posted = 0;
+	private long completed = 0;
+	private long dropped = 0;
+	private long coalesced = 0;
+	private long delivered = 0;
+	private long failed = 0;
+
+
+	ModelEventBus (List<ModelModificationListener> listeners, int capacity, OverflowPolicy policy) {
+		assert (listeners != null);
+		assert (capacity > 0);
+		assert (policy != null);
+
+		this.listeners = listeners;
+		this.queue = new ArrayBlockingQueue<ModelEvent> (capacity);
+		this.policy = policy;
+
+		dispatcher = new Thread ("ModelEventBus") {
+			@Override
+			public void run () {
+				dispatchLoop ();
+			}
+		};
+		dispatcher.setDaemon (true);
+		dispatcher.start ();
+	}
+
+	/**
+	 * Returns false if the event was not queued and
+	 * has to be delivered by the caller.
+	 */
+	boolean post (ModelEvent event) {
+		assert (event != null);
+
+		synchronized (this) {
+			if (closed) {
+				return false;
+			}
+
+			// Keeps the dispatcher running until the event is delivered:
+			posted++;
+		}
+
+		if (queue.offer (event)) {
+			return true;
+		}
+
+		// A listener emitting events must not wait for itself:
+		if (policy == OverflowPolicy.BLOCK && Thread.currentThread () != dispatcher) {
+			try {
+				queue.put (event);
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread ().interrupt ();
+			}
+		}
+
+		synchronized (this) {
+			posted--;
+			if (policy == OverflowPolicy.DROP) {
+				dropped++;
+			}
+		}
+
+		return policy == OverflowPolicy.DROP;
+	}
+
+	/**
+	 * Waits until all events posted so far are delivered.
+	 */
+	public void flush () throws InterruptedException {
+		if (Thread.currentThread () == dispatcher) {
+			return;
+		}
+
+		synchronized (this) {
+			long target = posted;
+			while (completed < target && dispatcher.isAlive ()) {
+				wait (POLL_INTERVAL);
+			}
+		}
+	}
+
+	/**
+	 * Delivers all queued events and stops the dispatcher.
+	 */
+	public void close () throws InterruptedException {
+		synchronized (this) {
+			closed = true;
+		}
+
+		if (Thread.currentThread () != dispatcher) {
+			dispatcher.join ();
+		}
+	}
+
+	public boolean isClosed () {
+		return closed;
+	}
+
+	public OverflowPolicy getOverflowPolicy () {
+		return policy;
+	}
+
+	public int getCapacity () {
+		return queue.size () + queue.remainingCapacity ();
+	}
+
+	public int getQueuedEvents () {
+		return queue.size ();
+	}
+
+	public synchronized long getDroppedEvents () {
+		return dropped;
+	}
+
+	public synchronized long getCoalescedEvents () {
+		return coalesced;
+	}
+
+	public synchronized long getDeliveredEvents () {
+		return delivered;
+	}
+
+	public synchronized long getFailedDeliveries () {
+		return failed;
+	}
+
+
+	//
+	// Helper:
+	//
+
+	private synchronized boolean isDrained () {
+		return closed && completed >= posted;
+	}
+
+	private void dispatchLoop () {
+		ArrayList<ModelEvent> batch = new ArrayList<ModelEvent> (MAX_BATCH_SIZE);
+		HashSet<Object> keys = new HashSet<Object> ();
+
+		while (!isDrained ()) {
+			ModelEvent first;
+			try {
+				first = queue.poll (POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				// Stop after the queue is drained
+				synchronized (this) {
+					closed = true;
+				}
+				continue;
+			}
+
+			if (first == null) {
+				continue;
+			}
+
+			batch.add (first);
+			queue.drainTo (batch, MAX_BATCH_SIZE - 1);
+
+			// Keep the last event per coalescing key:
+			int skipped = 0;
+			for (int i = batch.size () - 1; i >= 0; i--) {
+				Object key = batch.get (i).getCoalescingKey ();
+				if (key != null && !keys.add (key)) {
+					batch.set (i, null);
+					skipped++;
+				}
+			}
+
+			int deliveries = 0;
+			int failures = 0;
+			for (ModelEvent event : batch) {
+				if (event == null) {
+					continue;
+				}
+
+				for (ModelModificationListener listener : listeners) {
+					try {
+						event.deliver (listener);
+						deliveries++;
+					} catch (RuntimeException e) {
+						failures++;
+						e.printStackTrace ();
+					}
+				}
+			}
+
+			synchronized (this) {
+				completed += batch.size ();
+				coalesced += skipped;
+				delivered += deliveries;
+				failed += failures;
+				notifyAll ();
+			}
+
+			batch.clear ();
+			keys.clear ();
+		}
+
+		synchronized (this) {
+			notifyAll ();
+		}
+	}
+}
@@ -5,8 +5,14 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.sqlite.SQLiteConfig;
 
@@ -14,11 +20,102 @@ import at.ac.tuwien.inso.subcat.utility.sentiment.Sentiment;
 
 
 public class ModelPool {
+	private static final String VALIDATION_QUERY = "SELECT 1";
+
+	// locking_mode=NORMAL keeps the exclusive lock
+	// until the database file is accessed again:
+	private static final String RELEASE_LOCK_QUERY = "SELECT 1 FROM sqlite_master LIMIT 1";
+
+	// Connection settings while a BulkImportSession is active.
+	// The shared cache makes the exclusive lock pool-wide.
+	private static final String[] BULK_IMPORT_PRAGMAS = {
+		"PRAGMA cache_size=-262144",
+		"PRAGMA locking_mode=EXCLUSIVE"
+	};
+
+	private static final String[] DEFAULT_PRAGMAS = {
+		"PRAGMA cache_size=-2000",
+		"PRAGMA locking_mode=NORMAL"
+	};
+
+	// Read-only connections bypass the shared cache, WAL gives
+	// each read transaction its own snapshot of the database.
+	// They are opened with SQLITE_OPEN_READONLY, query_only and
+	// mmap_size are not supported by the bundled SQLite 3.7.2.
+	private static final String[] READ_ONLY_PRAGMAS = {
+		"PRAGMA temp_store=MEMORY"
+	};
+
+	public static final int DEFAULT_READ_ONLY_CACHE_SIZE = 16384;
+
+	private static class PooledConnection {
+		public final Connection conn;
+		public final StatementCache stmts;
+		public long lastUsed;
+
+		public PooledConnection (Connection conn, StatementCache stmts) {
+			this.conn = conn;
+			this.stmts = stmts;
+			this.lastUsed = System.currentTimeMillis ();
+		}
+
+		public void close () throws SQLException {
+			stmts.close ();
+			conn.close ();
+		}
+	}
 
-	private LinkedList<Connection> connections = new LinkedList<Connection> ();
-	private int connPoolSize;
+	public static class PoolStats {
+		public final int created;
+		public final int reused;
+		public final int invalidated;
+		public final int waits;
+		public final long totalWaitTime;
+		public final long maxWaitTime;
+		public final int idle;
+		public final int leased;
 
-	private LinkedList<ModelModificationListener> listeners = new LinkedList<ModelModificationListener> ();
+		public PoolStats (int created, int reused, int invalidated, int waits, long totalWaitTime, long maxWaitTime, int idle, int leased) {
+			this.created = created;
+			this.reused = reused;
+			this.invalidated = invalidated;
+			this.waits = waits;
+			this.totalWaitTime = totalWaitTime;
+			this.maxWaitTime = maxWaitTime;
+			this.idle = idle;
+			this.leased = leased;
+		}
+	}
+
+	private LinkedList<PooledConnection> connections = new LinkedList<PooledConnection> ();
+	private int connPoolSize;
+	private int maxConnections = 0;
+	private int leasedConnections = 0;
+	private int leasedReadConnections = 0;
+	private long connWaitTimeout = 30000;
+	private long validationInterval = 10000;
+	private boolean schemaInitialised = false;
+
+	private LinkedList<PooledConnection> readConnections = new LinkedList<PooledConnection> ();
+	private int readPoolSize = 2;
+	private int readCacheSize = DEFAULT_READ_ONLY_CACHE_SIZE;
+	private BulkImportSession bulkImport = null;
+	// Connections currently tuned with BULK_IMPORT_PRAGMAS:
+	private Set<Connection> bulkImportConnections = Collections.newSetFromMap (new WeakHashMap<Connection, Boolean> ());
+	private final ProjectDimensionCache dimensions = new ProjectDimensionCache ();
+	private final ConcurrentHashMap<Integer, IdentityTable> identityTables = new ConcurrentHashMap<Integer, IdentityTable> ();
+
+	private int statCreated = 0;
+	private int statReused = 0;
+	private int statInvalidated = 0;
+	private int statWaits = 0;
+	private long statTotalWaitTime = 0;
+	private long statMaxWaitTime = 0;
+
+	// Emitters iterate without locking the pool:
+	private final CopyOnWriteArrayList<ModelModificationListener> listeners = new CopyOnWriteArrayList<ModelModificationListener> ();
+	private volatile ModelEventBus eventBus = null;
+	private volatile QueryStats queryStats = null;
 	private String name;
 
 	private boolean printTemplates = false;
@@ -50,78 +147,514 @@ public class ModelPool {
 		this.name = name;
 		this.extensions = extensions;
 
-		this.connPoolSize = 0;
-		setConnectionPoolSize (connPoolSize);
+		this.connPoolSize = connPoolSize;
+
+		// Creates the schema once, the connection
+		// is kept for the first getModel () call:
+		connections.add (createConnection ());
 	}
 
 	public synchronized Model getModel () throws SQLException {
-		Connection conn = popConnection ();
-		Model model = new Model (this, conn, extensions);
+		PooledConnection pooled = popConnection ();
+		Model model = new Model (this, pooled.conn, pooled.stmts);
 		model.setPrintTemplates (printTemplates);
 		return model;
 	} 
 	
+	/**
+	 * Returns a model on a separate, read-only connection for long
+	 * running queries (reports, charts). Readers do not share the
+	 * page cache with writers and see a consistent snapshot per
+	 * transaction, use begin () / commit () to span several queries.
+	 *
+	 * setSelectedUsers () is not supported. Readers have to wait
+	 * while a bulk import session holds the exclusive lock. Read-only
+	 * connections are limited by setMaxConnections () separately.
+	 */
+	public synchronized Model getReadOnlyModel () throws SQLException {
+		if (readConnections == null) {
+			throw new SQLException ("Connection pool is closed");
+		}
+
+		awaitConnection (true);
+
+		PooledConnection conn = null;
+		while (conn == null && readConnections.size () > 0) {
+			PooledConnection pooled = readConnections.pollLast ();
+			if (isValid (pooled)) {
+				conn = pooled;
+				statReused++;
+			} else {
+				statInvalidated++;
+				closeQuietly (pooled);
+			}
+		}
+
+		if (conn == null) {
+			conn = createReadOnlyConnection ();
+		}
+
+		leasedReadConnections++;
+
+		Model model = new Model (this, conn.conn, conn.stmts, true);
+		model.setPrintTemplates (printTemplates);
+		return model;
+	}
+
+	/**
+	 * Sets the number of idle read-only connections kept open for reuse.
+	 */
+	public synchronized void setReadOnlyPoolSize (int poolSize) {
+		assert (poolSize > 0);
+
+		this.readPoolSize = poolSize;
+	}
+
+	public synchronized int getReadOnlyPoolSize () {
+		return readPoolSize;
+	}
+
+	/**
+	 * Page cache size per read-only connection in KiB.
+	 * Only applies to connections created afterwards.
+	 */
+	public synchronized void setReadOnlyCacheSize (int kibibytes) {
+		assert (kibibytes > 0);
+
+		this.readCacheSize = kibibytes;
+	}
+
+	public synchronized int getReadOnlyCacheSize () {
+		return readCacheSize;
+	}
+
+	/**
+	 * Sets the number of idle connections kept open for reuse.
+	 */
 	public synchronized void setConnectionPoolSize (int poolSize) throws SQLException {
 		assert (poolSize > 0);
 
-		if (poolSize > this.connPoolSize) {
-			for (int i = this.connPoolSize; i <= poolSize ; i++) {
-				Connection conn = createConnection ();
-				connections.add (conn);				
+		this.connPoolSize = poolSize;
+
+		while (connections.size () > poolSize) {
+			connections.pollFirst ().close ();
+		}
+	}
+
+	public synchronized int getConnectionPoolSize () {
+		return connPoolSize;
+	}
+
+	/**
+	 * Limits the number of connections in use at the same time.
+	 * getModel () blocks until a connection is returned if the
+	 * limit is reached. The limit applies to read-only connections
+	 * of getReadOnlyModel () on their own. 0 disables the limit.
+	 */
+	public synchronized void setMaxConnections (int maxConnections) {
+		assert (maxConnections >= 0);
+
+		this.maxConnections = maxConnections;
+		notifyAll ();
+	}
+
+	public synchronized int getMaxConnections () {
+		return maxConnections;
+	}
+
+	public synchronized void setConnectionWaitTimeout (long millis) {
+		assert (millis >= 0);
+
+		this.connWaitTimeout = millis;
+	}
+
+	/**
+	 * Idle connections older than the given interval are
+	 * validated before they are handed out again.
+	 */
+	public synchronized void setValidationInterval (long millis) {
+		assert (millis >= 0);
+
+		this.validationInterval = millis;
+	}
+
+	/**
+	 * Starts a bulk import session. Connections get a larger page
+	 * cache and an exclusive lock on the database until the session
+	 * is closed. Leased connections are switched
+	 * when they are returned. Other processes, including readers of
+	 * other projects, are locked out of the database file for the
+	 * whole session.
+	 *
+	 * If deferIndices is set, indices that are only used by readers
+	 * are dropped and rebuilt at the end. Indices span the whole
+	 * database, not just a single project.
+	 */
+	public synchronized BulkImportSession beginBulkImport (boolean deferIndices) throws SQLException {
+		if (connections == null) {
+			throw new SQLException ("Connection pool is closed");
+		}
+		if (bulkImport != null) {
+			throw new SQLException ("A bulk import session is already active");
+		}
+
+		BulkImportSession session = new BulkImportSession (this, deferIndices);
+		Model model = null;
+		try {
+			// New connections are tuned as soon as bulkImport is set:
+			bulkImport = session;
+			syncPragmas ();
+			model = getModel ();
+
+			if (deferIndices) {
+				model.dropDeferrableIndices ();
 			}
-		} else if (poolSize < this.connPoolSize) {
-			while (connections.size () > poolSize) {
-				connections.pollFirst ().close ();
+
+			session.start (model.countRows ());
+			return session;
+		} catch (SQLException e) {
+			bulkImport = null;
+			if (model != null) {
+				model.close ();
+				model = null;
+			}
+			syncPragmas ();
+			throw e;
+		} finally {
+			if (model != null) {
+				model.close ();
 			}
 		}
+	}
 
-		this.connPoolSize = poolSize;
+	public synchronized BulkImportSession getBulkImportSession () {
+		return bulkImport;
 	}
 
-	public synchronized boolean close () {
+	synchronized void endBulkImport (BulkImportSession session) throws SQLException {
+		assert (session != null);
+		assert (session == bulkImport);
+
+		Model model = null;
 		try {
-			for (Connection conn : connections) {
-				conn.close ();
+			model = getModel ();
+
+			if (session.getDeferIndices ()) {
+				model.createIndices ();
 			}
-	
-			connections = null;
-			connPoolSize = -1;
-			name = null;
-			return true;
-		} catch (SQLException e) {
-			return false;
+
+			session.finish (model.countRows ());
+			model.analyze ();
+		} finally {
+			bulkImport = null;
+
+			if (model != null) {
+				model.close ();
+			}
+			if (connections != null) {
+				syncPragmas ();
+			}
+		}
+	}
+
+	public synchronized PoolStats getPoolStats () {
+		return new PoolStats (statCreated, statReused, statInvalidated,
+			statWaits, statTotalWaitTime, statMaxWaitTime,
+			(connections != null)? connections.size () : 0,
+			leasedConnections);
+	}
+
+	public boolean close () {
+		// Listeners may still use the pool while the queue is drained:
+		try {
+			disableAsyncEvents ();
+		} catch (InterruptedException e) {
+			Thread.currentThread ().interrupt ();
 		}
+
+		return closeConnections ();
 	}
 
+	private synchronized boolean closeConnections () {
+		boolean success = true;
+
+		if (connections != null) {
+			for (PooledConnection pooled : connections) {
+				try {
+					pooled.close ();
+				} catch (SQLException e) {
+					success = false;
+				}
+			}
+		}
+
+		if (readConnections != null) {
+			for (PooledConnection pooled : readConnections) {
+				try {
+					pooled.close ();
+				} catch (SQLException e) {
+					success = false;
+				}
+			}
+		}
+
+		connections = null;
+		readConnections = null;
+		connPoolSize = -1;
+		notifyAll ();
+		return success;
+	}
+
+
+	/**
+	 * Shared by all models of this pool. Not synchronized on
+	 * the pool, the cache is locked on its own.
+	 */
+	ProjectDimensionCache getDimensionCache () {
+		return dimensions;
+	}
+
+	/**
+	 * Returns the identity table of proj, shared by all models of
+	 * this pool. Lock-free for the per-row lookups of the readers.
+	 */
+	public IdentityTable getIdentityTable (Project proj) {
+		assert (proj != null);
+		assert (proj.getId () != null);
+
+		IdentityTable table = identityTables.get (proj.getId ());
+		if (table == null) {
+			IdentityTable created = new IdentityTable (proj);
+			table = identityTables.putIfAbsent (proj.getId (), created);
+			if (table == null) {
+				table = created;
+			}
+		}
+
+		return table;
+	}
+
+	/**
+	 * Forgets all interned identities, e.g. after a rollback
+	 * that may have discarded rows with interned ids.
+	 */
+	void clearIdentityTables () {
+		for (IdentityTable table : identityTables.values ()) {
+			table.clear ();
+		}
+	}
 
 	//
 	// Helper:
 	//
-	private synchronized Connection popConnection () throws SQLException {
-		return createConnection ();
-		/*
-		assert (connections != null);
 
-		Connection conn = connections.poll ();
-		if (connections.size () == 0) {
+	// Blocks until less than maxConnections connections are leased:
+	private synchronized void awaitConnection (boolean readOnly) throws SQLException {
+		if (maxConnections > 0 && getLeased (readOnly) >= maxConnections) {
+			long start = System.currentTimeMillis ();
+			long remaining = connWaitTimeout;
+
+			statWaits++;
+
+			try {
+				while (isOpen (readOnly) && getLeased (readOnly) >= maxConnections && remaining > 0) {
+					wait (remaining);
+					remaining = connWaitTimeout - (System.currentTimeMillis () - start);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread ().interrupt ();
+				throw new SQLException ("Interrupted while waiting for a connection", e);
+			} finally {
+				long waited = System.currentTimeMillis () - start;
+				statTotalWaitTime += waited;
+				statMaxWaitTime = Math.max (statMaxWaitTime, waited);
+			}
+
+			if (isOpen (readOnly) == false) {
+				throw new SQLException ("Connection pool is closed");
+			}
+			if (getLeased (readOnly) >= maxConnections) {
+				throw new SQLException ("Timeout: No connection available after " + connWaitTimeout + "ms");
+			}
+		}
+	}
+
+	private int getLeased (boolean readOnly) {
+		return (readOnly)? leasedReadConnections : leasedConnections;
+	}
+
+	private boolean isOpen (boolean readOnly) {
+		return ((readOnly)? readConnections : connections) != null;
+	}
+
+	private synchronized PooledConnection popConnection () throws SQLException {
+		if (connections == null) {
+			throw new SQLException ("Connection pool is closed");
+		}
+
+		awaitConnection (false);
+
+		PooledConnection conn = null;
+		while (conn == null && connections.size () > 0) {
+			PooledConnection pooled = connections.pollLast ();
+			if (isValid (pooled)) {
+				conn = pooled;
+				statReused++;
+			} else {
+				statInvalidated++;
+				closeQuietly (pooled);
+			}
+		}
+
+		if (conn == null) {
 			conn = createConnection ();
 		}
 
+		try {
+			syncPragmas (conn.conn);
+		} catch (SQLException e) {
+			closeQuietly (conn);
+			throw e;
+		}
+
+		leasedConnections++;
 		return conn;
-		*/		
 	}
 
-	synchronized void pushConnection (Connection conn) throws SQLException {
-		conn.close ();
-		/*
+	synchronized void pushConnection (Connection conn, StatementCache stmts) throws SQLException {
+		assert (conn != null);
+		assert (stmts != null);
+
+		stmts.setQueryStats (queryStats);
+
+		leasedConnections--;
+		notifyAll ();
+
+		PooledConnection pooled = new PooledConnection (conn, stmts);
+		if (connections == null || connections.size () >= connPoolSize || conn.isClosed ()) {
+			pooled.close ();
+			return ;
+		}
+
+		// Do not leak open transactions into the next lease:
+		try {
+			if (conn.getAutoCommit () == false) {
+				conn.rollback ();
+				conn.setAutoCommit (true);
+			}
+
+			syncPragmas (conn);
+		} catch (SQLException e) {
+			closeQuietly (pooled);
+			throw e;
+		}
+
+		connections.add (pooled);
+	}
+
+	synchronized void pushReadOnlyConnection (Connection conn, StatementCache stmts) throws SQLException {
 		assert (conn != null);
+		assert (stmts != null);
+
+		stmts.setQueryStats (queryStats);
+
+		leasedReadConnections--;
+		notifyAll ();
+
+		PooledConnection pooled = new PooledConnection (conn, stmts);
+		if (readConnections == null || readConnections.size () >= readPoolSize || conn.isClosed ()) {
+			pooled.close ();
+			return ;
+		}
+
+		// Release the snapshot, otherwise WAL checkpoints stall:
+		try {
+			if (conn.getAutoCommit () == false) {
+				conn.rollback ();
+				conn.setAutoCommit (true);
+			}
+		} catch (SQLException e) {
+			closeQuietly (pooled);
+			throw e;
+		}
+
+		readConnections.add (pooled);
+	}
+
+	private synchronized void syncPragmas () throws SQLException {
+		for (PooledConnection pooled : connections) {
+			syncPragmas (pooled.conn);
+		}
+	}
+
+	// Switches the connection to the settings of the current session:
+	private synchronized void syncPragmas (Connection conn) throws SQLException {
+		boolean tuned = bulkImportConnections.contains (conn);
+		if (bulkImport != null && tuned == false) {
+			applyPragmas (conn, BULK_IMPORT_PRAGMAS);
+			bulkImportConnections.add (conn);
+		} else if (bulkImport == null && tuned == true) {
+			applyPragmas (conn, DEFAULT_PRAGMAS);
+			bulkImportConnections.remove (conn);
+
+			Statement stmt = conn.createStatement ();
+			try {
+				stmt.executeQuery (RELEASE_LOCK_QUERY).close ();
+			} finally {
+				stmt.close ();
+			}
+		}
+	}
+
+	private static void applyPragmas (Connection conn, String[] pragmas) throws SQLException {
+		Statement stmt = conn.createStatement ();
+		try {
+			for (String pragma : pragmas) {
+				stmt.execute (pragma);
+			}
+		} finally {
+			stmt.close ();
+		}
+	}
 
-		if (connections == null || connections.size () == connPoolSize) {
+	private boolean isValid (PooledConnection pooled) {
+		try {
+			if (pooled.conn.isClosed ()) {
+				return false;
+			}
+
+			if (System.currentTimeMillis () - pooled.lastUsed < validationInterval) {
+				return true;
+			}
+
+			Statement stmt = pooled.conn.createStatement ();
+			try {
+				stmt.executeQuery (VALIDATION_QUERY).close ();
+			} finally {
+				stmt.close ();
+			}
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private static void setQueryStats (List<PooledConnection> pool, QueryStats queryStats) {
+		if (pool == null) {
+			return ;
+		}
+
+		for (PooledConnection pooled : pool) {
+			pooled.stmts.setQueryStats (queryStats);
+		}
+	}
+
+	private static void closeQuietly (PooledConnection conn) {
+		try {
 			conn.close ();
-		} else {
-			connections.add (conn);
+		} catch (SQLException e) {
+			// Ignore
 		}
-		*/
 	}
 
 	
@@ -129,19 +662,86 @@ public class ModelPool {
 	// Listener:
 	//
 
-	public synchronized void addListener (ModelModificationListener listener) {
+	public void addListener (ModelModificationListener listener) {
 		assert (listener != null);
 
 		listeners.add (listener);
 	}
 
-	public synchronized void removeListener (ModelModificationListener listener) {
+	public void removeListener (ModelModificationListener listener) {
 		assert (listener != null);
 
 		listeners.remove (listener);
 	}
 
-	public synchronized boolean remove() throws SQLException {
+	/**
+	 * Delivers listener events on a background thread. Emitting
+	 * threads only wait if the queue is full and policy is BLOCK.
+	 * Returns the active bus if async delivery is already enabled.
+	 */
+	public synchronized ModelEventBus enableAsyncEvents (int capacity, ModelEventBus.OverflowPolicy policy) {
+		assert (capacity > 0);
+		assert (policy != null);
+
+		if (eventBus == null) {
+			eventBus = new ModelEventBus (listeners, capacity, policy);
+		}
+
+		return eventBus;
+	}
+
+	public ModelEventBus enableAsyncEvents () {
+		return enableAsyncEvents (ModelEventBus.DEFAULT_CAPACITY, ModelEventBus.OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Delivers all queued events and switches back
+	 * to synchronous delivery on the emitting thread.
+	 */
+	public void disableAsyncEvents () throws InterruptedException {
+		ModelEventBus bus;
+		synchronized (this) {
+			bus = eventBus;
+			eventBus = null;
+		}
+
+		if (bus != null) {
+			bus.close ();
+		}
+	}
+
+	public ModelEventBus getEventBus () {
+		return eventBus;
+	}
+
+	/**
+	 * Records latency statistics for all statements executed on
+	 * connections leased afterwards. Executions slower than
+	 * slowThresholdMillis are logged with their query plan.
+	 */
+	public synchronized QueryStats enableQueryStats (long slowThresholdMillis) {
+		assert (slowThresholdMillis >= 0);
+
+		if (queryStats == null) {
+			queryStats = new QueryStats (slowThresholdMillis);
+			setQueryStats (connections, queryStats);
+			setQueryStats (readConnections, queryStats);
+		}
+
+		return queryStats;
+	}
+
+	public synchronized void disableQueryStats () {
+		queryStats = null;
+		setQueryStats (connections, null);
+		setQueryStats (readConnections, null);
+	}
+
+	public QueryStats getQueryStats () {
+		return queryStats;
+	}
+
+	public boolean remove() throws SQLException {
 		assert (name != null);
 
 		close ();
@@ -151,7 +751,7 @@ public class ModelPool {
 		return res;
 	}
 
-	private Connection createConnection () throws SQLException {
+	private PooledConnection createConnection () throws SQLException {
 		// TODO: Escape path
 		SQLiteConfig config = new SQLiteConfig ();
 		config.enableLoadExtension (true);
@@ -163,15 +763,54 @@ public class ModelPool {
 
 		Connection conn = DriverManager.getConnection ("jdbc:sqlite:" + name, config.toProperties());
 		
-		Statement stmt = conn.createStatement();
-		//stmt.executeUpdate ("PRAGMA journal_mode=MEMORY");
-		stmt.executeUpdate ("PRAGMA temp_store=OFF");
-		stmt.executeUpdate ("PRAGMA synchronous=OFF");
-		stmt.executeUpdate ("PRAGMA count_changes=OFF");
-		stmt.executeUpdate ("PRAGMA journal_mode=WAL");
-		stmt.close ();
-		
-		return conn;
+		try {
+			Statement stmt = conn.createStatement();
+			//stmt.executeUpdate ("PRAGMA journal_mode=MEMORY");
+			stmt.executeUpdate ("PRAGMA temp_store=OFF");
+			stmt.executeUpdate ("PRAGMA synchronous=OFF");
+			stmt.executeUpdate ("PRAGMA count_changes=OFF");
+			stmt.executeUpdate ("PRAGMA journal_mode=WAL");
+			stmt.close ();
+
+			Model.initConnection (conn, extensions, !schemaInitialised);
+			schemaInitialised = true;
+
+			syncPragmas (conn);
+		} catch (SQLException e) {
+			conn.close ();
+			throw e;
+		}
+
+		statCreated++;
+		StatementCache stmts = new StatementCache (conn);
+		stmts.setQueryStats (queryStats);
+		return new PooledConnection (conn, stmts);
+	}
+
+	private PooledConnection createReadOnlyConnection () throws SQLException {
+		SQLiteConfig config = new SQLiteConfig ();
+		config.enableLoadExtension (true);
+		config.setReadOnly (true);
+
+		Connection conn = DriverManager.getConnection ("jdbc:sqlite:" + name, config.toProperties());
+
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.executeUpdate ("PRAGMA cache_size=-" + readCacheSize);
+			stmt.close ();
+
+			// Temporary tables are not affected by SQLITE_OPEN_READONLY:
+			Model.initConnection (conn, extensions, false);
+			applyPragmas (conn, READ_ONLY_PRAGMAS);
+		} catch (SQLException e) {
+			conn.close ();
+			throw e;
+		}
+
+		statCreated++;
+		StatementCache stmts = new StatementCache (conn);
+		stmts.setQueryStats (queryStats);
+		return new PooledConnection (conn, stmts);
 	}
 
 
@@ -179,187 +818,300 @@ public class ModelPool {
 	// Emitter:
 	//
 
-	synchronized void emitFileChangeAdded (FileChange change) {
-		for (ModelModificationListener listener : listeners) {
-			listener.fileChangeAdded (change);
+	private void dispatch (ModelEvent event) {
+		if (listeners.isEmpty ()) {
+			return;
 		}
-	}
 
-	synchronized void emitCategoryAdded (Category category) {
-		for (ModelModificationListener listener : listeners) {
-			listener.categoryAdded (category);
+		ModelEventBus bus = eventBus;
+		if (bus != null && bus.post (event)) {
+			return;
 		}
-	}
 
-	synchronized void emitComponentAdded (Component component) {
 		for (ModelModificationListener listener : listeners) {
-			listener.componentAdded (component);
+			event.deliver (listener);
 		}
 	}
 
-	synchronized void emitAttachmentAdded (Attachment attachment) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentAdded (attachment);
-		}
+	void emitFileChangeAdded (final FileChange change) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.fileChangeAdded (change);
+			}
+		});
 	}
 
-	public void emitAttachmentUpdated (Attachment attachment) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentUpdated (attachment);
-		}
+	void emitCategoryAdded (final Category category) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.categoryAdded (category);
+			}
+		});
 	}
 
-	synchronized void emitAttachmentStatusHistoryAdded (AttachmentStatusHistory history) {	
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentStatusHistoryAdded (history);
-		}
+	void emitComponentAdded (final Component component) {
+		dimensions.invalidate (component.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.componentAdded (component);
+			}
+		});
 	}
 
-	synchronized void emitBugAdded (Bug bug) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugAdded (bug);
-		}
+	void emitAttachmentAdded (final Attachment attachment) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentAdded (attachment);
+			}
+		});
 	}
 
-	synchronized void emitBugUpdated (Bug bug) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugUpdated (bug);
-		}
+	public void emitAttachmentUpdated (final Attachment attachment) {
+		dispatch (new ModelEvent (attachment) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentUpdated (attachment);
+			}
+		});
 	}
 
-	synchronized void emitBugHistoryAdded (BugHistory history) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugHistoryAdded (history);
-		}
+	void emitAttachmentStatusHistoryAdded (final AttachmentStatusHistory history) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentStatusHistoryAdded (history);
+			}
+		});
 	}
 
-	synchronized void emitUserAdded (User user) {
-		for (ModelModificationListener listener : listeners) {
-			listener.userAdded (user);
-		}
+	void emitBugAdded (final Bug bug) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugAdded (bug);
+			}
+		});
 	}
 
-	synchronized void emitBugfixCommitAdded (BugfixCommit bugfix) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugfixCommitAdded (bugfix);
-		}
+	void emitBugUpdated (final Bug bug) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugUpdated (bug);
+			}
+		});
 	}
 
-	synchronized void emitFileRenameAdded (FileRename rename) {
-		for (ModelModificationListener listener : listeners) {
-			listener.fileRenameAdded (rename);
-		}
+	void emitBugHistoryAdded (final BugHistory history) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugHistoryAdded (history);
+			}
+		});
 	}
 
-	synchronized void emitFileDeletionAdded (FileDeletion deletion) {
-		for (ModelModificationListener listener : listeners) {
-			listener.fileDeletedAdded (deletion);
-		}
+	void emitUserAdded (final User user) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.userAdded (user);
+			}
+		});
+	}
+
+	void emitBugfixCommitAdded (final BugfixCommit bugfix) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugfixCommitAdded (bugfix);
+			}
+		});
+	}
+
+	void emitFileRenameAdded (final FileRename rename) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.fileRenameAdded (rename);
+			}
+		});
+	}
+
+	void emitFileDeletionAdded (final FileDeletion deletion) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.fileDeletedAdded (deletion);
+			}
+		});
 	}
 	
-	synchronized void emitManagedFileAdded (ManagedFile file) {
-		for (ModelModificationListener listener : listeners) {
-			listener.managedFileAdded (file);
-		}
+	void emitManagedFileAdded (final ManagedFile file) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.managedFileAdded (file);
+			}
+		});
 	}
 
-	synchronized void emitManagedFileCopyAdded (ManagedFileCopy copy) {
-		for (ModelModificationListener listener : listeners) {
-			listener.managedFileCopyAdded (copy);
-		}
+	void emitManagedFileCopyAdded (final ManagedFileCopy copy) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.managedFileCopyAdded (copy);
+			}
+		});
 	}
 
-	synchronized void emitCommitAdded (Commit commit) {
-		for (ModelModificationListener listener : listeners) {
-			listener.commitAdded (commit);
-		}
+	void emitCommitAdded (final Commit commit) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.commitAdded (commit);
+			}
+		});
 	}
 
-	synchronized void emitStatusAdded (Status status) {	
-		for (ModelModificationListener listener : listeners) {
-			listener.statusAdded (status);
-		}
+	void emitStatusAdded (final Status status) {
+		dimensions.invalidate (status.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.statusAdded (status);
+			}
+		});
 	}
 
-	synchronized void emitAttachmentStatusAdded (AttachmentStatus status) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentStatusAdded (status);
-		}
+	void emitAttachmentStatusAdded (final AttachmentStatus status) {
+		dimensions.invalidate (status.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentStatusAdded (status);
+			}
+		});
 	}
 
-	synchronized void emitCommentAdded (Comment cmnt) {
-		for (ModelModificationListener listener : listeners) {
-			listener.commentAdded (cmnt);
-		}
+	void emitCommentAdded (final Comment cmnt) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.commentAdded (cmnt);
+			}
+		});
 	}
 
-	synchronized void emitPriorityAdded (Priority priority) {
-		for (ModelModificationListener listener : listeners) {
-			listener.priorityAdded (priority);
-		}
+	void emitPriorityAdded (final Priority priority) {
+		dimensions.invalidate (priority.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.priorityAdded (priority);
+			}
+		});
 	}
 
-	synchronized void emitSeverityAdded (Severity severity) {	
-		for (ModelModificationListener listener : listeners) {
-			listener.severityAdded (severity);
-		}
+	void emitSeverityAdded (final Severity severity) {
+		dimensions.invalidate (severity.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.severityAdded (severity);
+			}
+		});
 	}
 
-	synchronized void emitInteraction (Interaction relation) {
-		for (ModelModificationListener listener : listeners) {
-			listener.interactionAdded (relation);
-		}
+	void emitInteraction (final Interaction relation) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.interactionAdded (relation);
+			}
+		});
 	}
 	
-	synchronized void emitIdentityAdded (Identity identity) {
-		for (ModelModificationListener listener : listeners) {
-			listener.identityAdded (identity);
-		}
+	void emitIdentityAdded (final Identity identity) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.identityAdded (identity);
+			}
+		});
 	}
 	
-	synchronized void emitProjectAdded (Project project) {
-		for (ModelModificationListener listener : listeners) {
-			listener.projectAdded (project);
-		}
+	void emitProjectAdded (final Project project) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.projectAdded (project);
+			}
+		});
 	}
 
-	synchronized void emitProjectUpdated (Project project) {
-		for (ModelModificationListener listener : listeners) {
-			listener.projectUpdated (project);
-		}
+	void emitProjectUpdated (final Project project) {
+		dispatch (new ModelEvent (project) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.projectUpdated (project);
+			}
+		});
 	}
 
-	synchronized void emitBugCategoryAdded (Bug bug, Category category) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugCategoryAdded (bug, category);
-		}
+	void emitBugCategoryAdded (final Bug bug, final Category category) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugCategoryAdded (bug, category);
+			}
+		});
 	}
 
-	synchronized void emitCommitCategoryAdded (Commit commit, Category category) {
-		for (ModelModificationListener listener : listeners) {
-			listener.commitCategoryAdded (commit, category);
-		}
+	void emitCommitCategoryAdded (final Commit commit, final Category category) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.commitCategoryAdded (commit, category);
+			}
+		});
 	}
 
-	public synchronized void emitDictionaryAdded (Dictionary dict) {
-		for (ModelModificationListener listener : listeners) {
-			listener.commitDictionaryAdded (dict);
-		}
+	public void emitDictionaryAdded (final Dictionary dict) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.commitDictionaryAdded (dict);
+			}
+		});
 	}
 
-	public synchronized void emitAttachmentReplacementAdded (Attachment oldAtt,
-			Attachment newAtt) {
-
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentReplacementAdded (oldAtt, newAtt);
-		}
+	public void emitAttachmentReplacementAdded (final Attachment oldAtt,
+			final Attachment newAtt) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentReplacementAdded (oldAtt, newAtt);
+			}
+		});
 	}
 
-	public synchronized void emitSentimentAdded (Sentiment sentiment) {
-
-		for (ModelModificationListener listener : listeners) {
-			listener.sentimentAdded (sentiment);
-		}
+	public void emitSentimentAdded (final Sentiment sentiment) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.sentimentAdded (sentiment);
+			}
+		});
 	}
 
 	public void setPrintTemplates (boolean printTemplates) {
@@ -370,354 +1122,539 @@ public class ModelPool {
 		return this.printTemplates;
 	}
 
-	synchronized void emitAttachmentIsObsoleteAdded (Attachment attachment, Identity identity, Date date, boolean oldValue, boolean newValue) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentIsObsoleteAdded (attachment, identity, date, oldValue, newValue);
-		}
+	void emitAttachmentIsObsoleteAdded (final Attachment attachment, final Identity identity, final Date date, final boolean oldValue, final boolean newValue) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentIsObsoleteAdded (attachment, identity, date, oldValue, newValue);
+			}
+		});
 	}
 
-	synchronized void emitBugCcHistoryAdded (Bug bug, Date date, Identity addedBy, Identity cc, String ccMail, boolean removed) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugCcHistoryAdded (bug, date, addedBy, cc, ccMail, removed);
-		}
+	void emitBugCcHistoryAdded (final Bug bug, final Date date, final Identity addedBy, final Identity cc, final String ccMail, final boolean removed) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugCcHistoryAdded (bug, date, addedBy, cc, ccMail, removed);
+			}
+		});
 	}
 
-	synchronized void emitBugBlocksAdded (Bug bug, Date date, Identity addedBy,
-			boolean removed) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugBlocksAdded (bug, date, addedBy, removed);
-		}
+	void emitBugBlocksAdded (final Bug bug, final Date date, final Identity addedBy,
+			final boolean removed) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugBlocksAdded (bug, date, addedBy, removed);
+			}
+		});
 	}
 
-	synchronized void emitBugAliasAdded (Bug bug, Identity addedBy, Date date, String alias) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugAliasAdded (bug, addedBy, date, alias);
-		}
+	void emitBugAliasAdded (final Bug bug, final Identity addedBy, final Date date, final String alias) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugAliasAdded (bug, addedBy, date, alias);
+			}
+		});
 	}
 
-	synchronized void emitSeverityHistoryAdded (Bug bug, Identity addedBy, Date date, Severity oldSeverity, Severity newSeverity) {
-		for (ModelModificationListener listener : listeners) {
-			listener.severityHistoryAdded (bug, addedBy, date, oldSeverity, newSeverity);
-		}
+	void emitSeverityHistoryAdded (final Bug bug, final Identity addedBy, final Date date, final Severity oldSeverity, final Severity newSeverity) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.severityHistoryAdded (bug, addedBy, date, oldSeverity, newSeverity);
+			}
+		});
 	}
 
-	synchronized void emitPriorityHistoryAdded (Bug bug, Identity addedBy, Date date,
-			Priority oldPriority, Priority newPriority) {
-		for (ModelModificationListener listener : listeners) {
-			listener.priorityHistoryAdded (bug, addedBy, date, oldPriority, newPriority);
-		}
+	void emitPriorityHistoryAdded (final Bug bug, final Identity addedBy, final Date date,
+			final Priority oldPriority, final Priority newPriority) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.priorityHistoryAdded (bug, addedBy, date, oldPriority, newPriority);
+			}
+		});
 	}
 
-	synchronized void emitStatusHistoryAdded (Bug bug, Identity addedBy, Date date,
-			Status oldStatus, Status newStatus) {
-		for (ModelModificationListener listener : listeners) {
-			listener.statusHistoryAdded (bug, addedBy, date, oldStatus, newStatus);
-		}
+	void emitStatusHistoryAdded (final Bug bug, final Identity addedBy, final Date date,
+			final Status oldStatus, final Status newStatus) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.statusHistoryAdded (bug, addedBy, date, oldStatus, newStatus);
+			}
+		});
 	}
 
-	synchronized void emitResolutionAdded (Resolution resolution) {
-		for (ModelModificationListener listener : listeners) {
-			listener.resolutionAdded (resolution);
-		}
+	void emitResolutionAdded (final Resolution resolution) {
+		dimensions.invalidate (resolution.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.resolutionAdded (resolution);
+			}
+		});
 	}
 
-	synchronized void emitResolutionHistoryAdded (Bug bug, Identity addedBy,
-			Date date, Resolution resolution) {
-		for (ModelModificationListener listener : listeners) {
-			listener.resolutionHistoryAdded (bug, addedBy, date, resolution);
-		}
+	void emitResolutionHistoryAdded (final Bug bug, final Identity addedBy,
+			final Date date, final Resolution resolution) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.resolutionHistoryAdded (bug, addedBy, date, resolution);
+			}
+		});
 	}
 
-	synchronized void emitConfirmedHistoryAdded (Bug bug, Identity addedBy,
-			Date date, boolean removed) {
-		for (ModelModificationListener listener : listeners) {
-			listener.confiremdHistoryAdded (bug, addedBy, date, removed);
-		}
+	void emitConfirmedHistoryAdded (final Bug bug, final Identity addedBy,
+			final Date date, final boolean removed) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.confiremdHistoryAdded (bug, addedBy, date, removed);
+			}
+		});
 	}
 
-	synchronized void emitVersionAdded (Version version) {
-		for (ModelModificationListener listener : listeners) {
-			listener.versionAdded (version);
-		}
+	void emitVersionAdded (final Version version) {
+		dimensions.invalidate (version.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.versionAdded (version);
+			}
+		});
 	}
 
-	synchronized void emitVersionHistoryAdded (Bug bug, Identity addedBy, Date date,
-			Version oldVersion, Version newVersion) {
-		for (ModelModificationListener listener : listeners) {
-			listener.versionHistoryAdded (bug, addedBy, date, oldVersion, newVersion);
-		}
+	void emitVersionHistoryAdded (final Bug bug, final Identity addedBy, final Date date,
+			final Version oldVersion, final Version newVersion) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.versionHistoryAdded (bug, addedBy, date, oldVersion, newVersion);
+			}
+		});
 	}
 
-	synchronized void emitOperatingSystemAdded (OperatingSystem os) {
-		for (ModelModificationListener listener : listeners) {
-			listener.operatingSystemAdded (os);
-		}
+	void emitOperatingSystemAdded (final OperatingSystem os) {
+		dimensions.invalidate (os.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.operatingSystemAdded (os);
+			}
+		});
 	}
 
-	synchronized void emitOperatingSystemHistoryAdded (Bug bug, Identity addedBy,
-			Date date, OperatingSystem oldOs, OperatingSystem newOs) {
-		for (ModelModificationListener listener : listeners) {
-			listener.operatingSystemHistoryAdded (bug, addedBy, date, oldOs, newOs);
-		}
+	void emitOperatingSystemHistoryAdded (final Bug bug, final Identity addedBy,
+			final Date date, final OperatingSystem oldOs, final OperatingSystem newOs) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.operatingSystemHistoryAdded (bug, addedBy, date, oldOs, newOs);
+			}
+		});
 	}
 
-	synchronized void emitAttachmentHistoryAdded (Attachment attachment,
-			Identity addedBy, Date date, String fieldName, String oldValue,
-			String newValue) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentHistoryAdded (attachment, addedBy, date, fieldName, oldValue, newValue);
-		}
+	void emitAttachmentHistoryAdded (final Attachment attachment,
+			final Identity addedBy, final Date date, final String fieldName, final String oldValue,
+			final String newValue) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentHistoryAdded (attachment, addedBy, date, fieldName, oldValue, newValue);
+			}
+		});
 	}
 
-	synchronized void emitKeywordAdded (Keyword keyword) {
-		for (ModelModificationListener listener : listeners) {
-			listener.keywordAdded (keyword);
-		}
+	void emitKeywordAdded (final Keyword keyword) {
+		dimensions.invalidate (keyword.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.keywordAdded (keyword);
+			}
+		});
 	}
 
-	synchronized void emitKeywordHistoryAdded (Bug bug, Identity addedBy, Date date,
-			Keyword keyword, boolean removed) {
-		for (ModelModificationListener listener : listeners) {
-			listener.keywordHistoryAdded (bug, addedBy, date, keyword, removed);
-		}
+	void emitKeywordHistoryAdded (final Bug bug, final Identity addedBy, final Date date,
+			final Keyword keyword, final boolean removed) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.keywordHistoryAdded (bug, addedBy, date, keyword, removed);
+			}
+		});
 	}
 
-	synchronized void emitMilestoneAdded (Milestone ms) {
-		for (ModelModificationListener listener : listeners) {
-			listener.milestoneAdded (ms);
-		}
+	void emitMilestoneAdded (final Milestone ms) {
+		dimensions.invalidate (ms.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.milestoneAdded (ms);
+			}
+		});
 	}
 
-	synchronized void emitMilestoneHistoryAdded (Bug bug, Identity addedBy,
-			Date date, Milestone oldMilestone, Milestone newMilestone) {
-		for (ModelModificationListener listener : listeners) {
-			listener.milestoneAdded (bug, addedBy, date, oldMilestone, newMilestone);
-		}
+	void emitMilestoneHistoryAdded (final Bug bug, final Identity addedBy,
+			final Date date, final Milestone oldMilestone, final Milestone newMilestone) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.milestoneAdded (bug, addedBy, date, oldMilestone, newMilestone);
+			}
+		});
 	}
 
-	synchronized void emitBugGroupAdded (BugGroup grp) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugGroupAdded (grp);
-		}
+	void emitBugGroupAdded (final BugGroup grp) {
+		dimensions.invalidate (grp.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugGroupAdded (grp);
+			}
+		});
 	}
 
-	synchronized void emitAssignedToHistoryAdded (Bug bug, Identity addedBy, Date date,
-			String identifierAdded, BugGroup groupAdded, Identity identityAdded,
-			String identifierRemoved, BugGroup groupRemoved, Identity identityRemoved) {
-		for (ModelModificationListener listener : listeners) {
-			listener.assignedToAdded (bug, addedBy, date, identifierAdded, groupAdded, identityAdded, identifierRemoved, groupRemoved, identityRemoved);
-		}
+	void emitAssignedToHistoryAdded (final Bug bug, final Identity addedBy, final Date date,
+			final String identifierAdded, final BugGroup groupAdded, final Identity identityAdded,
+			final String identifierRemoved, final BugGroup groupRemoved, final Identity identityRemoved) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.assignedToAdded (bug, addedBy, date, identifierAdded, groupAdded, identityAdded, identifierRemoved, groupRemoved, identityRemoved);
+			}
+		});
 	}
 
-	synchronized void emitQaContactHistoryAdded (Bug bug, Identity addedBy,
-			Date date, String identifierAdded, BugGroup groupAdded,
-			Identity identityAdded, String identifierRemoved,
-			BugGroup groupRemoved, Identity identityRemoved) {
-		for (ModelModificationListener listener : listeners) {
-			listener.qaContactAdded (bug, addedBy, date, identifierAdded, groupAdded, identityAdded, identifierRemoved, groupRemoved, identityRemoved);
-		}
+	void emitQaContactHistoryAdded (final Bug bug, final Identity addedBy,
+			final Date date, final String identifierAdded, final BugGroup groupAdded,
+			final Identity identityAdded, final String identifierRemoved,
+			final BugGroup groupRemoved, final Identity identityRemoved) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.qaContactAdded (bug, addedBy, date, identifierAdded, groupAdded, identityAdded, identifierRemoved, groupRemoved, identityRemoved);
+			}
+		});
 	}
 
-	synchronized void emitPlatformAdded (Platform pf) {
-		for (ModelModificationListener listener : listeners) {
-			listener.platformAdded (pf);
-		}
+	void emitPlatformAdded (final Platform pf) {
+		dimensions.invalidate (pf.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.platformAdded (pf);
+			}
+		});
 	}
 
-	synchronized void emitBugDeadlineAdded (Bug bug, Date deadline) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDeadlineAdded (bug, deadline);
-		}
+	void emitBugDeadlineAdded (final Bug bug, final Date deadline) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDeadlineAdded (bug, deadline);
+			}
+		});
 	}
 
-	synchronized void emitBugDeadlineUpdated (Bug bug, Date deadline) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDeadlineUpdated (bug, deadline);
-		}
+	void emitBugDeadlineUpdated (final Bug bug, final Date deadline) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDeadlineUpdated (bug, deadline);
+			}
+		});
 	}
 
-	synchronized void emitBugDuplicationUpdated (Bug bug, Integer duplication) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDuplicationUpdated (bug, duplication);
-		}
+	void emitBugDuplicationUpdated (final Bug bug, final Integer duplication) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDuplicationUpdated (bug, duplication);
+			}
+		});
 	}
 
-	synchronized void emitBugDuplicationAdded (Bug bug, Integer duplication) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDuplicationAdded (bug, duplication);
-		}
+	void emitBugDuplicationAdded (final Bug bug, final Integer duplication) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDuplicationAdded (bug, duplication);
+			}
+		});
 	}
 
-	synchronized void emitBugQaContactAdded (Bug bug, Identity identity, BugGroup group) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugQaContactAdded (bug, identity, group);
-		}
+	void emitBugQaContactAdded (final Bug bug, final Identity identity, final BugGroup group) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugQaContactAdded (bug, identity, group);
+			}
+		});
 	}
 
-	synchronized void emitBugQaContactUpdated (Bug bug, Identity identity, BugGroup group) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugQaContactUpdated (bug, identity, group);
-		}
+	void emitBugQaContactUpdated (final Bug bug, final Identity identity, final BugGroup group) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugQaContactUpdated (bug, identity, group);
+			}
+		});
 	}
 
-	synchronized void emitBugBlocksAdded (Bug bug, Integer[] blocks) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugBlocksAdded (bug, blocks);
-		}
+	void emitBugBlocksAdded (final Bug bug, final Integer[] blocks) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugBlocksAdded (bug, blocks);
+			}
+		});
 	}
 
-	synchronized void emitBugBlocksUpdated (Bug bug, Integer[] blocks) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugBlocksUpdated (bug, blocks);
-		}
+	void emitBugBlocksUpdated (final Bug bug, final Integer[] blocks) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugBlocksUpdated (bug, blocks);
+			}
+		});
 	}
 
-	synchronized void emitBugDependsOnAdded (Bug bug, Integer[] dependsOn) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDependsOnAdded (bug, dependsOn);
-		}
+	void emitBugDependsOnAdded (final Bug bug, final Integer[] dependsOn) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDependsOnAdded (bug, dependsOn);
+			}
+		});
 	}
 
-	synchronized void emitBugDependsOnUpdated (Bug bug, Integer[] dependsOn) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDependsOnUpdated (bug, dependsOn);
-		}
+	void emitBugDependsOnUpdated (final Bug bug, final Integer[] dependsOn) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDependsOnUpdated (bug, dependsOn);
+			}
+		});
 	}
 
-	synchronized void emitBugKeywordsAdded (Bug bug, Keyword[] keywords) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugKeywordsAdded (bug, keywords);
-		}
+	void emitBugKeywordsAdded (final Bug bug, final Keyword[] keywords) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugKeywordsAdded (bug, keywords);
+			}
+		});
 	}
 
-	synchronized void emitBugKeywordsUpdated (Bug bug, Keyword[] keywords) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugKeywordsUpdated (bug, keywords);
-		}
+	void emitBugKeywordsUpdated (final Bug bug, final Keyword[] keywords) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugKeywordsUpdated (bug, keywords);
+			}
+		});
 	}
 
-	synchronized void emitBugCcUpdated (Bug bug, Identity[] identities) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugCcUpdated (bug, identities);
-		}
+	void emitBugCcUpdated (final Bug bug, final Identity[] identities) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugCcUpdated (bug, identities);
+			}
+		});
 	}
 
-	synchronized void emitBugCcAdded (Bug bug, Identity[] identities) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugCcAdded (bug, identities);
-		}
+	void emitBugCcAdded (final Bug bug, final Identity[] identities) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugCcAdded (bug, identities);
+			}
+		});
 	}
 
-	synchronized void emitBugGroupMembershipsAdded (Bug bug, BugGroup[] groups) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugGroupMembershipsAdded (bug, groups);
-		}
+	void emitBugGroupMembershipsAdded (final Bug bug, final BugGroup[] groups) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugGroupMembershipsAdded (bug, groups);
+			}
+		});
 	}
 
-	synchronized void emitBugGroupMembershipsUpdated (Bug bug, BugGroup[] groups) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugGroupMembershipsUpdated (bug, groups);
-		}
+	void emitBugGroupMembershipsUpdated (final Bug bug, final BugGroup[] groups) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugGroupMembershipsUpdated (bug, groups);
+			}
+		});
 	}
 
-	synchronized void emitBugFlagStatusAdded (BugFlagStatus status) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugFlagStatusAdded (status);
-		}
+	void emitBugFlagStatusAdded (final BugFlagStatus status) {
+		dimensions.invalidate (status.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugFlagStatusAdded (status);
+			}
+		});
 	}
 
-	synchronized void emitBugFlagAdded (BugFlag flag) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugFlagAdded (flag);
-		}
+	void emitBugFlagAdded (final BugFlag flag) {
+		dimensions.invalidate (flag.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugFlagAdded (flag);
+			}
+		});
 	}
 
-	synchronized void emitBugFlagAssignmentsAdded (Bug bug, BugFlagAssignment[] flags) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugFlagAssignmentsAdded (bug, flags);
-		}
+	void emitBugFlagAssignmentsAdded (final Bug bug, final BugFlagAssignment[] flags) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugFlagAssignmentsAdded (bug, flags);
+			}
+		});
 	}
 
-	synchronized void emitBugFlagAssignmentsUpdated (Bug bug,BugFlagAssignment[] flags) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugFlagAssignmentsUpdated (bug, flags);
-		}
+	void emitBugFlagAssignmentsUpdated (final Bug bug,final BugFlagAssignment[] flags) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugFlagAssignmentsUpdated (bug, flags);
+			}
+		});
 	}
 
-	synchronized void emitBugSeeAlsoAdded (Bug bug, String[] links) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugSeeAlsoAdded (bug, links);
-		}
+	void emitBugSeeAlsoAdded (final Bug bug, final String[] links) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugSeeAlsoAdded (bug, links);
+			}
+		});
 	}
 
-	synchronized void emitBugSeeAlsoUpdated (Bug bug, String[] links) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugSeeAlsoUpdated (bug, links);
-		}
+	void emitBugSeeAlsoUpdated (final Bug bug, final String[] links) {
+		dispatch (new ModelEvent (bug) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugSeeAlsoUpdated (bug, links);
+			}
+		});
 	}
 
-	synchronized void emitBugClassAdded (BugClass bc) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugClassAdded (bc);
-		}
+	void emitBugClassAdded (final BugClass bc) {
+		dimensions.invalidate (bc.getProject ());
+
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugClassAdded (bc);
+			}
+		});
 	}
 
-	synchronized void emitBugDuplicationCommentAdded (Comment comment, Integer identifier) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugDuplicationCommentAdded (comment, identifier);
-		}
+	void emitBugDuplicationCommentAdded (final Comment comment, final Integer identifier) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugDuplicationCommentAdded (comment, identifier);
+			}
+		});
 	}
 
-	synchronized void emitBugAttachmentReviewCommentAdded (Comment comment,
-			Attachment attachment) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugAttachmentReviewCommentAdded (comment, attachment);
-		}
+	void emitBugAttachmentReviewCommentAdded (final Comment comment,
+			final Attachment attachment) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugAttachmentReviewCommentAdded (comment, attachment);
+			}
+		});
 	}
 
-	synchronized void emitAttachmentDetailsAdded (AttachmentDetails ad) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentDetailsAdded (ad);
-		}
+	void emitAttachmentDetailsAdded (final AttachmentDetails ad) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentDetailsAdded (ad);
+			}
+		});
 	}
 
-	synchronized void emitAttachmentDetailsUpdated (AttachmentDetails ad) {
-		for (ModelModificationListener listener : listeners) {
-			listener.attachmentDetailsUpdated (ad);
-		}
+	void emitAttachmentDetailsUpdated (final AttachmentDetails ad) {
+		dispatch (new ModelEvent (ad) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.attachmentDetailsUpdated (ad);
+			}
+		});
 	}
 
-	synchronized void emitBugAttachmentFlagAssignmentsAdded (Attachment attachment,
-			BugFlagAssignment[] flags) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugAttachmentFlagAssignmentsAdded (attachment, flags);
-		}
+	void emitBugAttachmentFlagAssignmentsAdded (final Attachment attachment,
+			final BugFlagAssignment[] flags) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugAttachmentFlagAssignmentsAdded (attachment, flags);
+			}
+		});
 	}
 
-	synchronized void emitBugAttachmentFlagAssignmentsUpdated (Attachment attachment,
-			BugFlagAssignment[] flags) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugAttachmentFlagAssignmentsUpdated (attachment, flags);
-		}
+	void emitBugAttachmentFlagAssignmentsUpdated (final Attachment attachment,
+			final BugFlagAssignment[] flags) {
+		dispatch (new ModelEvent (attachment) {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugAttachmentFlagAssignmentsUpdated (attachment, flags);
+			}
+		});
 	}
 
-	public void emitBugCommentSentimentAdded (Comment comment,
-			Sentiment sentiment) {
-		for (ModelModificationListener listener : listeners) {
-			listener.bugCommentSentimentAdded (comment, sentiment);
-		}
+	public void emitBugCommentSentimentAdded (final Comment comment,
+			final Sentiment sentiment) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.bugCommentSentimentAdded (comment, sentiment);
+			}
+		});
 	}
 
-	public void emitSocialStatsAdded (Identity src, Identity dest,
-			int quotations, int patchesReviewed, int bugInteractions, int fileInteractions, int bugLinkingInteractions, int pushed) {
-		for (ModelModificationListener listener : listeners) {
-			listener.socialStatsAdded (src, dest, quotations, patchesReviewed, bugInteractions, fileInteractions, bugLinkingInteractions, pushed);
-		}
+	public void emitSocialStatsAdded (final Identity src, final Identity dest,
+			final int quotations, final int patchesReviewed, final int bugInteractions, final int fileInteractions, final int bugLinkingInteractions, final int pushed) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.socialStatsAdded (src, dest, quotations, patchesReviewed, bugInteractions, fileInteractions, bugLinkingInteractions, pushed);
+			}
+		});
 	}
 
-	public void emitCommitSentimentAdded (Commit commit, Sentiment sentiment) {
-		for (ModelModificationListener listener : listeners) {
-			listener.commitSentimentAdded (commit, sentiment);
-		}
+	public void emitCommitSentimentAdded (final Commit commit, final Sentiment sentiment) {
+		dispatch (new ModelEvent () {
+			@Override
+			public void deliver (ModelModificationListener listener) {
+				listener.commitSentimentAdded (commit, sentiment);
+			}
+		});
 	}
 }
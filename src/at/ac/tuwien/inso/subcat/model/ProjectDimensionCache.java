@@ -0,0 +1,139 @@
+/* ProjectDimensionCache.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Keeps the small per-project lookup tables (severities, components,
+ * statuses, ...) in memory. Entries are immutable snapshots of the
+ * maps built by Model. ModelPool drops all entries of a project when
+ * one of its dimensions is added.
+ */
+class ProjectDimensionCache {
+	enum View {
+		COMPONENTS,
+		COMPONENTS_BY_NAME,
+		RESOLUTIONS,
+		RESOLUTIONS_BY_NAME,
+		VERSIONS,
+		VERSIONS_BY_NAME,
+		BUG_GROUPS,
+		BUG_GROUPS_BY_NAME,
+		MILESTONES,
+		MILESTONES_BY_NAME,
+		SEVERITIES,
+		SEVERITIES_BY_NAME,
+		BUG_FLAG_STATES,
+		BUG_FLAG_STATES_BY_NAME,
+		BUG_FLAGS,
+		BUG_FLAGS_BY_IDENTIFIER,
+		OPERATING_SYSTEMS,
+		OPERATING_SYSTEMS_BY_NAME,
+		PLATFORMS,
+		PLATFORMS_BY_NAME,
+		KEYWORDS,
+		KEYWORDS_BY_NAME,
+		BUG_CLASSES,
+		BUG_CLASSES_BY_NAME,
+		STATUSES,
+		STATUSES_BY_NAME,
+		PRIORITIES,
+		PRIORITIES_BY_NAME,
+		ATTACHMENT_STATUS_BY_NAME
+	}
+
+	private HashMap<Integer, EnumMap<View, Map<?, ?>>> projects = new HashMap<Integer, EnumMap<View, Map<?, ?>>> ();
+	private int invalidations = 0;
+
+
+	/**
+	 * Returns the cached map, or null if the view is not loaded.
+	 * The map is unmodifiable, callers copy it if they need to.
+	 */
+	@SuppressWarnings ("unchecked")
+	synchronized <K, V> Map<K, V> get (Project proj, View view) {
+		assert (proj != null);
+		assert (proj.getId () != null);
+		assert (view != null);
+
+		EnumMap<View, Map<?, ?>> views = projects.get (proj.getId ());
+		return (views == null)? null : (Map<K, V>) views.get (view);
+	}
+
+	synchronized <K, V> void put (Project proj, View view, Map<K, V> map, int generation) {
+		assert (proj != null);
+		assert (proj.getId () != null);
+		assert (view != null);
+		assert (map != null);
+
+		// Invalidated while the map was loaded:
+		if (generation != invalidations) {
+			return;
+		}
+
+		EnumMap<View, Map<?, ?>> views = projects.get (proj.getId ());
+		if (views == null) {
+			views = new EnumMap<View, Map<?, ?>> (View.class);
+			projects.put (proj.getId (), views);
+		}
+
+		views.put (view, Collections.unmodifiableMap (new HashMap<K, V> (map)));
+	}
+
+	/**
+	 * Changes on every invalidation. Pass the value obtained
+	 * before loading a view to put ().
+	 */
+	synchronized int getGeneration () {
+		return invalidations;
+	}
+
+	synchronized void invalidate (Project proj) {
+		assert (proj != null);
+
+		if (proj.getId () != null) {
+			projects.remove (proj.getId ());
+		}
+		invalidations++;
+	}
+
+	synchronized void invalidateAll () {
+		projects.clear ();
+		invalidations++;
+	}
+}
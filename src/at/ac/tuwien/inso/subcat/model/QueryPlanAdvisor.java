@@ -0,0 +1,483 @@
+/* QueryPlanAdvisor.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+
+import at.ac.tuwien.inso.subcat.config.ConfigNode;
+import at.ac.tuwien.inso.subcat.config.ConfigVisitor;
+import at.ac.tuwien.inso.subcat.config.Configuration;
+import at.ac.tuwien.inso.subcat.config.DistributionAttributeConfig;
+import at.ac.tuwien.inso.subcat.config.DistributionAttributesConfig;
+import at.ac.tuwien.inso.subcat.config.DistributionChartConfig;
+import at.ac.tuwien.inso.subcat.config.DistributionChartOptionConfig;
+import at.ac.tuwien.inso.subcat.config.DropDownConfig;
+import at.ac.tuwien.inso.subcat.config.ExporterConfig;
+import at.ac.tuwien.inso.subcat.config.OptionListConfig;
+import at.ac.tuwien.inso.subcat.config.Parser;
+import at.ac.tuwien.inso.subcat.config.ParserException;
+import at.ac.tuwien.inso.subcat.config.PieChartConfig;
+import at.ac.tuwien.inso.subcat.config.PieChartGroupConfig;
+import at.ac.tuwien.inso.subcat.config.ProjectViewConfig;
+import at.ac.tuwien.inso.subcat.config.Query;
+import at.ac.tuwien.inso.subcat.config.Query.StringSegment;
+import at.ac.tuwien.inso.subcat.config.Query.VariableSegment;
+import at.ac.tuwien.inso.subcat.config.TeamViewConfig;
+import at.ac.tuwien.inso.subcat.config.TrendChartConfig;
+import at.ac.tuwien.inso.subcat.config.TrendChartGroupConfig;
+import at.ac.tuwien.inso.subcat.config.TrendChartPlotConfig;
+import at.ac.tuwien.inso.subcat.config.UserViewConfig;
+import at.ac.tuwien.inso.subcat.utility.Reporter;
+
+
+/**
+ * Runs EXPLAIN QUERY PLAN over all SQL constants in Model and
+ * all queries of a configuration and reports full table scans.
+ *
+ * Also checks configuration queries for date functions applied to
+ * date columns without 'unixepoch'. Dates are stored as seconds
+ * since the epoch, such calls silently return wrong values.
+ */
+public class QueryPlanAdvisor {
+	private Model model;
+	private boolean verbose;
+
+	private int queryCount = 0;
+	private int scanCount = 0;
+	private int errorCount = 0;
+
+	private static final Pattern DATE_FUNCTION = Pattern.compile ("\\b(strftime|date|datetime|julianday|time)\\s*\\(", Pattern.CASE_INSENSITIVE);
+	private static final Pattern IDENTIFIER = Pattern.compile ("((?:[A-Za-z_][A-Za-z0-9_]*\\.)?([A-Za-z_][A-Za-z0-9_]*))\\s*(\\()?");
+
+
+	private static class QueryCollector extends ConfigVisitor {
+		private Map<String, String> queries = new LinkedHashMap<String, String> ();
+		private StringBuilder builder;
+
+		public Map<String, String> getQueries () {
+			return queries;
+		}
+
+		@Override
+		public void visitQuery (Query query) {
+			builder = new StringBuilder ();
+			query.acceptChildren (this);
+
+			String location = query.getStart ().getFile ().getName () + ": " + query.getStart ().toString () + "-" + query.getEnd ();
+			queries.put (location, builder.toString ());
+			builder = null;
+		}
+
+		@Override
+		public void visitStringSegment (StringSegment stringSegment) {
+			builder.append (stringSegment.toString ());
+		}
+
+		@Override
+		public void visitVariableSegment (VariableSegment variableSegment) {
+			builder.append (" ? ");
+		}
+
+		private void visitChildren (ConfigNode node) {
+			node.acceptChildren (this);
+		}
+
+		@Override
+		public void visitPieChartGroupConfig (PieChartGroupConfig pieChartGroupConfig) {
+			visitChildren (pieChartGroupConfig);
+		}
+
+		@Override
+		public void visitPieChartConfig (PieChartConfig pieChartConfig) {
+			visitChildren (pieChartConfig);
+		}
+
+		@Override
+		public void visitTeamViewConfig (TeamViewConfig teamViewConfig) {
+			visitChildren (teamViewConfig);
+		}
+
+		@Override
+		public void visitUserViewConfig (UserViewConfig userViewConfig) {
+			visitChildren (userViewConfig);
+		}
+
+		@Override
+		public void visitProjectViewConfig (ProjectViewConfig projectViewConfig) {
+			visitChildren (projectViewConfig);
+		}
+
+		@Override
+		public void visitTrendChartGroupConfig (TrendChartGroupConfig trendChartGroupConfig) {
+			visitChildren (trendChartGroupConfig);
+		}
+
+		@Override
+		public void visitTrendChartConfig (TrendChartConfig trendChartConfig) {
+			visitChildren (trendChartConfig);
+		}
+
+		@Override
+		public void visitDropDownConfig (DropDownConfig dropDownConfig) {
+			visitChildren (dropDownConfig);
+		}
+
+		@Override
+		public void visitOptionListConfig (OptionListConfig optionListConfig) {
+			visitChildren (optionListConfig);
+		}
+
+		@Override
+		public void visitTrendChartPlotConfig (TrendChartPlotConfig trendChartPlotConfig) {
+			visitChildren (trendChartPlotConfig);
+		}
+
+		@Override
+		public void visitDistributionChartConfig (DistributionChartConfig distributionChartConfig) {
+			visitChildren (distributionChartConfig);
+		}
+
+		@Override
+		public void visitDistributionChartOptionConfig (DistributionChartOptionConfig distributionChartOptionConfig) {
+			visitChildren (distributionChartOptionConfig);
+		}
+
+		@Override
+		public void visitDistributionAttributeConfig (DistributionAttributeConfig distributionAttributeConfig) {
+			visitChildren (distributionAttributeConfig);
+		}
+
+		@Override
+		public void visitDistributionAttributesConfig (DistributionAttributesConfig distributionAttributesConfig) {
+			visitChildren (distributionAttributesConfig);
+		}
+
+		@Override
+		public void visitExporterConfig (ExporterConfig exporterConfig) {
+			visitChildren (exporterConfig);
+		}
+	}
+
+
+	public QueryPlanAdvisor (Model model, boolean verbose) {
+		assert (model != null);
+
+		this.model = model;
+		this.verbose = verbose;
+	}
+
+	public void checkModel () {
+		for (Field field : Model.class.getDeclaredFields ()) {
+			int mod = field.getModifiers ();
+			if (!Modifier.isStatic (mod) || !Modifier.isFinal (mod) || field.getType () != String.class) {
+				continue;
+			}
+
+			String sql;
+			try {
+				field.setAccessible (true);
+				sql = (String) field.get (null);
+			} catch (IllegalAccessException e) {
+				continue;
+			}
+
+			if (isQuery (sql)) {
+				check ("Model." + field.getName (), sql);
+			}
+		}
+	}
+
+	public void checkConfiguration (Configuration config) {
+		assert (config != null);
+
+		for (Map.Entry<String, String> query : collectQueries (config).entrySet ()) {
+			check (query.getKey (), query.getValue ());
+		}
+	}
+
+	/**
+	 * Warns about date functions applied to date columns without
+	 * the 'unixepoch' modifier. Returns the number of warnings.
+	 */
+	public static int checkDateFunctions (Configuration config, Reporter reporter) {
+		assert (config != null);
+		assert (reporter != null);
+
+		Set<String> dateColumns = Model.getDateColumnNames ();
+		int warnings = 0;
+
+		for (Map.Entry<String, String> query : collectQueries (config).entrySet ()) {
+			String sql = query.getValue ();
+
+			Matcher func = DATE_FUNCTION.matcher (sql);
+			while (func.find ()) {
+				int end = findClosingParenthesis (sql, func.end ());
+				String args = sql.substring (func.end (), end);
+				if (args.toLowerCase ().contains ("'unixepoch'")) {
+					continue;
+				}
+
+				Matcher ident = IDENTIFIER.matcher (args.replaceAll ("'[^']*'", "''"));
+				while (ident.find ()) {
+					if (ident.group (3) == null && dateColumns.contains (ident.group (2).toLowerCase ())) {
+						reporter.warning ("config", query.getKey () + ": " + func.group (1) + " () on date column " + ident.group (1)
+							+ " without 'unixepoch'. Dates are stored as seconds since the epoch,"
+							+ " use " + func.group (1) + " (..., " + ident.group (1) + ", 'unixepoch', 'localtime')");
+						warnings++;
+						break;
+					}
+				}
+			}
+		}
+
+		return warnings;
+	}
+
+	public int getQueryCount () {
+		return queryCount;
+	}
+
+	public int getScanCount () {
+		return scanCount;
+	}
+
+	public int getErrorCount () {
+		return errorCount;
+	}
+
+	private void check (String name, String sql) {
+		queryCount++;
+
+		List<String> plan;
+		try {
+			plan = model.explainQueryPlan (sql);
+		} catch (SQLException e) {
+			System.out.println (name + ": error: " + e.getMessage ());
+			errorCount++;
+			return ;
+		}
+
+		boolean printedName = false;
+		for (String detail : plan) {
+			boolean scan = isFullScan (detail);
+			if (scan) {
+				scanCount++;
+			}
+
+			if (scan || verbose) {
+				if (!printedName) {
+					System.out.println (name + ":");
+					printedName = true;
+				}
+
+				System.out.println ((scan ? "  FULL SCAN: " : "  ") + detail);
+			}
+		}
+	}
+
+	private static Map<String, String> collectQueries (Configuration config) {
+		QueryCollector collector = new QueryCollector ();
+		if (config.getProjectViewConfig () != null) {
+			config.getProjectViewConfig ().accept (collector);
+		}
+		if (config.getTeamViewConfig () != null) {
+			config.getTeamViewConfig ().accept (collector);
+		}
+		if (config.getUserViewConfig () != null) {
+			config.getUserViewConfig ().accept (collector);
+		}
+		for (ExporterConfig exporter : config.getExporterConfigs ()) {
+			exporter.accept (collector);
+		}
+
+		return collector.getQueries ();
+	}
+
+	private static int findClosingParenthesis (String sql, int start) {
+		boolean inString = false;
+		int depth = 0;
+
+		for (int i = start; i < sql.length (); i++) {
+			char c = sql.charAt (i);
+			if (c == '\'') {
+				inString = !inString;
+			} else if (inString) {
+				continue;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				if (depth == 0) {
+					return i;
+				}
+				depth--;
+			}
+		}
+
+		return sql.length ();
+	}
+
+	private static boolean isQuery (String sql) {
+		String prefix = sql.trim ().toUpperCase ();
+		return prefix.startsWith ("SELECT")
+			|| prefix.startsWith ("INSERT")
+			|| prefix.startsWith ("UPDATE")
+			|| prefix.startsWith ("DELETE")
+			|| prefix.startsWith ("REPLACE");
+	}
+
+	private static boolean isFullScan (String detail) {
+		if (detail == null) {
+			return false;
+		}
+
+		// SQLite >= 3.7.16: "SCAN TABLE Bugs [USING INDEX ...]"
+		if (detail.startsWith ("SCAN ")) {
+			return !detail.contains (" USING ");
+		}
+
+		// Older releases: "TABLE Bugs [WITH INDEX ...|USING PRIMARY KEY]"
+		if (detail.startsWith ("TABLE ")) {
+			return !detail.contains (" WITH ") && !detail.contains (" USING ") && !detail.contains (" BY ");
+		}
+
+		return false;
+	}
+
+
+	//
+	// Main:
+	//
+
+	public static void main (String[] args) {
+		Options options = new Options ();
+		options.addOption ("h", "help", false, "Show this options");
+		options.addOption ("d", "db", true, "The database to process (required)");
+		options.addOption ("C", "config", true, "A configuration file including queries to check");
+		options.addOption ("v", "verbose", false, "Show all query plans");
+
+		Reporter errReporter = new Reporter (false);
+		boolean verbose = false;
+		ModelPool pool = null;
+		Model model = null;
+
+		CommandLineParser parser = new PosixParser ();
+
+		try {
+			CommandLine cmd = parser.parse (options, args);
+			verbose = cmd.hasOption ("verbose");
+
+			if (cmd.hasOption ("help")) {
+				HelpFormatter formatter = new HelpFormatter ();
+				formatter.printHelp ("query-plan-advisor", options);
+				return ;
+			}
+
+			if (cmd.hasOption ("db") == false) {
+				errReporter.error ("advisor", "Option --db is required");
+				errReporter.printSummary ();
+				return ;
+			}
+
+			Configuration config = null;
+			if (cmd.hasOption ("config")) {
+				config = new Configuration ();
+				Parser configParser = new Parser ();
+				try {
+					configParser.parse (config, new File (cmd.getOptionValue ("config")));
+				} catch (IOException e) {
+					errReporter.error ("advisor", "Could not read configuration file: " + e.getMessage ());
+					errReporter.printSummary ();
+					return ;
+				} catch (ParserException e) {
+					errReporter.error ("advisor", "Could not parse configuration file: " + e.getMessage ());
+					errReporter.printSummary ();
+					return ;
+				}
+			}
+
+			pool = new ModelPool (cmd.getOptionValue ("db"), 1);
+			model = pool.getModel ();
+
+			QueryPlanAdvisor advisor = new QueryPlanAdvisor (model, verbose);
+			advisor.checkModel ();
+			if (config != null) {
+				checkDateFunctions (config, errReporter);
+				advisor.checkConfiguration (config);
+			}
+
+			System.out.println ();
+			System.out.println (advisor.getQueryCount () + " queries checked, "
+				+ advisor.getScanCount () + " full table scans, "
+				+ advisor.getErrorCount () + " errors");
+		} catch (ParseException e) {
+			errReporter.error ("advisor", "Parsing failed: " + e.getMessage ());
+			if (verbose == true) {
+				e.printStackTrace ();
+			}
+		} catch (ClassNotFoundException e) {
+			errReporter.error ("advisor", "Failed to create a database connection: " + e.getMessage ());
+			if (verbose == true) {
+				e.printStackTrace ();
+			}
+		} catch (SQLException e) {
+			errReporter.error ("advisor", "Failed to create a database connection: " + e.getMessage ());
+			if (verbose == true) {
+				e.printStackTrace ();
+			}
+		} finally {
+			if (model != null) {
+				model.close ();
+			}
+			if (pool != null) {
+				pool.close ();
+			}
+		}
+
+		errReporter.printSummary ();
+	}
+}
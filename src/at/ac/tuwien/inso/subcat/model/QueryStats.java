@@ -0,0 +1,377 @@
+/* QueryStats.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.io.PrintStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Opt-in per-statement latency statistics, see ModelPool.enableQueryStats ().
+ *
+ * Statements are wrapped in proxies measuring the time spent in the
+ * execute* () calls and in ResultSet.next (), i.e. time spent in SQLite,
+ * not in the code consuming the rows. Executions slower than the
+ * threshold are logged together with their EXPLAIN QUERY PLAN.
+ */
+public class QueryStats {
+	private static final int SAMPLE_SIZE = 1024;
+	private static final int SLOW_LOG_SIZE = 100;
+
+	public static class StatementStats {
+		public final String sql;
+		private long count = 0;
+		private long totalTime = 0;
+		private long maxTime = 0;
+		private long rows = 0;
+		private long[] samples = new long[SAMPLE_SIZE];
+
+		private StatementStats (String sql) {
+			this.sql = sql;
+		}
+
+		public synchronized long getCount () {
+			return count;
+		}
+
+		/**
+		 * Total time in nanoseconds.
+		 */
+		public synchronized long getTotalTime () {
+			return totalTime;
+		}
+
+		public synchronized long getMaxTime () {
+			return maxTime;
+		}
+
+		/**
+		 * Rows returned or affected.
+		 */
+		public synchronized long getRows () {
+			return rows;
+		}
+
+		/**
+		 * Approximated from a uniform sample of up to SAMPLE_SIZE executions.
+		 */
+		public synchronized long getPercentile (double p) {
+			assert (p >= 0 && p <= 1);
+
+			int size = (int) Math.min (count, SAMPLE_SIZE);
+			if (size == 0) {
+				return 0;
+			}
+
+			long[] sorted = Arrays.copyOf (samples, size);
+			Arrays.sort (sorted);
+			return sorted[(int) Math.min (size - 1, Math.floor (p * size))];
+		}
+
+		private synchronized void add (long time, long rows, Random random) {
+			// Reservoir sampling:
+			if (count < SAMPLE_SIZE) {
+				samples[(int) count] = time;
+			} else {
+				long slot = (long) (random.nextDouble () * (count + 1));
+				if (slot < SAMPLE_SIZE) {
+					samples[(int) slot] = time;
+				}
+			}
+
+			this.count++;
+			this.totalTime += time;
+			this.maxTime = Math.max (maxTime, time);
+			this.rows += rows;
+		}
+	}
+
+	public static class SlowQuery {
+		public final String sql;
+		public final long time;
+		public final long rows;
+		public final List<String> plan;
+
+		private SlowQuery (String sql, long time, long rows, List<String> plan) {
+			this.sql = sql;
+			this.time = time;
+			this.rows = rows;
+			this.plan = plan;
+		}
+	}
+
+	private class StatementHandler implements InvocationHandler {
+		private final PreparedStatement stmt;
+		private final String sql;
+		private final Connection conn;
+
+		public StatementHandler (PreparedStatement stmt, String sql, Connection conn) {
+			this.stmt = stmt;
+			this.sql = sql;
+			this.conn = conn;
+		}
+
+		@Override
+		public Object invoke (Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName ();
+			if (name.startsWith ("execute") == false) {
+				return delegate (stmt, method, args);
+			}
+
+			long start = System.nanoTime ();
+			Object result = delegate (stmt, method, args);
+			long time = System.nanoTime () - start;
+
+			if (result instanceof ResultSet) {
+				ResultSetHandler handler = new ResultSetHandler ((ResultSet) result, this, time);
+				return Proxy.newProxyInstance (ResultSet.class.getClassLoader (),
+					new Class<?>[] {ResultSet.class}, handler);
+			}
+
+			long rows = 0;
+			if (result instanceof Integer) {
+				rows = (Integer) result;
+			} else if (result instanceof int[]) {
+				for (int count : (int[]) result) {
+					rows += Math.max (count, 0);
+				}
+			}
+
+			record (sql, conn, time, rows);
+			return result;
+		}
+	}
+
+	private class ResultSetHandler implements InvocationHandler {
+		private final ResultSet res;
+		private final StatementHandler stmt;
+		private long time;
+		private long rows = 0;
+		private boolean recorded = false;
+
+		public ResultSetHandler (ResultSet res, StatementHandler stmt, long time) {
+			this.res = res;
+			this.stmt = stmt;
+			this.time = time;
+		}
+
+		@Override
+		public Object invoke (Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName ();
+			if ("next".equals (name)) {
+				long start = System.nanoTime ();
+				Object result = delegate (res, method, args);
+				time += System.nanoTime () - start;
+
+				if (Boolean.TRUE.equals (result)) {
+					rows++;
+				} else {
+					finish ();
+				}
+				return result;
+			}
+
+			if ("close".equals (name)) {
+				finish ();
+			}
+
+			return delegate (res, method, args);
+		}
+
+		private void finish () {
+			if (recorded == false) {
+				recorded = true;
+				record (stmt.sql, stmt.conn, time, rows);
+			}
+		}
+	}
+
+	private final long slowThreshold;
+	private final HashMap<String, StatementStats> statements = new HashMap<String, StatementStats> ();
+	private final LinkedList<SlowQuery> slowQueries = new LinkedList<SlowQuery> ();
+	private final HashSet<String> explained = new HashSet<String> ();
+	private final Random random = new Random ();
+
+
+	/**
+	 * slowThresholdMillis: executions taking longer are added
+	 * to the slow query log, 0 disables the log.
+	 */
+	public QueryStats (long slowThresholdMillis) {
+		assert (slowThresholdMillis >= 0);
+
+		this.slowThreshold = slowThresholdMillis * 1000000;
+	}
+
+	/**
+	 * Returns a statement recording all executions of stmt.
+	 */
+	PreparedStatement wrap (PreparedStatement stmt, String sql, Connection conn) {
+		assert (stmt != null);
+		assert (sql != null);
+		assert (conn != null);
+
+		StatementHandler handler = new StatementHandler (stmt, sql, conn);
+		return (PreparedStatement) Proxy.newProxyInstance (PreparedStatement.class.getClassLoader (),
+			new Class<?>[] {PreparedStatement.class}, handler);
+	}
+
+	public synchronized List<StatementStats> getStatementStats () {
+		ArrayList<StatementStats> list = new ArrayList<StatementStats> (statements.values ());
+		Collections.sort (list, new Comparator<StatementStats> () {
+			@Override
+			public int compare (StatementStats a, StatementStats b) {
+				long diff = b.getTotalTime () - a.getTotalTime ();
+				return (diff > 0)? 1 : (diff < 0)? -1 : 0;
+			}
+		});
+
+		return list;
+	}
+
+	public synchronized List<SlowQuery> getSlowQueries () {
+		return new ArrayList<SlowQuery> (slowQueries);
+	}
+
+	/**
+	 * Prints the limit most expensive statements and the slow query log.
+	 */
+	public void dump (PrintStream out, int limit) {
+		assert (out != null);
+
+		out.println ("Query statistics (times in ms):");
+		out.println (String.format ("  %8s %10s %8s %8s %8s %10s  %s", "count", "total", "p50", "p99", "max", "rows", "statement"));
+
+		int i = 0;
+		for (StatementStats stats : getStatementStats ()) {
+			if (i++ >= limit) {
+				break;
+			}
+
+			out.println (String.format ("  %8d %10.1f %8.2f %8.2f %8.2f %10d  %s",
+				stats.getCount (),
+				stats.getTotalTime () / 1e6,
+				stats.getPercentile (0.5) / 1e6,
+				stats.getPercentile (0.99) / 1e6,
+				stats.getMaxTime () / 1e6,
+				stats.getRows (),
+				abbreviate (stats.sql)));
+		}
+
+		List<SlowQuery> slow = getSlowQueries ();
+		if (slow.size () > 0) {
+			out.println ();
+			out.println ("Slow queries:");
+			for (SlowQuery query : slow) {
+				out.println (String.format ("  %.1fms, %d rows: %s", query.time / 1e6, query.rows, abbreviate (query.sql)));
+				if (query.plan != null) {
+					for (String step : query.plan) {
+						out.println ("    " + step);
+					}
+				}
+			}
+		}
+	}
+
+
+	//
+	// Helper:
+	//
+
+	private void record (String sql, Connection conn, long time, long rows) {
+		StatementStats stats;
+		boolean explain = false;
+
+		synchronized (this) {
+			stats = statements.get (sql);
+			if (stats == null) {
+				stats = new StatementStats (sql);
+				statements.put (sql, stats);
+			}
+
+			if (slowThreshold > 0 && time > slowThreshold) {
+				// Plans only change with the schema, capture them once:
+				explain = explained.add (sql);
+			}
+		}
+
+		stats.add (time, rows, random);
+
+		if (slowThreshold > 0 && time > slowThreshold) {
+			List<String> plan = null;
+			if (explain) {
+				try {
+					plan = Model.explainQueryPlan (conn, sql);
+				} catch (SQLException e) {
+					plan = Collections.singletonList ("(no plan: " + e.getMessage () + ")");
+				}
+			}
+
+			synchronized (this) {
+				slowQueries.add (new SlowQuery (sql, time, rows, plan));
+				if (slowQueries.size () > SLOW_LOG_SIZE) {
+					slowQueries.removeFirst ();
+				}
+			}
+		}
+	}
+
+	private static Object delegate (Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke (target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause ();
+		}
+	}
+
+	private static String abbreviate (String sql) {
+		String str = sql.replaceAll ("\\s+", " ").trim ();
+		return (str.length () > 120)? str.substring (0, 117) + "..." : str;
+	}
+}
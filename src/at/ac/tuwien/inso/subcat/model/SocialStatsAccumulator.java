@@ -0,0 +1,247 @@
+/* SocialStatsAccumulator.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+
+/**
+ * Sums up SocialStats increments in memory.
+ *
+ * Counters are kept per (src, dest) pair in parallel int arrays,
+ * indexed through an open addressing table over the packed pair.
+ * All seven counter columns of SocialStats are covered, src and
+ * dest are the key.
+ * flush () writes all pairs with two batched statements into the
+ * transaction of the given model: an INSERT OR IGNORE creating
+ * missing rows, followed by an UPDATE adding the counters.
+ */
+public class SocialStatsAccumulator {
+	public static final int DEFAULT_FLUSH_THRESHOLD = 8192;
+
+	private static final int QUOTATIONS = 0;
+	private static final int PATCHES_REVIEWED = 1;
+	private static final int BUG_INTERACTIONS = 2;
+	private static final int FILE_INTERACTIONS = 3;
+	private static final int BUG_LINKING_INTERACTIONS = 4;
+	private static final int PUSHED = 5;
+	private static final int BUGS_CLOSED = 6;
+	private static final int COUNTERS = 7;
+
+	private final int flushThreshold;
+
+	// Row index + 1 per slot, 0 marks empty slots:
+	private int[] slots;
+	private int mask;
+
+	private long[] keys;
+	private Identity[] srcs;
+	private Identity[] dests;
+	private int[][] counters;
+	private int size = 0;
+
+	private long pairsWritten = 0;
+
+
+	public SocialStatsAccumulator () {
+		this (DEFAULT_FLUSH_THRESHOLD);
+	}
+
+	public SocialStatsAccumulator (int flushThreshold) {
+		assert (flushThreshold > 0);
+
+		this.flushThreshold = flushThreshold;
+
+		int capacity = 64;
+		slots = new int[capacity * 2];
+		mask = slots.length - 1;
+		keys = new long[capacity];
+		srcs = new Identity[capacity];
+		dests = new Identity[capacity];
+		counters = new int[COUNTERS][capacity];
+	}
+
+	public synchronized void add (Identity src, Identity dest, int quotations, int patchesReviewed, int bugInteractions, int fileInteractions, int bugLinkingInteractions, int pushed, int bugsClosed) {
+		assert (src != null && src.getId () != null);
+		assert (dest != null && dest.getId () != null);
+		assert (src.equals (dest) == false);
+
+		int row = getRow (src, dest);
+		counters[QUOTATIONS][row] += quotations;
+		counters[PATCHES_REVIEWED][row] += patchesReviewed;
+		counters[BUG_INTERACTIONS][row] += bugInteractions;
+		counters[FILE_INTERACTIONS][row] += fileInteractions;
+		counters[BUG_LINKING_INTERACTIONS][row] += bugLinkingInteractions;
+		counters[PUSHED][row] += pushed;
+		counters[BUGS_CLOSED][row] += bugsClosed;
+	}
+
+	/**
+	 * Returns true once flushThreshold pairs are pending.
+	 */
+	public synchronized boolean needsFlush () {
+		return size >= flushThreshold;
+	}
+
+	public synchronized int getPendingPairs () {
+		return size;
+	}
+
+	public synchronized long getPairsWritten () {
+		return pairsWritten;
+	}
+
+	/**
+	 * Writes all pending pairs using the given model. The
+	 * caller is responsible for the surrounding transaction.
+	 */
+	public synchronized int flush (Model model) throws SQLException {
+		assert (model != null);
+
+		if (size == 0) {
+			return 0;
+		}
+
+		StatementCache stmts = model.getStatementCache ();
+
+		PreparedStatement stmt = stmts.prepare (Model.SOCIAL_STATS_INIT);
+		try {
+			for (int i = 0; i < size; i++) {
+				stmt.setInt (1, srcs[i].getId ());
+				stmt.setInt (2, dests[i].getId ());
+				stmt.addBatch ();
+			}
+
+			stmt.executeBatch ();
+		} finally {
+			stmts.release (stmt);
+		}
+
+		stmt = stmts.prepare (Model.SOCIAL_STATS_INCREMENT);
+		try {
+			for (int i = 0; i < size; i++) {
+				for (int c = 0; c < COUNTERS; c++) {
+					stmt.setInt (c + 1, counters[c][i]);
+				}
+				stmt.setInt (COUNTERS + 1, srcs[i].getId ());
+				stmt.setInt (COUNTERS + 2, dests[i].getId ());
+				stmt.addBatch ();
+			}
+
+			stmt.executeBatch ();
+		} finally {
+			stmts.release (stmt);
+		}
+
+		ModelPool pool = model.getPool ();
+		for (int i = 0; i < size; i++) {
+			pool.emitSocialStatsAdded (srcs[i], dests[i],
+				counters[QUOTATIONS][i], counters[PATCHES_REVIEWED][i],
+				counters[BUG_INTERACTIONS][i], counters[FILE_INTERACTIONS][i],
+				counters[BUG_LINKING_INTERACTIONS][i], counters[PUSHED][i]);
+		}
+
+		int flushed = size;
+		pairsWritten += flushed;
+		clear ();
+		return flushed;
+	}
+
+	public synchronized void clear () {
+		Arrays.fill (slots, 0);
+		Arrays.fill (srcs, 0, size, null);
+		Arrays.fill (dests, 0, size, null);
+		size = 0;
+	}
+
+
+	//
+	// Helper:
+	//
+
+	private int getRow (Identity src, Identity dest) {
+		long key = ((long) src.getId () << 32) | (dest.getId () & 0xffffffffL);
+
+		int slot = hash (key);
+		while (slots[slot] != 0) {
+			int row = slots[slot] - 1;
+			if (keys[row] == key) {
+				return row;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (size == keys.length) {
+			grow ();
+			return getRow (src, dest);
+		}
+
+		int row = size++;
+		keys[row] = key;
+		srcs[row] = src;
+		dests[row] = dest;
+		for (int c = 0; c < COUNTERS; c++) {
+			counters[c][row] = 0;
+		}
+
+		slots[slot] = row + 1;
+		return row;
+	}
+
+	private void grow () {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf (keys, capacity);
+		srcs = Arrays.copyOf (srcs, capacity);
+		dests = Arrays.copyOf (dests, capacity);
+		for (int c = 0; c < COUNTERS; c++) {
+			counters[c] = Arrays.copyOf (counters[c], capacity);
+		}
+
+		// Keep the load factor at or below 0.5:
+		slots = new int[capacity * 2];
+		mask = slots.length - 1;
+		for (int row = 0; row < size; row++) {
+			int slot = hash (keys[row]);
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = row + 1;
+		}
+	}
+
+	private int hash (long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 32) & mask;
+	}
+}
@@ -0,0 +1,225 @@
+/* StatementCache.java
+ *
+ * Copyright (C) 2026 agent
+ *
+ * Based on work from Andreas Mauczka
+ *
+ * This program is developed as part of the research project
+ * "Lexical Repository Analyis" which is part of the PhD thesis
+ * "Design and evaluation for identification, mapping and profiling
+ * of medium sized software chunks" by Andreas Mauczka at
+ * INSO - University of Technology Vienna. For questions in regard
+ * to the research project contact andreas.mauczka(at)inso.tuwien.ac.at
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License 2.0
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * Author:
+ *       agent <agent@local>
+ */
+
+package at.ac.tuwien.inso.subcat.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Per-connection cache of prepared statements, keyed by SQL.
+ *
+ * Statements are checked out by prepare () and handed back
+ * by release (). A statement is never shared between two
+ * callers at the same time, nested calls using the same SQL
+ * get a second statement.
+ */
+class StatementCache {
+	public static final int DEFAULT_CAPACITY = 96;
+
+	private static class Key {
+		public final String sql;
+		public final int autoGeneratedKeys;
+
+		public Key (String sql, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+		}
+
+		@Override
+		public int hashCode () {
+			return sql.hashCode () * 31 + autoGeneratedKeys;
+		}
+
+		@Override
+		public boolean equals (Object obj) {
+			if (obj instanceof Key == false) {
+				return false;
+			}
+
+			Key key = (Key) obj;
+			return autoGeneratedKeys == key.autoGeneratedKeys
+				&& (sql == key.sql || sql.equals (key.sql));
+		}
+	}
+
+	private final Connection conn;
+	private final int capacity;
+
+	private LinkedHashMap<Key, PreparedStatement> idle;
+	private IdentityHashMap<PreparedStatement, Key> leased = new IdentityHashMap<PreparedStatement, Key> ();
+
+	// Leased instrumented proxies, mapped to the cached statement:
+	private IdentityHashMap<PreparedStatement, PreparedStatement> wrapped = new IdentityHashMap<PreparedStatement, PreparedStatement> ();
+	private volatile QueryStats queryStats = null;
+
+	private int hits = 0;
+	private int misses = 0;
+	private int evictions = 0;
+
+
+	public StatementCache (Connection conn) {
+		this (conn, DEFAULT_CAPACITY);
+	}
+
+	public StatementCache (Connection conn, final int capacity) {
+		assert (conn != null);
+		assert (capacity >= 0);
+
+		this.conn = conn;
+		this.capacity = capacity;
+
+		// Access-ordered, the eldest entry is the least recently used one:
+		this.idle = new LinkedHashMap<Key, PreparedStatement> (16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<Key, PreparedStatement> eldest) {
+				if (size () <= capacity) {
+					return false;
+				}
+
+				evictions++;
+				closeQuietly (eldest.getValue ());
+				return true;
+			}
+		};
+	}
+
+	public synchronized PreparedStatement prepare (String sql) throws SQLException {
+		return prepare (sql, Statement.NO_GENERATED_KEYS);
+	}
+
+	public synchronized PreparedStatement prepare (String sql, int autoGeneratedKeys) throws SQLException {
+		assert (sql != null);
+
+		Key key = new Key (sql, autoGeneratedKeys);
+		PreparedStatement stmt = idle.remove (key);
+		if (stmt != null) {
+			hits++;
+		} else {
+			misses++;
+			if (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+				stmt = conn.prepareStatement (sql, autoGeneratedKeys);
+			} else {
+				stmt = conn.prepareStatement (sql);
+			}
+		}
+
+		leased.put (stmt, key);
+
+		QueryStats queryStats = this.queryStats;
+		if (queryStats != null) {
+			PreparedStatement proxy = queryStats.wrap (stmt, sql, conn);
+			wrapped.put (proxy, stmt);
+			return proxy;
+		}
+
+		return stmt;
+	}
+
+	public synchronized void release (PreparedStatement stmt) throws SQLException {
+		assert (stmt != null);
+
+		PreparedStatement raw = wrapped.remove (stmt);
+		if (raw != null) {
+			stmt = raw;
+		}
+
+		Key key = leased.remove (stmt);
+		if (key == null || capacity == 0 || idle.containsKey (key)) {
+			stmt.close ();
+			return ;
+		}
+
+		try {
+			stmt.clearParameters ();
+		} catch (SQLException e) {
+			closeQuietly (stmt);
+			throw e;
+		}
+
+		idle.put (key, stmt);
+	}
+
+	public synchronized void close () {
+		Iterator<PreparedStatement> iter = idle.values ().iterator ();
+		while (iter.hasNext ()) {
+			closeQuietly (iter.next ());
+			iter.remove ();
+		}
+
+		for (PreparedStatement stmt : leased.keySet ()) {
+			closeQuietly (stmt);
+		}
+
+		leased.clear ();
+		wrapped.clear ();
+	}
+
+	/**
+	 * Statements leased afterwards are recorded in queryStats,
+	 * null disables the instrumentation.
+	 */
+	public void setQueryStats (QueryStats queryStats) {
+		this.queryStats = queryStats;
+	}
+
+	public synchronized int getHits () {
+		return hits;
+	}
+
+	public synchronized int getMisses () {
+		return misses;
+	}
+
+	public synchronized int getEvictions () {
+		return evictions;
+	}
+
+	public synchronized int size () {
+		return idle.size ();
+	}
+
+	private static void closeQuietly (Statement stmt) {
+		try {
+			stmt.close ();
+		} catch (SQLException e) {
+			// Ignore
+		}
+	}
+}
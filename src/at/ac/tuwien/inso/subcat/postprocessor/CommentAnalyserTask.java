@@ -17,6 +17,7 @@ import at.ac.tuwien.inso.subcat.model.ManagedFile;
 import at.ac.tuwien.inso.subcat.model.Model;
 import at.ac.tuwien.inso.subcat.model.ObjectCallback;
 import at.ac.tuwien.inso.subcat.model.Project;
+import at.ac.tuwien.inso.subcat.model.SocialStatsAccumulator;
 import at.ac.tuwien.inso.subcat.model.Tuple;
 import at.ac.tuwien.inso.subcat.utility.commentparser.CommentNode;
 import at.ac.tuwien.inso.subcat.utility.commentparser.ContentNodeVisitor;
@@ -33,7 +34,9 @@ public class CommentAnalyserTask extends PostProcessorTask {
 	private HashMap<ManagedFile, HashSet<Identity>> fileInteractions;
 	private SentimentAnalyser<Identity> analyser;
 	private Parser<Identity> parser;
-	private Finder<Identity> finder;
+	// Keeps all seven SocialStats counters. The other two of the
+	// table's nine columns, src and dest, are the accumulator's key.
+	private SocialStatsAccumulator socialStats;
 
 	private int commitUpdateCnt = 0;
 	private int commitCnt = 0;
@@ -62,6 +65,7 @@ public class CommentAnalyserTask extends PostProcessorTask {
 	}
 	
 	private class CommentAnalyser extends ContentNodeVisitor<Identity> {
+		private Finder<Identity> finder = new Finder<Identity> ();
 		private LinkedList<CommentNode<Identity>> analysedComments;
 		private List<Comment> comments;
 		private PostProcessorException exceptionTunnel;
@@ -211,7 +215,7 @@ public class CommentAnalyserTask extends PostProcessorTask {
 	public void begin (PostProcessor processor) throws PostProcessorException {
 		this.analyser = new SentimentAnalyser<Identity> ();
 		this.parser = new Parser<Identity> ();
-		this.finder = new Finder<Identity> ();
+		this.socialStats = new SocialStatsAccumulator ();
 		
 		Model model = null;
 		try {
@@ -228,10 +232,14 @@ public class CommentAnalyserTask extends PostProcessorTask {
 			model.foreachBugClosedStats (project, new ObjectCallback<Tuple<Identity,Identity>> () {
 				@Override
 				public boolean processResult (Tuple<Identity, Identity> item) throws SQLException, Exception {
-					fm.addSocialStats (item.fst, item.snd, 0, 0, 0, 0, 0, 0, 1);
+					socialStats.add (item.fst, item.snd, 0, 0, 0, 0, 0, 0, 1);
 					return true;
 				}
 			});
+
+			fm.begin ();
+			socialStats.flush (fm);
+			fm.commit ();
 		} catch (Exception e) {
 			throw new PostProcessorException (e);
 		} finally {
@@ -248,8 +256,8 @@ public class CommentAnalyserTask extends PostProcessorTask {
 		// Cleanup:
 		this.fileInteractions = null;
 		this.analyser = null;
-		this.finder = null;
 		this.parser= null;
+		this.socialStats = null;
 	}
 
 	private void fileInteractions (PostProcessor processor) throws PostProcessorException {
@@ -264,11 +272,13 @@ public class CommentAnalyserTask extends PostProcessorTask {
 				for (Identity from: identities) {
 					for (Identity to : identities) {
 						if (from.equals (to) == false) {
-							model.addSocialStats (from, to, 0, 0, 0, 1, 0, 0, 0);
+							socialStats.add (from, to, 0, 0, 0, 1, 0, 0, 0);
 						}
 					}
 				}
 			}
+			// Also writes all pending bug and commit stats:
+			socialStats.flush (model);
 			model.commit ();
 		} catch (SQLException e) {
 			if (model != null) {
@@ -285,11 +295,17 @@ public class CommentAnalyserTask extends PostProcessorTask {
 		}
 	}
 	
+	@Override
+	public boolean isThreadSafe (long event) {
+		// commit () counts commits and collects file interactions
+		return event == PostProcessorTask.BUG;
+	}
+
 	@Override
 	public void bug (PostProcessor processor, Bug bug, List<BugHistory> history, List<Comment> comments) throws PostProcessorException {
 		LinkedList<CommentNode<Identity>> analysedComments = new LinkedList<CommentNode<Identity>> ();
-		HashMap<Integer, Identity> authorsById = new HashMap<Integer, Identity> ();
-		HashSet<Identity> authorsNew = new HashSet<Identity> ();
+		final HashMap<Integer, Identity> authorsById = new HashMap<Integer, Identity> ();
+		final HashSet<Identity> authorsNew = new HashSet<Identity> ();
 
 		Model model = null;
 		try {
@@ -297,7 +313,7 @@ public class CommentAnalyserTask extends PostProcessorTask {
 			int commentUpdateCnt = model.getBugSentimentState (bug);
 			int commentCnt = 0;
 			// Analyse all comments first to avoid long transactions:
-			LinkedList<Stats> bugStats = new LinkedList<Stats> ();
+			final LinkedList<Stats> bugStats = new LinkedList<Stats> ();
 			for (Comment comment : comments) {
 				Identity author = comment.getIdentity ();
 				authorsById.put (author.getId (), author);
@@ -318,43 +334,44 @@ public class CommentAnalyserTask extends PostProcessorTask {
 				}
 			}
 
-			HashSet<Identity> authorsOld = new HashSet<Identity> (authorsById.values ());
+			final HashSet<Identity> authorsOld = new HashSet<Identity> (authorsById.values ());
 			authorsOld.removeAll (authorsNew);
 
+			model.close ();
+			model = null;
 
-			try {
-				model.begin ();
-				for (Stats bStats : bugStats) {
-					model.addSentiment (bStats.sentiment);
-					model.addBugCommentSentiment (bStats.comment, bStats.sentiment);
-					for (AuthorStats stat : bStats.stats) {
-						model.addSocialStats (stat.from, stat.to, stat.quotations, stat.patchesReviewed, 0, 0, 0, 0, 0);
+			processor.write (new ModelUpdate () {
+				@Override
+				public void apply (Model model) throws SQLException {
+					for (Stats bStats : bugStats) {
+						model.addSentiment (bStats.sentiment);
+						model.addBugCommentSentiment (bStats.comment, bStats.sentiment);
+						for (AuthorStats stat : bStats.stats) {
+							socialStats.add (stat.from, stat.to, stat.quotations, stat.patchesReviewed, 0, 0, 0, 0, 0);
+						}
 					}
-				}
 
-				// Update old:
-				for (Identity from : authorsOld) {
-					for (Identity to : authorsNew) {
-						model.addSocialStats (from, to, 0, 0, 1, 0, 0, 0, 0);
+					// Update old:
+					for (Identity from : authorsOld) {
+						for (Identity to : authorsNew) {
+							socialStats.add (from, to, 0, 0, 1, 0, 0, 0, 0);
+						}
 					}
-				}
 
-				// Add new:
-				for (Identity from : authorsNew) {
-					for (Identity to : authorsById.values ()) {
-						if (from.equals (to) == false) {
-							model.addSocialStats (from, to, 0, 0, 1, 0, 0, 0, 0);
+					// Add new:
+					for (Identity from : authorsNew) {
+						for (Identity to : authorsById.values ()) {
+							if (from.equals (to) == false) {
+								socialStats.add (from, to, 0, 0, 1, 0, 0, 0, 0);
+							}
 						}
 					}
+
+					if (socialStats.needsFlush ()) {
+						socialStats.flush (model);
+					}
 				}
-				model.commit ();
-			} catch (SQLException e) {
-				try {
-					model.rollback ();
-				} catch (SQLException e1) {
-				}
-				throw e;
-			}
+			});
 		} catch (SQLException e) {
 			throw new PostProcessorException (e);
 		} finally {
@@ -397,7 +414,10 @@ public class CommentAnalyserTask extends PostProcessorTask {
 				Identity from = commit.getCommitter ();
 				Identity to = commit.getAuthor ();
 				if (from.equals (to) == false) {
-					model.addSocialStats (from, to, 0, 0, 0, 0, 0, 1, 0);
+					socialStats.add (from, to, 0, 0, 0, 0, 0, 1, 0);
+				}
+				if (socialStats.needsFlush ()) {
+					socialStats.flush (model);
 				}
 				model.commit ();
 			} catch (SQLException e) {
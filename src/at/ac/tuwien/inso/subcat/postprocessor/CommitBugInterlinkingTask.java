@@ -42,10 +42,12 @@ import at.ac.tuwien.inso.subcat.model.Commit;
 import at.ac.tuwien.inso.subcat.model.FileChange;
 import at.ac.tuwien.inso.subcat.model.Identity;
 import at.ac.tuwien.inso.subcat.model.Model;
+import at.ac.tuwien.inso.subcat.model.SocialStatsAccumulator;
 
 
 public class CommitBugInterlinkingTask extends PostProcessorTask {
 	private final Set<String> bugKeywords = new HashSet<String> ();
+	private SocialStatsAccumulator socialStats;
 
 	private final static String regexPara = "\r?\n([ |\t]*\r?\n)+";
 	private final static Pattern pPara = Pattern.compile (regexPara);
@@ -188,7 +190,10 @@ public class CommitBugInterlinkingTask extends PostProcessorTask {
 					Identity to = bug.getIdentity ();
 					model.begin ();
 					if (from.equals (to) == false) {
-						model.addSocialStats (from, to, 0, 0, 0, 0, 1, 0, 0);
+						socialStats.add (from, to, 0, 0, 0, 0, 1, 0, 0);
+					}
+					if (socialStats.needsFlush ()) {
+						socialStats.flush (model);
 					}
 					model.addBugfixCommit (commit, bug);
 					model.commit ();
@@ -253,6 +258,7 @@ public class CommitBugInterlinkingTask extends PostProcessorTask {
 			model = processor.getModelPool ().getModel ();
 			model.removeBugfixCommits (processor.getProject ());
 			model.cleanBugInterlinkingStats (processor.getProject ());
+			socialStats = new SocialStatsAccumulator ();
 		} catch (SQLException e) {
 			throw new PostProcessorException (e);
 		} finally {
@@ -273,6 +279,26 @@ public class CommitBugInterlinkingTask extends PostProcessorTask {
 	
 	@Override
 	public void end (PostProcessor processor) throws PostProcessorException {
+		Model model = null;
+		try {
+			model = processor.getModelPool ().getModel ();
+			model.begin ();
+			socialStats.flush (model);
+			model.commit ();
+		} catch (SQLException e) {
+			if (model != null) {
+				try {
+					model.rollback ();
+				} catch (SQLException e1) {
+				}
+			}
+			throw new PostProcessorException (e);
+		} finally {
+			if (model != null) {
+				model.close ();
+			}
+			socialStats = null;
+		}
 	}
 	
 	@Override
@@ -34,10 +34,15 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -48,14 +53,15 @@ import org.apache.commons.cli.PosixParser;
 
 import at.ac.tuwien.inso.subcat.miner.Settings;
 import at.ac.tuwien.inso.subcat.model.Bug;
+import at.ac.tuwien.inso.subcat.model.BugCallback;
 import at.ac.tuwien.inso.subcat.model.BugHistory;
 import at.ac.tuwien.inso.subcat.model.Comment;
 import at.ac.tuwien.inso.subcat.model.Commit;
+import at.ac.tuwien.inso.subcat.model.CommitCallback;
 import at.ac.tuwien.inso.subcat.model.FileChange;
 import at.ac.tuwien.inso.subcat.model.Model;
 import at.ac.tuwien.inso.subcat.model.Model.Stats;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
-import at.ac.tuwien.inso.subcat.model.ObjectCallback;
 import at.ac.tuwien.inso.subcat.model.Project;
 import at.ac.tuwien.inso.subcat.utility.Reporter;
 import at.ac.tuwien.inso.subcat.utility.XmlReaderException;
@@ -77,8 +83,159 @@ public class PostProcessor {
 	private Project proj;
 
 	private PostProcessorException exception = null;
-	private boolean stopped = false;
-	
+	private volatile boolean stopped = false;
+
+	private ThreadLocal<List<ModelUpdate>> pendingWrites = new ThreadLocal<List<ModelUpdate>> ();
+	private int threads = 1;
+
+
+	//
+	// Parallel Processing:
+	//
+
+	private abstract class WorkItem implements Callable<WorkItem> {
+		public final LinkedList<ModelUpdate> writes = new LinkedList<ModelUpdate> ();
+
+		@Override
+		public WorkItem call () throws Exception {
+			// Writes are collected and applied in order by the writer:
+			pendingWrites.set (writes);
+			try {
+				runTasks (true);
+			} finally {
+				pendingWrites.remove ();
+			}
+
+			return this;
+		}
+
+		public abstract void runTasks (boolean threadSafe) throws PostProcessorException;
+
+		public abstract void notifyListeners ();
+	}
+
+	private class CommitItem extends WorkItem {
+		private Commit commit;
+		private List<FileChange> changes;
+
+		public CommitItem (Commit commit, List<FileChange> changes) {
+			this.commit = commit;
+			this.changes = changes;
+		}
+
+		@Override
+		public void runTasks (boolean threadSafe) throws PostProcessorException {
+			for (PostProcessorTask task : commitTasks) {
+				if (stopped){
+					break;
+				}
+
+				if (task.isThreadSafe (PostProcessorTask.COMMIT) == threadSafe) {
+					task.commit (PostProcessor.this, commit, changes);
+				}
+			}
+		}
+
+		@Override
+		public void notifyListeners () {
+			for (PostProcessorListener l : listener) {
+				l.commit (PostProcessor.this);
+			}
+		}
+	}
+
+	private class BugItem extends WorkItem {
+		private Bug bug;
+		private List<BugHistory> history;
+		private List<Comment> comments;
+
+		public BugItem (Bug bug, List<BugHistory> history, List<Comment> comments) {
+			this.bug = bug;
+			this.history = history;
+			this.comments = comments;
+		}
+
+		@Override
+		public void runTasks (boolean threadSafe) throws PostProcessorException {
+			for (PostProcessorTask task : bugTasks) {
+				if (stopped){
+					break;
+				}
+
+				if (task.isThreadSafe (PostProcessorTask.BUG) == threadSafe) {
+					task.bug (PostProcessor.this, bug, history, comments);
+				}
+			}
+		}
+
+		@Override
+		public void notifyListeners () {
+			for (PostProcessorListener l : listener) {
+				l.bug (PostProcessor.this);
+			}
+		}
+	}
+
+	/**
+	 * Runs thread-safe tasks on a work-stealing pool. The reader blocks
+	 * once the window of in-flight items is full. Items are finished in
+	 * reader order on the calling thread: queued writes are committed,
+	 * then the remaining tasks and the listeners are invoked.
+	 */
+	private class Pipeline {
+		private LinkedList<Future<WorkItem>> window = new LinkedList<Future<WorkItem>> ();
+		private ForkJoinPool executor;
+		private int windowSize;
+		private Model writer;
+
+		public Pipeline (int threads) throws SQLException {
+			this.executor = new ForkJoinPool (threads);
+			this.windowSize = threads * 4;
+			this.writer = pool.getModel ();
+		}
+
+		public void submit (WorkItem item) throws PostProcessorException, SQLException {
+			while (window.size () >= windowSize) {
+				finish (window.removeFirst ());
+			}
+
+			window.add (executor.submit (item));
+		}
+
+		public void drain () throws PostProcessorException, SQLException {
+			while (window.size () > 0) {
+				finish (window.removeFirst ());
+			}
+		}
+
+		public void close () {
+			executor.shutdownNow ();
+			writer.close ();
+		}
+
+		private void finish (Future<WorkItem> future) throws PostProcessorException, SQLException {
+			WorkItem item;
+			try {
+				item = future.get ();
+			} catch (InterruptedException e) {
+				Thread.currentThread ().interrupt ();
+				throw new PostProcessorException ("Interrupted", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause ();
+				if (cause instanceof PostProcessorException) {
+					throw (PostProcessorException) cause;
+				} else if (cause instanceof Exception) {
+					throw new PostProcessorException ((Exception) cause);
+				}
+				throw new PostProcessorException (e);
+			}
+
+			applyWrites (writer, item.writes);
+			item.runTasks (false);
+			item.notifyListeners ();
+		}
+	}
+
 
 	public PostProcessor (Project proj, ModelPool pool, Settings settings) {
 		beginTasks = new LinkedList<PostProcessorTask> ();
@@ -115,6 +272,66 @@ public class PostProcessor {
 		return proj;
 	}
 
+	/**
+	 * Sets the number of worker threads used for thread-safe
+	 * tasks. All tasks run on the calling thread if set to 1.
+	 */
+	public void setThreads (int threads) {
+		assert (threads >= 1);
+
+		this.threads = threads;
+	}
+
+	public int getThreads () {
+		return threads;
+	}
+
+	/**
+	 * Applies the given update in its own transaction. Updates issued
+	 * by thread-safe tasks are deferred and committed in item order.
+	 */
+	public void write (ModelUpdate update) throws PostProcessorException {
+		assert (update != null);
+
+		List<ModelUpdate> pending = pendingWrites.get ();
+		if (pending != null) {
+			pending.add (update);
+			return ;
+		}
+
+		Model model = null;
+		try {
+			model = pool.getModel ();
+			applyWrites (model, Collections.singletonList (update));
+		} catch (SQLException e) {
+			throw new PostProcessorException (e);
+		} finally {
+			if (model != null) {
+				model.close ();
+			}
+		}
+	}
+
+	private void applyWrites (Model model, List<ModelUpdate> updates) throws SQLException {
+		if (updates.size () == 0) {
+			return ;
+		}
+
+		try {
+			model.begin ();
+			for (ModelUpdate update : updates) {
+				update.apply (model);
+			}
+			model.commit ();
+		} catch (SQLException e) {
+			try {
+				model.rollback ();
+			} catch (SQLException e1) {
+			}
+			throw e;
+		}
+	}
+
 	public void register (Collection<PostProcessorTask> collection) {
 		for (PostProcessorTask task : collection) {
 			register (task);
@@ -149,35 +366,50 @@ public class PostProcessor {
 			public void run () {
 				
 				Model model = null;
+				Pipeline _pipeline = null;
 				try {
 					model = pool.getModel ();
 					emitBegin ();
 
+					if (threads > 1) {
+						_pipeline = new Pipeline (threads);
+					}
+					final Pipeline pipeline = _pipeline;
+
 					if (commitTasks.size () > 0) {
-						model.foreachCommit (proj, new ObjectCallback<Commit> () {
+						model.foreachCommitWithChanges (proj, new CommitCallback () {
 							@Override
-							public boolean processResult (Commit item) throws SQLException, Exception {								
-								Model model2 = pool.getModel ();
-								List<FileChange> changes = model2.getFileChanges (item);
-								model2.close ();
-								emitCommit (item, changes);
+							public boolean processResult (Commit item, List<FileChange> changes) throws SQLException, Exception {
+								if (pipeline != null) {
+									pipeline.submit (new CommitItem (item, changes));
+								} else {
+									emitCommit (item, changes);
+								}
 								return !stopped;
 							}				
 						});
+
+						if (pipeline != null) {
+							pipeline.drain ();
+						}
 					}
 
 					if (bugTasks.size () > 0) {
-						model.foreachBug (proj, new ObjectCallback<Bug> () {
+						model.foreachBugWithHistory (proj, new BugCallback () {
 							@Override
-							public boolean processResult (Bug bug) throws SQLException, Exception {
-								Model model2 = pool.getModel ();
-								List<BugHistory> history = model2.getBugHistory (proj, bug);
-								List<Comment> comments = model2.getComments (proj, bug);
-								model2.close ();
-								emitBug (bug, history, comments);
+							public boolean processResult (Bug bug, List<BugHistory> history, List<Comment> comments) throws SQLException, Exception {
+								if (pipeline != null) {
+									pipeline.submit (new BugItem (bug, history, comments));
+								} else {
+									emitBug (bug, history, comments);
+								}
 								return !stopped;
 							}
 						});
+
+						if (pipeline != null) {
+							pipeline.drain ();
+						}
 					}
 
 					emitEnd ();
@@ -188,6 +420,9 @@ public class PostProcessor {
 				} catch (Exception e) {
 					exception = new PostProcessorException ("Unexpected Error: " + e.getMessage (), e);
 				} finally {
+					if (_pipeline != null) {
+						_pipeline.close ();
+					}
 					if (model != null) {
 						model.close ();
 					}
@@ -280,6 +515,8 @@ public class PostProcessor {
 		options.addOption ("b", "bug-dictionary", true, "Path to a classification dictionary for bug classification"); 
 		options.addOption ("m", "smart-matching", true, "Smart user matching configuration. Syntax: <method>:<distance>");
 		options.addOption ("M", "list-matching-methods", false, "List smart matching methods");
+		options.addOption ("t", "threads", true, "Number of worker threads for thread-safe processor steps, defaults to 1");
+		options.addOption (null, "query-stats", true, "Print SQL statement statistics, argument: slow query threshold in ms");
 
 		final Reporter reporter = new Reporter (true);
 		reporter.startTimer ();
@@ -329,6 +566,16 @@ public class PostProcessor {
 			
 			pool = new ModelPool (cmd.getOptionValue ("db"), 2);
 
+			if (cmd.hasOption ("query-stats")) {
+				try {
+					pool.enableQueryStats (Long.parseLong (cmd.getOptionValue ("query-stats")));
+				} catch (Exception e) {
+					reporter.error ("post-processor", "--query-stats: Invalid parameter type");
+					reporter.printSummary ();
+					return ;
+				}
+			}
+
 			if (cmd.hasOption ("list-projects")) {
 				Model model = pool.getModel ();
 
@@ -439,7 +686,26 @@ public class PostProcessor {
 				interlinkingTask.setHashFunc (func);
 			}
 
+			int threads = 1;
+			if (cmd.hasOption ("threads")) {
+				try {
+					threads = Integer.parseInt (cmd.getOptionValue ("threads"));
+				} catch (NumberFormatException e) {
+					threads = -1;
+				}
+
+				if (threads < 1) {
+					reporter.error ("post-processor", "Invalid thread count");
+					reporter.printSummary ();
+					return ;
+				}
+
+				// Workers, reader and writer:
+				pool.setConnectionPoolSize (threads + 2);
+			}
+
 			PostProcessor processor = new PostProcessor (project, pool, settings);
+			processor.setThreads (threads);
 			if (cmd.hasOption ("processor-step")) {
 				for (String stepName : cmd.getOptionValues ("processor-step")) {
 					PostProcessorTask step = steps.get (stepName);
@@ -501,6 +767,9 @@ public class PostProcessor {
 			}
 		} finally {
 			if (pool != null) {
+				if (pool.getQueryStats () != null) {
+					pool.getQueryStats ().dump (System.out, 25);
+				}
 				pool.close ();
 			}
 		}
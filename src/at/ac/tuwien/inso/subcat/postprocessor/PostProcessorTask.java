@@ -76,5 +76,15 @@ public abstract class PostProcessorTask {
 	public void end (PostProcessor processor) throws PostProcessorException {
 	}
 
+	/**
+	 * Returns true if commit () or bug () (event: COMMIT, BUG) may be
+	 * called concurrently for different items. Thread-safe handlers must
+	 * not rely on the item order and have to route their database writes
+	 * through PostProcessor.write ().
+	 */
+	public boolean isThreadSafe (long event) {
+		return false;
+	}
+
 	public abstract String getName ();
 }
\ No newline at end of file
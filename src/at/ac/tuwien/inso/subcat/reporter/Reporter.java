@@ -60,6 +60,7 @@ import at.ac.tuwien.inso.subcat.miner.Settings;
 import at.ac.tuwien.inso.subcat.model.Model;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
 import at.ac.tuwien.inso.subcat.model.Project;
+import at.ac.tuwien.inso.subcat.model.QueryPlanAdvisor;
 import at.ac.tuwien.inso.subcat.model.ResultCallback;
 import at.ac.tuwien.inso.subcat.utility.Lemmatizer;
 
@@ -229,7 +230,7 @@ public class Reporter {
 		options.addOption ("d", "db", true, "The database to process (required)");
 		options.addOption ("p", "project", true, "The project ID to process");
 		options.addOption ("P", "list-projects", false, "List all registered projects");
-		options.addOption ("C", "config", true, "A configuration file including reports");
+		options.addOption ("C", "config", true, "A configuration file including reports. Dates are stored as seconds since the epoch, use strftime (..., 'unixepoch', 'localtime')");
 		options.addOption ("F", "list-formats", false, "List all supported output formats");
 		options.addOption ("f", "format", true, "Output format");
 		options.addOption ("R", "list-reports", false, "List all report types");
@@ -239,6 +240,7 @@ public class Reporter {
 		options.addOption ("b", "bug-dictionary", true, "The bug dictionary ID to use");
 		options.addOption ("D", "list-dictionaries", false, "List all dictionaries");
 		options.addOption ("v", "verbose", false, "Show details");
+		options.addOption (null, "query-stats", true, "Print SQL statement statistics, argument: slow query threshold in ms");
 
 		
 		at.ac.tuwien.inso.subcat.utility.Reporter errReporter = new at.ac.tuwien.inso.subcat.utility.Reporter (false);
@@ -286,6 +288,8 @@ public class Reporter {
 				return ;
 			}
 
+			QueryPlanAdvisor.checkDateFunctions (config, errReporter);
+
 			if (cmd.hasOption ("list-reports")) {
 				int i = 1;
 
@@ -307,7 +311,17 @@ public class Reporter {
 			
 			pool = new ModelPool (cmd.getOptionValue ("db"), 2);
 			pool.setPrintTemplates (verbose);
-			model = pool.getModel ();
+
+			if (cmd.hasOption ("query-stats")) {
+				try {
+					pool.enableQueryStats (Long.parseLong (cmd.getOptionValue ("query-stats")));
+				} catch (Exception e) {
+					errReporter.error ("reporter", "--query-stats: Invalid parameter type");
+					errReporter.printSummary ();
+					return ;
+				}
+			}
+			model = pool.getReadOnlyModel ();
 
 			if (cmd.hasOption ("list-formats")) {
 				Reporter exporter = new Reporter (model);
@@ -351,7 +365,7 @@ public class Reporter {
 			}
 
 			String outputPath = cmd.getOptionValue ("output");
-			model = pool.getModel ();
+			model = pool.getReadOnlyModel ();
 			Project project = model.getProject (projId);
 
 			if (project == null) {
@@ -491,6 +505,9 @@ public class Reporter {
 				model.close ();
 			}
 			if (pool != null) {
+				if (pool.getQueryStats () != null) {
+					pool.getQueryStats ().dump (System.out, 25);
+				}
 				pool.close ();
 			}
 		}
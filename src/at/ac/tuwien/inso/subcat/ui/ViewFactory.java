@@ -72,6 +72,7 @@ import at.ac.tuwien.inso.subcat.config.ViewConfig;
 import at.ac.tuwien.inso.subcat.model.Model;
 import at.ac.tuwien.inso.subcat.model.ModelPool;
 import at.ac.tuwien.inso.subcat.model.Project;
+import at.ac.tuwien.inso.subcat.model.QueryPlanAdvisor;
 import at.ac.tuwien.inso.subcat.ui.controller.DistributionChartController;
 import at.ac.tuwien.inso.subcat.ui.controller.PieChartController;
 import at.ac.tuwien.inso.subcat.ui.controller.TrendChartController;
@@ -324,7 +325,7 @@ public class ViewFactory {
 		options.addOption ("d", "db", true, "The database to process (required)");
 		options.addOption ("p", "project", true, "The project ID to process");
 		options.addOption ("P", "list-projects", false, "List all registered projects");
-		options.addOption ("C", "config", true, "A configuration file including reports");
+		options.addOption ("C", "config", true, "A configuration file including reports. Dates are stored as seconds since the epoch, use strftime (..., 'unixepoch', 'localtime')");
 		options.addOption ("c", "commit-dictionary", true, "The commit dictionary ID to use");
 		options.addOption ("b", "bug-dictionary", true, "The bug dictionary ID to use");
 		options.addOption ("D", "list-dictionaries", false, "List all dictionaries");
@@ -378,6 +379,8 @@ public class ViewFactory {
 				reporter.printSummary ();
 				return ;
 			}
+
+			QueryPlanAdvisor.checkDateFunctions (config, reporter);
 			
 			
 			File dbf = new File (cmd.getOptionValue ("db"));
@@ -51,13 +51,19 @@ public class SentimentAnalyser<T> {
 	public SentimentAnalyser () {
 	}
 
-	public SentimentBlock get (String str) {
+	private synchronized StanfordCoreNLP getPipeline () {
 		if (pipeline == null) {
 			Properties props = new Properties();
 			props.setProperty("annotators", "tokenize, ssplit, parse, sentiment");
 			pipeline = new StanfordCoreNLP(props);
 		}
 
+		return pipeline;
+	}
+
+	public SentimentBlock get (String str) {
+		StanfordCoreNLP pipeline = getPipeline ();
+
 		LinkedList<SentenceSentiment> sentiments = new LinkedList<SentenceSentiment> ();
 		int[] classes = new int[5];
 